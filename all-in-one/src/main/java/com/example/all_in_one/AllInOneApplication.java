@@ -0,0 +1,54 @@
+package com.example.all_in_one;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.FullyQualifiedAnnotationBeanNameGenerator;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.order_service.OrderServiceApplication;
+import com.example.read_replicas.ReadReplicaConfig;
+
+/**
+ * Runs customer-service and order-service in one JVM and one application
+ * context, for small environments where a JVM per service costs more memory
+ * than the services themselves.
+ *
+ * The {@value #PROFILE} profile swaps the services' HTTP clients for the
+ * in-process ones in this package, so there is no registry lookup and no
+ * network hop between them. The two services keep classes with the same
+ * simple names, so beans are named by their fully qualified class name.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJpaAuditing
+@EnableJpaRepositories(basePackages = { "com.example.customer_service.repository",
+		"com.example.order_service.repository" })
+@EntityScan(basePackages = { "com.example.customer_service.model", "com.example.order_service.model" })
+@ComponentScan(basePackages = { "com.example.all_in_one", "com.example.customer_service", "com.example.order_service" },
+		nameGenerator = FullyQualifiedAnnotationBeanNameGenerator.class,
+		excludeFilters = {
+				@Filter(type = FilterType.ASSIGNABLE_TYPE, classes = { CustomerServiceApplication.class,
+						OrderServiceApplication.class }),
+				// order-service's refresh endpoint and rebinder already cover the shared registries
+				// and pools
+				@Filter(type = FilterType.REGEX, pattern = "com\\.example\\.customer_service\\.config\\..*") })
+@Import(ReadReplicaConfig.class)
+public class AllInOneApplication {
+
+	public static final String PROFILE = "all-in-one";
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(AllInOneApplication.class)
+				.profiles(PROFILE)
+				.run(args);
+	}
+
+}
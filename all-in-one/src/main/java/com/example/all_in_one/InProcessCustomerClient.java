@@ -0,0 +1,58 @@
+package com.example.all_in_one;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.customer_service.exception.ResourceNotFoundException;
+import com.example.customer_service.service.CustomerService;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+
+/**
+ * Serves order-service's customer lookups straight from customer-service's
+ * {@link CustomerService}.
+ */
+@Component
+@Profile(AllInOneApplication.PROFILE)
+public class InProcessCustomerClient implements CustomerClient {
+
+    private final CustomerService customerService;
+
+    public InProcessCustomerClient(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Override
+    public ResponseEntity<Customer> getCustomer(Long customerId) {
+        com.example.customer_service.model.Customer customer;
+        try {
+            customer = customerService.getCustomerById(customerId);
+        } catch (ResourceNotFoundException ex) {
+            // what the RestTemplate throws for customer-service's 404, so the
+            // circuit breaker, fallback and revalidator behave the same
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, ex.getMessage(), HttpHeaders.EMPTY, null,
+                    null);
+        }
+        return ResponseEntity.ok(toOrderModel(customer));
+    }
+
+    @Override
+    public Map<Long, Customer> getCustomers(Collection<Long> customerIds) {
+        return customerService.getCustomersByIds(customerIds).values().stream()
+                .collect(Collectors.toMap(com.example.customer_service.model.Customer::getId,
+                        InProcessCustomerClient::toOrderModel));
+    }
+
+    private static Customer toOrderModel(com.example.customer_service.model.Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAddress(),
+                customer.getCreatedAt(), customer.getTotalOrders());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.all_in_one;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.example.customer_service.client.OrderClient;
+import com.example.order_service.service.OrderService;
+
+/**
+ * Deletes a removed customer's orders through order-service's
+ * {@link OrderService} instead of over HTTP.
+ */
+@Component
+@Profile(AllInOneApplication.PROFILE)
+public class InProcessOrderClient implements OrderClient {
+
+    // looked up on use, OrderService itself depends on CustomerService through InProcessCustomerClient
+    private final ObjectProvider<OrderService> orderService;
+
+    public InProcessOrderClient(ObjectProvider<OrderService> orderService) {
+        this.orderService = orderService;
+    }
+
+    @Override
+    public void deleteAllOrders(Long customerId) {
+        orderService.getObject().deleteAllOrders(customerId);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.all_in_one;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.customer_service.client.OrderClient;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.repository.CustomerRepository;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles({ "test", AllInOneApplication.PROFILE })
+@AutoConfigureMockMvc
+public class AllInOneAcceptanceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerClient customerClient;
+
+    @Autowired
+    private OrderClient orderClient;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void clients_ShouldBeInProcess() {
+        assertInstanceOf(InProcessCustomerClient.class, customerClient);
+        assertInstanceOf(InProcessOrderClient.class, orderClient);
+    }
+
+    @Test
+    void createOrder_ShouldValidateCustomerInProcess() throws Exception {
+        // Given
+        Customer customer = customerRepository
+                .save(new Customer(null, "Alice", "alice@example.com", "123 Test Lane", LocalDateTime.now(), 0));
+        Map<String, Object> orderRequest = Map.of("customerId", customer.getId(), "product", "Test Product",
+                "quantity", 2);
+
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").exists())
+                .andExpect(jsonPath("$.quantity").value(2));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void createOrder_WhenCustomerDoesNotExist_ShouldNotSaveOrder() throws Exception {
+        // Given
+        Map<String, Object> orderRequest = Map.of("customerId", 404, "product", "Test Product", "quantity", 2);
+
+        // When & Then
+        // the in-process 404 reaches the circuit breaker's fallback like customer-service's would
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isNotFound());
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void deleteCustomer_ShouldDeleteOrdersInProcess() throws Exception {
+        // Given
+        Customer customer = customerRepository
+                .save(new Customer(null, "Bob", "bob@example.com", "1 Main Street", LocalDateTime.now(), 0));
+        orderRepository.save(new Order(null, customer.getId(), "Test Product", 1, LocalDateTime.now()));
+
+        // When
+        mockMvc.perform(delete("/api/customers/" + customer.getId()));
+
+        // Then
+        assertEquals(0, orderRepository.count());
+        assertEquals(0, customerRepository.count());
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.all_in_one;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.order_service.OrderServiceApplication;
+
+/**
+ * Compares the distributed layout, customer-service and order-service in
+ * their own JVMs calling each other over HTTP, with both hosted by
+ * {@link AllInOneApplication}. Every JVM gets the same heap limit and an
+ * in-memory H2 database; the distributed services find each other through
+ * static discovery, so the registry JVM of a real deployment is not counted.
+ *
+ * The load creates orders and lists a customer's orders, both of which
+ * validate the customer through customer-service. Reported are the requests
+ * per second and the resident memory of all JVMs of the layout. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class DeploymentLayoutBenchmark {
+
+    private static final int CUSTOMERS = 50;
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 4);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 20));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.seconds", 30));
+    private static final String MAX_HEAP = System.getProperty("benchmark.max-heap", "256m");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<Process> processes = new ArrayList<>();
+
+    @AfterEach
+    void stopProcesses() throws InterruptedException {
+        for (Process process : processes) {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void distributed() throws Exception {
+        // Given
+        int customerPort = freePort();
+        int orderPort = freePort();
+        long started = System.nanoTime();
+        start(CustomerServiceApplication.class, customerPort, "customer-service",
+                "--spring.cloud.discovery.enabled=true",
+                "--spring.cloud.discovery.client.simple.instances.order-service[0].uri=http://localhost:" + orderPort);
+        start(OrderServiceApplication.class, orderPort, "order-service",
+                "--spring.cloud.discovery.enabled=true",
+                "--spring.cloud.discovery.client.simple.instances.customer-service[0].uri=http://localhost:"
+                        + customerPort);
+        awaitUp(customerPort);
+        awaitUp(orderPort);
+
+        // When & Then
+        run("distributed (2 JVMs)", started, customerPort, orderPort);
+    }
+
+    @Test
+    void allInOne() throws Exception {
+        // Given
+        int port = freePort();
+        long started = System.nanoTime();
+        start(AllInOneApplication.class, port, "all-in-one");
+        awaitUp(port);
+
+        // When & Then
+        run("all-in-one (1 JVM)", started, port, port);
+    }
+
+    private void run(String layout, long started, int customerPort, int orderPort) throws Exception {
+        double startupSeconds = (System.nanoTime() - started) / 1e9;
+        List<Long> customerIds = createCustomers(customerPort);
+        load(orderPort, customerIds, WARMUP);
+        Result result = load(orderPort, customerIds, MEASUREMENT);
+        long rssKb = 0;
+        for (Process process : processes) {
+            rssKb += residentKb(process.pid());
+        }
+
+        assertEquals(0, result.errors(), "requests failed");
+        Collections.sort(result.latencies());
+        System.out.printf("%n%s: started in %.1f s, %d clients for %d s%n", layout, startupSeconds, CLIENTS,
+                MEASUREMENT.toSeconds());
+        System.out.printf("throughput %.0f req/s, latency p50 %.2f ms, p99 %.2f ms%n",
+                result.latencies().size() / (double) MEASUREMENT.toSeconds(),
+                percentile(result.latencies(), 0.50), percentile(result.latencies(), 0.99));
+        System.out.printf("resident memory %d MB over %d JVMs (max heap %s each)%n", rssKb / 1024,
+                processes.size(), MAX_HEAP);
+    }
+
+    // launches a service in its own JVM, from this module's classpath which holds both services
+    private void start(Class<?> application, int port, String name, String... args) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-Xmx" + MAX_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                application.getName(),
+                "--server.port=" + port,
+                "--spring.application.name=" + name,
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN"));
+        command.addAll(List.of(args));
+        Path workingDirectory = Files.createDirectories(Path.of("target", "benchmark", name));
+        processes.add(new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(new File(workingDirectory.toFile(), "console.log"))
+                .start());
+    }
+
+    private void awaitUp(int port) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    fail("a service exited during startup, see target/benchmark/*/console.log");
+                }
+            }
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        fail("service on port " + port + " did not start within " + STARTUP_TIMEOUT);
+    }
+
+    private List<Long> createCustomers(int port) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String body = """
+                    {"name":"Customer %d","email":"customer%d@example.com","address":"%d Main Street"}"""
+                    .formatted(i, i, i);
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/customers"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher id = ID.matcher(response.body());
+            assertTrue(id.find(), "customer not created: " + response.body());
+            ids.add(Long.valueOf(id.group(1)));
+        }
+        return ids;
+    }
+
+    // half the requests create an order, half list a customer's orders
+    private Result load(int port, List<Long> customerIds, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            futures.add(clients.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                long errors = 0;
+                for (long i = 0; System.nanoTime() < deadline; i++) {
+                    long customerId = customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+                    HttpRequest request = i % 2 == 0
+                            ? HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"customerId\":" + customerId + ",\"product\":\"Widget\",\"quantity\":1}"))
+                                    .build()
+                            : HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                    + "/api/orders/customer/" + customerId + "?page=0&size=5")).build();
+                    long start = System.nanoTime();
+                    int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status == 200) {
+                        latencies.add(System.nanoTime() - start);
+                    } else {
+                        errors++;
+                    }
+                }
+                return new Result(latencies, errors);
+            }));
+        }
+        List<Long> latencies = new ArrayList<>();
+        long errors = 0;
+        for (Future<Result> future : futures) {
+            latencies.addAll(future.get().latencies());
+            errors += future.get().errors();
+        }
+        clients.shutdown();
+        return new Result(latencies, errors);
+    }
+
+    private static long residentKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1e6;
+    }
+
+    private record Result(List<Long> latencies, long errors) {
+    }
+}
@@ -2,8 +2,15 @@ package com.example.api_gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Import;
+
+import com.example.registry_push_client.PushInstanceCache;
+import com.example.registry_push_client.PushLoadBalancerConfig;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = PushLoadBalancerConfig.class)
+@Import(PushInstanceCache.class)
 public class ApiGatewayApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,103 @@
+package com.example.api_gateway.concurrency;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds requests early with a 503 once a route has more requests in flight
+ * than its adaptive concurrency limit allows.
+ *
+ * Each route gets its own {@link GradientConcurrencyLimit}, so a slow
+ * order-service doesn't take capacity away from customer-service. The current
+ * limit, in-flight count and rejections are published as
+ * {@code gateway.concurrency.*} metrics tagged with the route id.
+ */
+public class AdaptiveConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitFilter.class);
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteLimiter limiter = limiters.computeIfAbsent(route.getId(), this::createLimiter);
+        if (!limiter.limit.tryAcquire()) {
+            limiter.rejected.increment();
+            logger.warn("Shedding request to route {}: limit {} reached", route.getId(), limiter.limit.getLimit());
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                limiter.limit.release();
+                return;
+            }
+            boolean dropped = signal == SignalType.ON_ERROR || isOverloadStatus(exchange.getResponse().getStatusCode());
+            limiter.limit.onSample(System.nanoTime() - start, dropped);
+        });
+    }
+
+    private boolean isOverloadStatus(HttpStatusCode status) {
+        return status != null
+                && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                        || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private RouteLimiter createLimiter(String routeId) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+        Gauge.builder("gateway.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, GradientConcurrencyLimit::getInFlight)
+                .description("Requests currently in flight")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteLimiter(limit, rejected);
+    }
+
+    // run before the load balancer and routing filters so shed requests never
+    // reach the backend
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private record RouteLimiter(GradientConcurrencyLimit limit, Counter rejected) {
+    }
+}
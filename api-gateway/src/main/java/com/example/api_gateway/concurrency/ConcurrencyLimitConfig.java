@@ -0,0 +1,20 @@
+package com.example.api_gateway.concurrency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.concurrency-limit", name = "enabled", matchIfMissing = true)
+    public AdaptiveConcurrencyLimitFilter adaptiveConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimitFilter(properties, meterRegistry);
+    }
+}
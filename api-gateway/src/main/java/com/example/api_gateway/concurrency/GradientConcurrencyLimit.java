@@ -0,0 +1,125 @@
+package com.example.api_gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for a single route, based on the gradient
+ * algorithm.
+ *
+ * The limit grows while the latency of recent requests stays close to the
+ * long-term average and shrinks as soon as requests start queueing up
+ * downstream (sample RTT rising above the long-term RTT). Requests beyond the
+ * current limit are rejected by the caller instead of being queued.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public GradientConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.smoothing = properties.getSmoothing();
+        this.rttTolerance = properties.getRttTolerance();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.longWindow = properties.getLongWindow();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * Reserves a slot for a new request.
+     *
+     * @return true if the request may proceed, false if it should be shed.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot without feeding the limit algorithm, e.g. when the client
+     * cancelled the request.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases a slot and updates the limit from the observed round-trip time.
+     *
+     * @param rttNanos The round-trip time of the request.
+     * @param dropped  Whether the request failed in a way that indicates
+     *                 downstream overload (error, timeout, 503).
+     */
+    public void onSample(long rttNanos, boolean dropped) {
+        int inFlightAtSample = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtSample, dropped);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtSample, boolean dropped) {
+        double limit = estimatedLimit;
+
+        if (dropped) {
+            estimatedLimit = clamp(limit * backoffRatio);
+            return;
+        }
+
+        // long-term RTT is a plain average during warmup, then an exponential
+        // average over roughly longWindow samples
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            double factor = 2.0 / (longWindow + 1);
+            longRttNanos = longRttNanos * (1 - factor) + rttNanos * factor;
+        }
+
+        // latency dropped well below the long-term average, let the average
+        // catch up faster so the limit can grow again
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // don't grow the limit when it isn't being used (app-limited)
+        if (inFlightAtSample < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = clamp(newLimit);
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.api_gateway.routing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+/**
+ * Immutable snapshot of the gateway routes with their path predicates
+ * compiled into a {@link RouteTrie}.
+ *
+ * Built once per route refresh; request lookups only evaluate the predicates
+ * of the candidate routes the trie returns, in the original route order, so the
+ * first matching route is the same one the default linear scan would pick.
+ */
+public class CompiledRouteTable {
+
+    private static final String PATH_PREDICATE = "Path";
+
+    private final List<Route> routes;
+    private final RouteTrie trie;
+
+    private CompiledRouteTable(List<Route> routes, RouteTrie trie) {
+        this.routes = routes;
+        this.trie = trie;
+    }
+
+    /**
+     * Compiles a route table.
+     *
+     * @param routes      The routes in evaluation order.
+     * @param definitions The route definitions the routes were built from, used
+     *                    to read the raw path patterns. Routes without a
+     *                    definition (e.g. Java DSL routes) are always evaluated.
+     * @return The compiled table.
+     */
+    public static CompiledRouteTable compile(List<Route> routes, List<RouteDefinition> definitions) {
+        Map<String, List<String>> patternsByRouteId = new HashMap<>();
+        for (RouteDefinition definition : definitions) {
+            patternsByRouteId.put(definition.getId(), pathPatterns(definition));
+        }
+
+        RouteTrie trie = new RouteTrie();
+        for (int i = 0; i < routes.size(); i++) {
+            List<String> patterns = patternsByRouteId.get(routes.get(i).getId());
+            if (patterns == null || patterns.isEmpty()) {
+                trie.insertUnindexed(i);
+                continue;
+            }
+            for (String pattern : patterns) {
+                trie.insert(pattern, i);
+            }
+        }
+        return new CompiledRouteTable(List.copyOf(routes), trie);
+    }
+
+    // patterns of the first Path predicate; every predicate of a definition has
+    // to match, so one is enough to narrow down candidates
+    private static List<String> pathPatterns(RouteDefinition definition) {
+        for (PredicateDefinition predicate : definition.getPredicates()) {
+            if (!PATH_PREDICATE.equals(predicate.getName())) {
+                continue;
+            }
+            List<String> patterns = new ArrayList<>();
+            for (String value : predicate.getArgs().values()) {
+                if ("true".equals(value) || "false".equals(value)) {
+                    // trailing matchTrailingSlash flag
+                    continue;
+                }
+                if (value == null || !value.startsWith("/")) {
+                    // not a plain pattern (e.g. an unresolved expression), can't index it
+                    return List.of();
+                }
+                patterns.add(value);
+            }
+            return patterns;
+        }
+        return List.of();
+    }
+
+    /**
+     * @param segments The decoded segments of the request path.
+     * @return The routes that could match the path, in evaluation order.
+     */
+    public List<Route> candidates(List<String> segments) {
+        BitSet indexes = trie.candidates(segments);
+        List<Route> result = new ArrayList<>(indexes.cardinality());
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            result.add(routes.get(i));
+        }
+        return result;
+    }
+
+    public int size() {
+        return routes.size();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.api_gateway.routing;
+
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class RouteTableConfig {
+
+    // replaces the gateway's default (linear scan) handler mapping
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+            RouteLocator routeLocator, RouteDefinitionLocator routeDefinitionLocator,
+            GlobalCorsProperties globalCorsProperties, Environment environment) {
+        return new TrieRoutePredicateHandlerMapping(webHandler, routeLocator, routeDefinitionLocator,
+                globalCorsProperties, environment);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.api_gateway.routing;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix trie over the literal leading path segments of route patterns.
+ *
+ * A pattern such as {@code /api/orders/**} is stored under the node
+ * {@code api -> orders}. Looking up a request path walks its segments and
+ * collects every route stored along the way, which gives the (small) set of
+ * routes whose path predicate could possibly match. Routes without an
+ * indexable path are stored at the root and are always candidates.
+ *
+ * Routes are identified by their position in the ordered route list, so the
+ * returned {@link BitSet} iterates candidates in route order.
+ */
+public class RouteTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * Indexes a route under the literal prefix of a path pattern.
+     *
+     * @param pattern    The path pattern, e.g. {@code /api/orders/**}.
+     * @param routeIndex The position of the route in the ordered route list.
+     */
+    public void insert(String pattern, int routeIndex) {
+        Node node = root;
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (!isLiteral(segment)) {
+                break;
+            }
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        node.routes.set(routeIndex);
+    }
+
+    /**
+     * Indexes a route that must be evaluated for every request.
+     *
+     * @param routeIndex The position of the route in the ordered route list.
+     */
+    public void insertUnindexed(int routeIndex) {
+        root.routes.set(routeIndex);
+    }
+
+    /**
+     * @param segments The decoded segments of the request path.
+     * @return The routes whose literal prefix matches the path, in route order.
+     */
+    public BitSet candidates(List<String> segments) {
+        BitSet result = (BitSet) root.routes.clone();
+        Node node = root;
+        for (String segment : segments) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+            result.or(node.routes);
+        }
+        return result;
+    }
+
+    private static boolean isLiteral(String segment) {
+        return segment.indexOf('{') < 0 && segment.indexOf('*') < 0 && segment.indexOf('?') < 0;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final BitSet routes = new BitSet();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.api_gateway.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Route handler mapping that looks up routes through a precompiled
+ * {@link CompiledRouteTable} instead of testing every route's predicates in
+ * order.
+ *
+ * The table is rebuilt each time the cached route list refreshes (startup,
+ * discovery heartbeats, actuator refresh). Until the first table is compiled
+ * lookups fall back to the default linear scan.
+ */
+public class TrieRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+        implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrieRoutePredicateHandlerMapping.class);
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final AtomicReference<CompiledRouteTable> table = new AtomicReference<>();
+
+    public TrieRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+            RouteDefinitionLocator routeDefinitionLocator, GlobalCorsProperties globalCorsProperties,
+            Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess()) {
+            return;
+        }
+        Mono.zip(routeLocator.getRoutes().collectList(), routeDefinitionLocator.getRouteDefinitions().collectList())
+                .map(tuple -> CompiledRouteTable.compile(tuple.getT1(), tuple.getT2()))
+                .subscribe(compiled -> {
+                    table.set(compiled);
+                    logger.info("Compiled route table with {} routes", compiled.size());
+                }, ex -> logger.error("Failed to compile route table, keeping previous one", ex));
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        CompiledRouteTable compiled = table.get();
+        if (compiled == null) {
+            return super.lookupRoute(exchange);
+        }
+
+        List<Route> candidates = compiled.candidates(pathSegments(exchange));
+        return Flux.fromIterable(candidates)
+                .concatMap(route -> Mono.just(route).filterWhen(r -> {
+                    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                    return r.getPredicate().apply(exchange);
+                })
+                        .doOnError(e -> logger.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+
+    // same decoded segment values the Path predicate matches against
+    private List<String> pathSegments(ServerWebExchange exchange) {
+        List<PathContainer.Element> elements = exchange.getRequest().getPath().pathWithinApplication().elements();
+        List<String> segments = new ArrayList<>(elements.size() / 2 + 1);
+        for (PathContainer.Element element : elements) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.api_gateway.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.server.session.WebSessionStore;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded in-memory {@link WebSessionStore} that keeps session attributes as
+ * serialized (and optionally deflated) byte arrays rather than live object
+ * graphs.
+ *
+ * Holds at most {@code maxSessions} sessions; when full, the least recently
+ * used session is evicted instead of rejecting new logins. Sessions idle for
+ * longer than their max idle time are dropped on access and by
+ * {@link #removeExpiredSessions()}. Attributes are serialized again on every
+ * save of a started session: a value changed in place, such as the
+ * authorized clients map of oauth2-client, leaves the attribute map itself
+ * unchanged.
+ */
+public class CompactWebSessionStore implements WebSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactWebSessionStore.class);
+
+    private static final IdGenerator idGenerator = new JdkIdGenerator();
+
+    private final int maxSessions;
+    private final Duration maxIdleTime;
+    private final boolean compress;
+    private final Clock clock;
+
+    private final AtomicLong totalStoredBytes = new AtomicLong();
+    private final AtomicLong capacityEvictions = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+
+    // access-ordered, so the eldest entry is the least recently used session
+    private final LinkedHashMap<String, StoredSession> sessions;
+
+    public CompactWebSessionStore(SessionStoreProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public CompactWebSessionStore(SessionStoreProperties properties, Clock clock) {
+        this.maxSessions = properties.getMaxSessions();
+        this.maxIdleTime = properties.getMaxIdleTime();
+        this.compress = properties.isCompress();
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredSession> eldest) {
+                if (size() > maxSessions) {
+                    totalStoredBytes.addAndGet(-eldest.getValue().attributes().length);
+                    capacityEvictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Mono<WebSession> createWebSession() {
+        Instant now = clock.instant();
+        return Mono.fromSupplier(() -> new CompactWebSession(idGenerator.generateId().toString(), now, now,
+                maxIdleTime, new ConcurrentHashMap<>(), null));
+    }
+
+    @Override
+    public Mono<WebSession> retrieveSession(String id) {
+        Instant now = clock.instant();
+        StoredSession stored;
+        synchronized (sessions) {
+            stored = sessions.get(id);
+            if (stored != null && stored.isExpired(now)) {
+                remove(id);
+                idleEvictions.incrementAndGet();
+                stored = null;
+            }
+        }
+        if (stored == null) {
+            return Mono.empty();
+        }
+        Map<String, Object> attributes = new ConcurrentHashMap<>(deserialize(stored.attributes()));
+        return Mono.just(new CompactWebSession(stored.id(), stored.creationTime(), stored.lastAccessTime(),
+                stored.maxIdleTime(), attributes, stored.attributes()));
+    }
+
+    @Override
+    public Mono<Void> removeSession(String id) {
+        synchronized (sessions) {
+            remove(id);
+        }
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<WebSession> updateLastAccessTime(WebSession webSession) {
+        return Mono.fromSupplier(() -> {
+            ((CompactWebSession) webSession).lastAccessTime = clock.instant();
+            return webSession;
+        });
+    }
+
+    /**
+     * Drops every session that has been idle for longer than its max idle time.
+     */
+    public void removeExpiredSessions() {
+        Instant now = clock.instant();
+        int removed = 0;
+        synchronized (sessions) {
+            Iterator<StoredSession> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                StoredSession stored = iterator.next();
+                if (stored.isExpired(now)) {
+                    totalStoredBytes.addAndGet(-stored.attributes().length);
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        idleEvictions.addAndGet(removed);
+        if (removed > 0) {
+            logger.debug("Removed {} expired sessions", removed);
+        }
+    }
+
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public long getStoredBytes() {
+        return totalStoredBytes.get();
+    }
+
+    public long getCapacityEvictions() {
+        return capacityEvictions.get();
+    }
+
+    public long getIdleEvictions() {
+        return idleEvictions.get();
+    }
+
+    private void store(StoredSession stored) {
+        synchronized (sessions) {
+            StoredSession previous = sessions.put(stored.id(), stored);
+            long previousLength = previous != null ? previous.attributes().length : 0;
+            totalStoredBytes.addAndGet(stored.attributes().length - previousLength);
+        }
+    }
+
+    // caller holds the sessions lock
+    private void remove(String id) {
+        StoredSession removed = sessions.remove(id);
+        if (removed != null) {
+            totalStoredBytes.addAndGet(-removed.attributes().length);
+        }
+    }
+
+    private byte[] serialize(Map<String, Object> attributes) {
+        HashMap<String, Object> serializable = new HashMap<>();
+        attributes.forEach((key, value) -> {
+            if (value instanceof Serializable) {
+                serializable.put(key, value);
+            } else {
+                logger.warn("Session attribute {} is not serializable and will not be stored", key);
+            }
+        });
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (OutputStream out = compress ? new DeflaterOutputStream(bytes) : bytes;
+                ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(serializable);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to serialize session attributes", ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deserialize(byte[] data) {
+        try (InputStream in = compress ? new InflaterInputStream(new ByteArrayInputStream(data))
+                : new ByteArrayInputStream(data);
+                ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            return (Map<String, Object>) objectIn.readObject();
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new IllegalStateException("Failed to deserialize session attributes", ex);
+        }
+    }
+
+    private record StoredSession(String id, byte[] attributes, Instant creationTime, Instant lastAccessTime,
+            Duration maxIdleTime) {
+
+        boolean isExpired(Instant now) {
+            return !maxIdleTime.isNegative() && now.minus(maxIdleTime).isAfter(lastAccessTime);
+        }
+    }
+
+    private class CompactWebSession implements WebSession {
+
+        private volatile String id;
+        private final Instant creationTime;
+        private volatile Instant lastAccessTime;
+        private volatile Duration maxIdleTime;
+        private final Map<String, Object> attributes;
+        private volatile boolean started;
+        private volatile boolean invalidated;
+
+        CompactWebSession(String id, Instant creationTime, Instant lastAccessTime, Duration maxIdleTime,
+                Map<String, Object> attributes, byte[] storedBytes) {
+            this.id = id;
+            this.creationTime = creationTime;
+            this.lastAccessTime = lastAccessTime;
+            this.maxIdleTime = maxIdleTime;
+            this.attributes = attributes;
+            this.started = storedBytes != null;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return started || !attributes.isEmpty();
+        }
+
+        @Override
+        public Mono<Void> changeSessionId() {
+            String previousId = id;
+            id = idGenerator.generateId().toString();
+            return removeSession(previousId).then(Mono.defer(() -> isStarted() ? save() : Mono.empty()));
+        }
+
+        @Override
+        public Mono<Void> invalidate() {
+            invalidated = true;
+            attributes.clear();
+            return removeSession(id);
+        }
+
+        @Override
+        public Mono<Void> save() {
+            if (invalidated || !isStarted()) {
+                return Mono.empty();
+            }
+            return Mono.fromRunnable(() -> store(
+                    new StoredSession(id, serialize(attributes), creationTime, lastAccessTime, maxIdleTime)));
+        }
+
+        @Override
+        public boolean isExpired() {
+            return !invalidated && !maxIdleTime.isNegative()
+                    && clock.instant().minus(maxIdleTime).isAfter(lastAccessTime);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public Instant getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        @Override
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        @Override
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.api_gateway.session;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Replaces the default unbounded in-memory session store (used by
+ * {@code oauth2Login}) with a {@link CompactWebSessionStore} and publishes its
+ * occupancy and evictions as {@code gateway.sessions.*} metrics.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(SessionStoreProperties.class)
+public class SessionStoreConfig {
+
+    private final CompactWebSessionStore compactWebSessionStore;
+
+    public SessionStoreConfig(SessionStoreProperties properties) {
+        this.compactWebSessionStore = new CompactWebSessionStore(properties);
+    }
+
+    @Bean
+    public CompactWebSessionStore compactWebSessionStore() {
+        return compactWebSessionStore;
+    }
+
+    @Bean(name = WebHttpHandlerBuilder.WEB_SESSION_MANAGER_BEAN_NAME)
+    public WebSessionManager webSessionManager(CompactWebSessionStore compactWebSessionStore) {
+        DefaultWebSessionManager webSessionManager = new DefaultWebSessionManager();
+        webSessionManager.setSessionStore(compactWebSessionStore);
+        return webSessionManager;
+    }
+
+    @Bean
+    public MeterBinder sessionStoreMetrics(CompactWebSessionStore store) {
+        return registry -> {
+            Gauge.builder("gateway.sessions.active", store, CompactWebSessionStore::getSessionCount)
+                    .description("Sessions currently held by the gateway")
+                    .register(registry);
+            Gauge.builder("gateway.sessions.max", store, CompactWebSessionStore::getMaxSessions)
+                    .description("Configured session capacity")
+                    .register(registry);
+            Gauge.builder("gateway.sessions.stored", store, CompactWebSessionStore::getStoredBytes)
+                    .description("Serialized size of all stored sessions")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("gateway.sessions.evicted", store, CompactWebSessionStore::getCapacityEvictions)
+                    .description("Sessions evicted from the store")
+                    .tag("reason", "capacity")
+                    .register(registry);
+            FunctionCounter.builder("gateway.sessions.evicted", store, CompactWebSessionStore::getIdleEvictions)
+                    .description("Sessions evicted from the store")
+                    .tag("reason", "idle")
+                    .register(registry);
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.session-store.sweep-interval:60s}")
+    public void removeExpiredSessions() {
+        compactWebSessionStore.removeExpiredSessions();
+    }
+}
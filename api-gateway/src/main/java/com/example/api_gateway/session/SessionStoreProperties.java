@@ -0,0 +1,53 @@
+package com.example.api_gateway.session;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bounded gateway session store, bound from
+ * {@code gateway.session-store.*}.
+ */
+@ConfigurationProperties(prefix = "gateway.session-store")
+public class SessionStoreProperties {
+
+    // sessions beyond this are evicted least recently used first
+    private int maxSessions = 10000;
+    private Duration maxIdleTime = Duration.ofMinutes(30);
+    // how often expired sessions are swept out
+    private Duration sweepInterval = Duration.ofSeconds(60);
+    // deflate serialized session attributes
+    private boolean compress = true;
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.example.api_gateway.concurrency.AdaptiveConcurrencyLimitFilter;
+import com.example.api_gateway.concurrency.ConcurrencyLimitProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public class AdaptiveConcurrencyLimitFilterUnitTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("order-service")
+            .uri("lb://ORDER-SERVICE")
+            .predicate(exchange -> true)
+            .build();
+
+    private MeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdaptiveConcurrencyLimitFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void filter_BeyondLimit_ShouldShedWith503AndCountRejection() {
+        // Given
+        Sinks.Empty<Void> backend = Sinks.empty();
+        for (int i = 0; i < 10; i++) {
+            filter.filter(routed(), exchange -> backend.asMono()).subscribe();
+        }
+        AtomicInteger forwarded = new AtomicInteger();
+        MockServerWebExchange shed = routed();
+
+        // When
+        filter.filter(shed, exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals(0, forwarded.get());
+        assertEquals(1, meterRegistry.get("gateway.concurrency.rejected").tag("route", "order-service").counter()
+                .count());
+        assertEquals(10, gauge("gateway.concurrency.inflight"));
+        assertEquals(10, gauge("gateway.concurrency.limit"));
+    }
+
+    @Test
+    void filter_WhenBackendFails_ShouldReleaseSlotAndBackOff() {
+        // Given
+        GatewayFilterChain failing = exchange -> Mono.error(new IllegalStateException("connection refused"));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> filter.filter(routed(), failing).block());
+
+        // Then
+        assertEquals(0, gauge("gateway.concurrency.inflight"));
+        assertEquals(9, gauge("gateway.concurrency.limit"));
+    }
+
+    @Test
+    void filter_WhenBackendAnswers503_ShouldBackOff() {
+        // Given
+        GatewayFilterChain overloaded = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return Mono.empty();
+        };
+
+        // When
+        filter.filter(routed(), overloaded).block();
+
+        // Then
+        assertEquals(0, gauge("gateway.concurrency.inflight"));
+        assertEquals(9, gauge("gateway.concurrency.limit"));
+    }
+
+    @Test
+    void filter_WhenClientCancels_ShouldReleaseSlotWithoutSample() {
+        // Given
+        Sinks.Empty<Void> backend = Sinks.empty();
+        Disposable request = filter.filter(routed(), exchange -> backend.asMono()).subscribe();
+        assertEquals(1, gauge("gateway.concurrency.inflight"));
+
+        // When
+        request.dispose();
+
+        // Then
+        assertEquals(0, gauge("gateway.concurrency.inflight"));
+        assertEquals(10, gauge("gateway.concurrency.limit"));
+    }
+
+    @Test
+    void filter_WithoutRoute_ShouldPassThroughUnlimited() {
+        // Given
+        AtomicInteger forwarded = new AtomicInteger();
+        MockServerWebExchange unrouted = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+
+        // When
+        filter.filter(unrouted, exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+
+        // Then
+        assertEquals(1, forwarded.get());
+        assertNull(meterRegistry.find("gateway.concurrency.inflight").gauge());
+    }
+
+    private static MockServerWebExchange routed() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("route", "order-service").gauge().value();
+    }
+}
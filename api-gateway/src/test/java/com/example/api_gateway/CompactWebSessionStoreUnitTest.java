@@ -0,0 +1,156 @@
+package com.example.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.WebSession;
+
+import com.example.api_gateway.session.CompactWebSessionStore;
+import com.example.api_gateway.session.SessionStoreProperties;
+
+public class CompactWebSessionStoreUnitTest {
+
+    private MutableClock clock;
+    private CompactWebSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        SessionStoreProperties properties = new SessionStoreProperties();
+        properties.setMaxSessions(2);
+        properties.setMaxIdleTime(Duration.ofMinutes(30));
+        store = new CompactWebSessionStore(properties, clock);
+    }
+
+    @Test
+    void save_ShouldStoreSerializedAttributes() {
+        // Given
+        WebSession session = store.createWebSession().block();
+        session.getAttributes().put("user", "alice");
+
+        // When
+        session.save().block();
+        WebSession retrieved = store.retrieveSession(session.getId()).block();
+
+        // Then
+        assertNotNull(retrieved);
+        assertEquals("alice", retrieved.getAttributes().get("user"));
+        assertEquals(1, store.getSessionCount());
+        assertTrue(store.getStoredBytes() > 0);
+    }
+
+    @Test
+    void save_AfterValueChangedInPlace_ShouldStoreChange() {
+        // Given
+        WebSession session = store.createWebSession().block();
+        session.getAttributes().put("clients", new HashMap<>(Map.of("gateway", "token-1")));
+        session.save().block();
+        WebSession retrieved = store.retrieveSession(session.getId()).block();
+
+        // When
+        // the same map instance is changed and put back, as oauth2-client does with refreshed tokens
+        @SuppressWarnings("unchecked")
+        Map<String, String> clients = (Map<String, String>) retrieved.getAttributes().get("clients");
+        clients.put("gateway", "token-2");
+        retrieved.getAttributes().put("clients", clients);
+        retrieved.save().block();
+
+        // Then
+        WebSession reloaded = store.retrieveSession(session.getId()).block();
+        assertEquals(Map.of("gateway", "token-2"), reloaded.getAttributes().get("clients"));
+    }
+
+    @Test
+    void save_WithoutAttributes_ShouldNotStoreSession() {
+        WebSession session = store.createWebSession().block();
+
+        session.save().block();
+
+        assertEquals(0, store.getSessionCount());
+    }
+
+    @Test
+    void save_BeyondMaxSessions_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        WebSession first = saveSession("first");
+        WebSession second = saveSession("second");
+        store.retrieveSession(first.getId()).block(); // second becomes least recently used
+
+        // When
+        WebSession third = saveSession("third");
+
+        // Then
+        assertEquals(2, store.getSessionCount());
+        assertEquals(1, store.getCapacityEvictions());
+        assertNull(store.retrieveSession(second.getId()).block());
+        assertNotNull(store.retrieveSession(first.getId()).block());
+        assertNotNull(store.retrieveSession(third.getId()).block());
+    }
+
+    @Test
+    void removeExpiredSessions_ShouldDropIdleSessions() {
+        // Given
+        saveSession("idle");
+        clock.advance(Duration.ofMinutes(31));
+
+        // When
+        store.removeExpiredSessions();
+
+        // Then
+        assertEquals(0, store.getSessionCount());
+        assertEquals(1, store.getIdleEvictions());
+        assertEquals(0, store.getStoredBytes());
+    }
+
+    @Test
+    void invalidate_ShouldRemoveSession() {
+        WebSession session = saveSession("user");
+
+        session.invalidate().block();
+
+        assertNull(store.retrieveSession(session.getId()).block());
+        assertEquals(0, store.getSessionCount());
+    }
+
+    private WebSession saveSession(String user) {
+        WebSession session = store.createWebSession().block();
+        session.getAttributes().put("user", user);
+        session.save().block();
+        return session;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import com.example.api_gateway.routing.CompiledRouteTable;
+
+public class CompiledRouteTableUnitTest {
+
+    @Test
+    void candidates_ShouldOnlyReturnRoutesWithMatchingPrefix() {
+        // Given
+        CompiledRouteTable table = CompiledRouteTable.compile(
+                List.of(route("customer-service"), route("order-service"), route("discovery-orders")),
+                List.of(definition("customer-service", "Path=/api/customers/**"),
+                        definition("order-service", "Path=/api/orders/**"),
+                        definition("discovery-orders", "Path=/order-service/**")));
+
+        // When
+        List<Route> candidates = table.candidates(List.of("api", "orders", "42"));
+
+        // Then
+        assertEquals(List.of("order-service"), candidates.stream().map(Route::getId).toList());
+    }
+
+    @Test
+    void candidates_ShouldKeepRouteOrderAndIncludeUnindexedRoutes() {
+        // Given - route 0 has no path predicate, route 1 starts with a variable
+        CompiledRouteTable table = CompiledRouteTable.compile(
+                List.of(route("by-host"), route("by-variable"), route("orders"), route("orders-detail")),
+                List.of(definition("by-host", "Host=**.example.com"),
+                        definition("by-variable", "Path=/{segment}/**"),
+                        definition("orders", "Path=/api/orders/**"),
+                        definition("orders-detail", "Path=/api/orders/{id},/api/orders/{id}/items")));
+
+        // When
+        List<Route> candidates = table.candidates(List.of("api", "orders", "42"));
+
+        // Then
+        assertEquals(List.of("by-host", "by-variable", "orders", "orders-detail"),
+                candidates.stream().map(Route::getId).toList());
+        assertEquals(List.of("by-host", "by-variable"),
+                table.candidates(List.of("api", "customers")).stream().map(Route::getId).toList());
+    }
+
+    @Test
+    void candidates_WithRouteMissingDefinition_ShouldAlwaysReturnIt() {
+        CompiledRouteTable table = CompiledRouteTable.compile(List.of(route("java-dsl")), List.of());
+
+        assertEquals(1, table.candidates(List.of("anything")).size());
+    }
+
+    private Route route(String id) {
+        return Route.async()
+                .id(id)
+                .uri(URI.create("http://localhost"))
+                .predicate(exchange -> true)
+                .build();
+    }
+
+    private RouteDefinition definition(String id, String predicate) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setPredicates(List.of(new PredicateDefinition(predicate)));
+        return definition;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.api_gateway.concurrency.ConcurrencyLimitProperties;
+import com.example.api_gateway.concurrency.GradientConcurrencyLimit;
+
+public class GradientConcurrencyLimitUnitTest {
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+    }
+
+    @Test
+    void tryAcquire_BeyondLimit_ShouldReject() {
+        // Given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        // Then
+        assertFalse(limit.tryAcquire());
+        assertEquals(10, limit.getInFlight());
+    }
+
+    @Test
+    void onSample_WithStableRtt_ShouldGrowLimit() {
+        // Given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            saturate(limit);
+            limit.onSample(10_000_000L, false);
+            releaseAll(limit);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() > 10, "limit should grow, was " + limit.getLimit());
+    }
+
+    @Test
+    void onSample_WithRisingRtt_ShouldShrinkLimit() {
+        // Given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+        for (int i = 0; i < 20; i++) {
+            saturate(limit);
+            limit.onSample(10_000_000L, false);
+            releaseAll(limit);
+        }
+        int before = limit.getLimit();
+
+        // When - downstream slows down 10x
+        for (int i = 0; i < 20; i++) {
+            saturate(limit);
+            limit.onSample(100_000_000L, false);
+            releaseAll(limit);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() < before, "limit should shrink from " + before + ", was " + limit.getLimit());
+    }
+
+    @Test
+    void onSample_WithDrop_ShouldBackOffButNotBelowMinimum() {
+        // Given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onSample(10_000_000L, true);
+        }
+
+        // Then
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    private void saturate(GradientConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+        }
+    }
+
+    private void releaseAll(GradientConcurrencyLimit limit) {
+        while (limit.getInFlight() > 0) {
+            limit.release();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.api_gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.routing.CompiledRouteTable;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares route lookup cost of the default linear predicate scan with the
+ * compiled route trie. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class RouteLookupBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 100, 1000 })
+    void lookup(int routeCount) {
+        // Given
+        PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+        List<Route> routes = new ArrayList<>();
+        List<RouteDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < routeCount; i++) {
+            String id = "service-" + i;
+            String pattern = "/api/" + id + "/**";
+            routes.add(Route.async()
+                    .id(id)
+                    .uri(URI.create("lb://" + id))
+                    .predicate(factory.apply(new PathRoutePredicateFactory.Config().setPatterns(List.of(pattern))))
+                    .build());
+            RouteDefinition definition = new RouteDefinition();
+            definition.setId(id);
+            definition.setPredicates(List.of(new PredicateDefinition("Path=" + pattern)));
+            definitions.add(definition);
+        }
+        CompiledRouteTable table = CompiledRouteTable.compile(routes, definitions);
+
+        // spread requests over all routes so the linear scan averages n/2 predicates
+        List<ServerWebExchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int target = (int) ((long) i * routeCount / 64);
+            exchanges.add(MockServerWebExchange.from(MockServerHttpRequest.get("/api/service-" + target + "/items/1")));
+        }
+
+        Function<ServerWebExchange, Route> linear = exchange -> firstMatch(routes, exchange);
+        Function<ServerWebExchange, Route> trie = exchange -> firstMatch(table.candidates(segments(exchange)),
+                exchange);
+
+        // When
+        double linearNanos = measure(linear, exchanges);
+        double trieNanos = measure(trie, exchanges);
+
+        // Then
+        for (ServerWebExchange exchange : exchanges) {
+            assertEquals(linear.apply(exchange).getId(), trie.apply(exchange).getId());
+        }
+        System.out.printf("routes=%5d  linear=%10.0f ns/lookup  trie=%8.0f ns/lookup  speedup=%6.1fx%n",
+                routeCount, linearNanos, trieNanos, linearNanos / trieNanos);
+    }
+
+    private double measure(Function<ServerWebExchange, Route> lookup, List<ServerWebExchange> exchanges) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            lookup.apply(exchanges.get(i % exchanges.size()));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            lookup.apply(exchanges.get(i % exchanges.size()));
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+
+    private Route firstMatch(List<Route> routes, ServerWebExchange exchange) {
+        for (Route route : routes) {
+            if (Boolean.TRUE.equals(Mono.from(route.getPredicate().apply(exchange)).block())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private List<String> segments(ServerWebExchange exchange) {
+        List<String> segments = new ArrayList<>();
+        for (PathContainer.Element element : exchange.getRequest().getPath().pathWithinApplication().elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.config_server.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathCompositeEnvironmentRepository;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Composite environment repository that keeps resolved environments in memory.
+ *
+ * The native repository re-reads and re-parses every YAML file on each
+ * {@code /{application}/{profile}} request, which turns a fleet-wide restart
+ * into a thundering herd on the config directory. Here each distinct request
+ * is resolved once and served from memory until {@link #invalidate()} is
+ * called, normally by {@link ConfigDirectoryWatcher} when a file changes.
+ * When some location cannot be watched, the watcher makes the environments
+ * expire after a while instead, see {@link #expireAfter(Duration)}.
+ */
+public class CachingEnvironmentRepository extends SearchPathCompositeEnvironmentRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingEnvironmentRepository.class);
+
+    private final Map<Key, Cached> cache = new ConcurrentHashMap<>();
+    // bumped on every invalidation, so a resolution racing with a file change is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean enabled = true;
+    // null while every change is watched
+    private volatile Duration timeToLive;
+
+    public CachingEnvironmentRepository(List<EnvironmentRepository> environmentRepositories,
+            ObservationRegistry observationRegistry, boolean failOnError) {
+        super(environmentRepositories, observationRegistry, failOnError);
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label) {
+        return findOne(application, profile, label, false);
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+        if (!enabled) {
+            return super.findOne(application, profile, label, includeOrigin);
+        }
+        Key key = new Key(application, profile, label, includeOrigin);
+        Cached cached = cache.get(key);
+        Duration ttl = timeToLive;
+        if (cached != null && (ttl == null || System.nanoTime() - cached.loadedAt() < ttl.toNanos())) {
+            return cached.environment();
+        }
+        long loadedGeneration = generation.get();
+        long loadedAt = System.nanoTime();
+        Environment environment = super.findOne(application, profile, label, includeOrigin);
+        if (generation.get() == loadedGeneration) {
+            cache.put(key, new Cached(environment, loadedAt));
+        }
+        return environment;
+    }
+
+    /**
+     * Drops every cached environment, so the next request re-reads the files.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        int size = cache.size();
+        cache.clear();
+        logger.info("Config changed, dropped {} cached environments", size);
+    }
+
+    /**
+     * Resolves each environment again once it is older than the given time, for
+     * locations whose changes cannot be watched.
+     */
+    public void expireAfter(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Stops caching, for when changes can no longer be detected.
+     */
+    public void disable() {
+        enabled = false;
+        invalidate();
+    }
+
+    /**
+     * @return The number of cached environments.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private record Cached(Environment environment, long loadedAt) {
+    }
+
+    private record Key(String application, String profile, String label, boolean includeOrigin) {
+
+        Key {
+            label = Objects.requireNonNullElse(label, "");
+        }
+    }
+}
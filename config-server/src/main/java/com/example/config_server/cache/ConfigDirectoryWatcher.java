@@ -0,0 +1,144 @@
+package com.example.config_server.cache;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Watches the native search locations and invalidates the
+ * {@link CachingEnvironmentRepository} whenever a file in them is created,
+ * modified or deleted, then publishes a {@link ConfigFilesChangedEvent}.
+ * Classpath locations cannot change at runtime and are skipped.
+ *
+ * Other locations, and {@code file:} locations that are not a directory at
+ * startup, such as ones with placeholders, cannot be watched. If there is
+ * one, every cached environment expires after {@code timeToLive} instead, so
+ * their changes are picked up that late at most.
+ */
+public class ConfigDirectoryWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigDirectoryWatcher.class);
+
+    private final List<Path> directories = new ArrayList<>();
+    private final CachingEnvironmentRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration timeToLive;
+    private boolean unwatchable;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ConfigDirectoryWatcher(String[] searchLocations, CachingEnvironmentRepository repository,
+            ApplicationEventPublisher eventPublisher, Duration timeToLive) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.timeToLive = timeToLive;
+        if (searchLocations != null) {
+            for (String location : searchLocations) {
+                if (location.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+                    directories.add(Path.of(location.substring(ResourceUtils.FILE_URL_PREFIX.length())));
+                } else if (!location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+                    logger.warn("Config location {} cannot be watched", location);
+                    unwatchable = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the directories and starts the watcher thread.
+     *
+     * @throws IOException If the watch service cannot be created.
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                logger.warn("Config location {} is not a directory and cannot be watched", directory);
+                unwatchable = true;
+                continue;
+            }
+            register(directory);
+        }
+        if (unwatchable) {
+            logger.warn("Cached environments expire after {}, as not every config location can be watched",
+                    timeToLive);
+            repository.expireAfter(timeToLive);
+        }
+        watcher = new Thread(this::watch, "config-directory-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                logger.info("Watching {} for config changes", dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                Set<String> changedFiles = new LinkedHashSet<>();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    changedFiles.add(event.context().toString());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        Path created = dir.resolve((Path) event.context());
+                        if (Files.isDirectory(created)) {
+                            register(created);
+                        }
+                    }
+                    logger.debug("Config change {} {}", event.kind().name(), event.context());
+                }
+                // one invalidation per batch of events, editors often write a file in several steps
+                repository.invalidate();
+                eventPublisher.publishEvent(new ConfigFilesChangedEvent(overflow ? Set.of() : changedFiles));
+                key.reset();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // shutting down
+        } catch (IOException ex) {
+            logger.error("Config directory watcher stopped, caching is disabled from now on", ex);
+            repository.disable();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.config_server.cache;
+
+import java.util.Set;
+
+/**
+ * Published once the cached environments have been dropped after files in a
+ * native search location changed.
+ *
+ * @param fileNames The names of the changed files, empty when the watch
+ *                  service lost track of events and anything may have changed.
+ */
+public record ConfigFilesChangedEvent(Set<String> fileNames) {
+}
@@ -0,0 +1,53 @@
+package com.example.config_server.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.config.server.config.ConfigServerProperties;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.NativeEnvironmentProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Replaces the config server's default composite repository with
+ * {@link CachingEnvironmentRepository}, watches the native search locations
+ * for changes, and adds ETags so clients can revalidate with
+ * {@code If-None-Match} and get a 304 instead of the full environment.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "config.cache", name = "enabled", matchIfMissing = true)
+public class EnvironmentCacheConfig {
+
+    // the composite auto-configuration backs off when a CompositeEnvironmentRepository bean exists
+    @Bean
+    @Primary
+    public CachingEnvironmentRepository cachingEnvironmentRepository(List<EnvironmentRepository> repositories,
+            ConfigServerProperties properties, ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new CachingEnvironmentRepository(repositories,
+                observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                properties.isFailOnCompositeError());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ConfigDirectoryWatcher configDirectoryWatcher(NativeEnvironmentProperties nativeProperties,
+            CachingEnvironmentRepository repository, ApplicationEventPublisher eventPublisher,
+            @Value("${config.cache.ttl:30s}") Duration timeToLive) {
+        return new ConfigDirectoryWatcher(nativeProperties.getSearchLocations(), repository, eventPublisher,
+                timeToLive);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        return new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+    }
+}
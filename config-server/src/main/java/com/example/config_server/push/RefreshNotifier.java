@@ -0,0 +1,169 @@
+package com.example.config_server.push;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.config_server.cache.ConfigFilesChangedEvent;
+
+/**
+ * Pushes refresh notifications to subscribed services when their config files
+ * change, so they can rebind without a restart and without an external
+ * message broker.
+ *
+ * Subscriptions are leases: services renew them periodically, and ones that
+ * are not renewed (instance gone, config-server restarted) simply lapse.
+ *
+ * Subscribing and being notified both take the shared {@code config.push.secret}
+ * in the {@value #SECRET_HEADER} header, so that only the services can make
+ * config-server POST to a URL, and only config-server can make a service
+ * refresh. Without a secret push notifications are off. Set it through the
+ * environment ({@code CONFIG_PUSH_SECRET}) rather than the config files, which
+ * config-server serves to anyone who asks.
+ */
+@Component
+public class RefreshNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshNotifier.class);
+
+    public static final String SECRET_HEADER = "X-Config-Push-Secret";
+
+    private static final Set<String> EXTENSIONS = Set.of(".yml", ".yaml", ".properties");
+
+    private final Duration lease;
+    private final String secret;
+    private final Clock clock = Clock.systemUTC();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    // callback URL -> subscription
+    private final Map<String, RefreshSubscription> subscriptions = new ConcurrentHashMap<>();
+
+    public RefreshNotifier(@Value("${config.push.lease:3m}") Duration lease,
+            @Value("${config.push.secret:}") String secret) {
+        this.lease = lease;
+        this.secret = secret;
+        if (secret.isBlank()) {
+            logger.warn("config.push.secret not set, services cannot subscribe to config changes");
+        }
+    }
+
+    /**
+     * @param presented The secret sent with a request.
+     * @return Whether it is the configured secret; always false without one.
+     */
+    public boolean isSecret(String presented) {
+        return !secret.isBlank() && presented != null
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds or renews a subscription.
+     *
+     * @param application The spring.application.name of the subscriber.
+     * @param callbackUrl The URL to POST refresh notifications to.
+     * @return The subscription with its new expiry.
+     */
+    public RefreshSubscription subscribe(String application, String callbackUrl) {
+        RefreshSubscription subscription = new RefreshSubscription(application.toLowerCase(Locale.ROOT), callbackUrl,
+                clock.instant().plus(lease));
+        if (subscriptions.put(callbackUrl, subscription) == null) {
+            logger.info("{} at {} subscribed to config changes", application, callbackUrl);
+        }
+        return subscription;
+    }
+
+    public void unsubscribe(String callbackUrl) {
+        if (subscriptions.remove(callbackUrl) != null) {
+            logger.info("{} unsubscribed from config changes", callbackUrl);
+        }
+    }
+
+    /**
+     * @return The subscriptions that have not lapsed.
+     */
+    public Collection<RefreshSubscription> getSubscriptions() {
+        subscriptions.values().removeIf(subscription -> subscription.expiresAt().isBefore(clock.instant()));
+        return List.copyOf(subscriptions.values());
+    }
+
+    @EventListener
+    public void onConfigFilesChanged(ConfigFilesChangedEvent event) {
+        for (RefreshSubscription subscription : getSubscriptions()) {
+            if (affects(event.fileNames(), subscription.application())) {
+                notify(subscription);
+            }
+        }
+    }
+
+    /**
+     * @param fileNames   The changed files, empty if unknown.
+     * @param application The application name, lower case.
+     * @return Whether the change can affect the application's environment:
+     *         shared {@code application*} files affect every service,
+     *         {@code <name>.yml} and {@code <name>-<profile>.yml} only their own.
+     */
+    public static boolean affects(Set<String> fileNames, String application) {
+        if (fileNames.isEmpty()) {
+            return true;
+        }
+        for (String fileName : fileNames) {
+            String name = stripExtension(fileName.toLowerCase(Locale.ROOT));
+            if (name == null) {
+                continue;
+            }
+            if (name.equals("application") || name.startsWith("application-")
+                    || name.equals(application) || name.startsWith(application + "-")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripExtension(String fileName) {
+        for (String extension : EXTENSIONS) {
+            if (fileName.endsWith(extension)) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return null;
+    }
+
+    private void notify(RefreshSubscription subscription) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(subscription.callbackUrl()))
+                .timeout(Duration.ofSeconds(5))
+                .header(SECRET_HEADER, secret)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            if (ex != null) {
+                logger.warn("Refresh notification to {} failed: {}", subscription.callbackUrl(), ex.getMessage());
+            } else if (response.statusCode() >= 300) {
+                logger.warn("Refresh notification to {} returned {}", subscription.callbackUrl(),
+                        response.statusCode());
+            } else {
+                logger.info("Notified {} at {} of config change", subscription.application(),
+                        subscription.callbackUrl());
+            }
+        });
+    }
+}
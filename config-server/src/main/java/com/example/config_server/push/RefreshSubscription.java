@@ -0,0 +1,13 @@
+package com.example.config_server.push;
+
+import java.time.Instant;
+
+/**
+ * A service instance asking to be told when its configuration changes.
+ *
+ * @param application The spring.application.name of the subscriber.
+ * @param callbackUrl The URL to POST refresh notifications to.
+ * @param expiresAt   When the subscription lapses unless renewed.
+ */
+public record RefreshSubscription(String application, String callbackUrl, Instant expiresAt) {
+}
@@ -0,0 +1,91 @@
+package com.example.config_server.push;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Lets services subscribe to refresh notifications for their configuration.
+ * Every request needs the shared secret, see {@link RefreshNotifier}, and
+ * callbacks can only be a service's {@code /config/refresh} endpoint.
+ */
+@RestController
+@RequestMapping("/subscriptions")
+public class RefreshSubscriptionController {
+
+    static final String REFRESH_PATH = "/config/refresh";
+
+    @Autowired
+    private RefreshNotifier refreshNotifier;
+
+    /**
+     * Adds or renews a subscription.
+     *
+     * @param secret  The shared secret.
+     * @param request The application name and the callback URL.
+     * @return The subscription with its expiry.
+     */
+    @PostMapping
+    public RefreshSubscription subscribe(
+            @RequestHeader(value = RefreshNotifier.SECRET_HEADER, required = false) String secret,
+            @RequestBody SubscriptionRequest request) {
+        requireSecret(secret);
+        if (request.application() == null || request.application().isBlank()
+                || !isRefreshEndpoint(request.callbackUrl())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "application and an http(s) callbackUrl ending in " + REFRESH_PATH + " are required");
+        }
+        return refreshNotifier.subscribe(request.application(), request.callbackUrl());
+    }
+
+    @GetMapping
+    public Collection<RefreshSubscription> subscriptions(
+            @RequestHeader(value = RefreshNotifier.SECRET_HEADER, required = false) String secret) {
+        requireSecret(secret);
+        return refreshNotifier.getSubscriptions();
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unsubscribe(@RequestHeader(value = RefreshNotifier.SECRET_HEADER, required = false) String secret,
+            @RequestParam String callbackUrl) {
+        requireSecret(secret);
+        refreshNotifier.unsubscribe(callbackUrl);
+    }
+
+    private void requireSecret(String secret) {
+        if (!refreshNotifier.isSecret(secret)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "missing or wrong " + RefreshNotifier.SECRET_HEADER);
+        }
+    }
+
+    private static boolean isRefreshEndpoint(String callbackUrl) {
+        if (callbackUrl == null) {
+            return false;
+        }
+        try {
+            URI uri = new URI(callbackUrl);
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null
+                    && REFRESH_PATH.equals(uri.getPath()) && uri.getQuery() == null;
+        } catch (URISyntaxException ex) {
+            return false;
+        }
+    }
+
+    public record SubscriptionRequest(String application, String callbackUrl) {
+    }
+}
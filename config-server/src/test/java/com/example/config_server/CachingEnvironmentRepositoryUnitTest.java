@@ -0,0 +1,126 @@
+package com.example.config_server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+
+import com.example.config_server.cache.CachingEnvironmentRepository;
+import com.example.config_server.cache.ConfigDirectoryWatcher;
+import com.example.config_server.cache.ConfigFilesChangedEvent;
+
+import io.micrometer.observation.ObservationRegistry;
+
+class CachingEnvironmentRepositoryUnitTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final EnvironmentRepository source = (application, profile, label) -> {
+        loads.incrementAndGet();
+        return new Environment(application, profile);
+    };
+
+    private final CachingEnvironmentRepository repository = new CachingEnvironmentRepository(
+            new ArrayList<>(List.of(source)), ObservationRegistry.NOOP, false);
+
+    @Test
+    void findOne_WhenRequestedTwice_ShouldResolveOnce() {
+        // When
+        Environment first = repository.findOne("order-service", "default", null);
+        Environment second = repository.findOne("order-service", "default", null);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        // a different profile is a different environment
+        repository.findOne("order-service", "test", null);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldResolveAgain() {
+        // Given
+        repository.findOne("order-service", "default", null);
+
+        // When
+        repository.invalidate();
+        repository.findOne("order-service", "default", null);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disable_ShouldStopCaching() {
+        // When
+        repository.disable();
+        repository.findOne("order-service", "default", null);
+        repository.findOne("order-service", "default", null);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void watcher_WithUnwatchableLocation_ShouldLetEnvironmentsExpire(@TempDir Path configDir) throws Exception {
+        // Given
+        ConfigDirectoryWatcher watcher = new ConfigDirectoryWatcher(
+                new String[] { "file:" + configDir + "/", "file:" + configDir.resolve("{application}") + "/" },
+                repository, event -> {
+                }, Duration.ofMillis(100));
+        watcher.start();
+        try {
+            repository.findOne("order-service", "default", null);
+
+            // When
+            repository.findOne("order-service", "default", null);
+            Thread.sleep(200);
+            repository.findOne("order-service", "default", null);
+
+            // Then
+            assertEquals(2, loads.get());
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void watcher_WhenConfigFileChanges_ShouldInvalidate(@TempDir Path configDir) throws Exception {
+        // Given
+        Path file = Files.writeString(configDir.resolve("order-service.yml"), "server:\n  port: 8081\n");
+        List<Object> events = new CopyOnWriteArrayList<>();
+        ConfigDirectoryWatcher watcher = new ConfigDirectoryWatcher(new String[] { "file:" + configDir + "/" },
+                repository, events::add, Duration.ofMinutes(1));
+        watcher.start();
+        try {
+            repository.findOne("order-service", "default", null);
+            assertEquals(1, repository.size());
+
+            // When
+            Files.writeString(file, "server:\n  port: 9081\n");
+
+            // Then
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (repository.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, repository.size());
+            assertEquals(new ConfigFilesChangedEvent(Set.of("order-service.yml")), events.get(0));
+        } finally {
+            watcher.stop();
+        }
+    }
+}
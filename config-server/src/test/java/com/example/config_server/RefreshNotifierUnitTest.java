@@ -0,0 +1,61 @@
+package com.example.config_server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.config_server.push.RefreshNotifier;
+
+class RefreshNotifierUnitTest {
+
+    @Test
+    void affects_WithOwnOrSharedFile_ShouldNotify() {
+        assertTrue(RefreshNotifier.affects(Set.of("order-service.yml"), "order-service"));
+        assertTrue(RefreshNotifier.affects(Set.of("order-service-prod.yml"), "order-service"));
+        assertTrue(RefreshNotifier.affects(Set.of("application.yml"), "order-service"));
+        // unknown changes (watch overflow) notify everyone
+        assertTrue(RefreshNotifier.affects(Set.of(), "order-service"));
+    }
+
+    @Test
+    void affects_WithOtherServicesFile_ShouldNotNotify() {
+        assertFalse(RefreshNotifier.affects(Set.of("customer-service.yml"), "order-service"));
+        assertFalse(RefreshNotifier.affects(Set.of("order-service.yml.swp"), "order-service"));
+    }
+
+    @Test
+    void subscribe_ShouldRenewInsteadOfDuplicating() {
+        // Given
+        RefreshNotifier notifier = new RefreshNotifier(Duration.ofMinutes(3), "secret");
+
+        // When
+        notifier.subscribe("ORDER-SERVICE", "http://localhost:8081/config/refresh");
+        notifier.subscribe("ORDER-SERVICE", "http://localhost:8081/config/refresh");
+
+        // Then
+        assertEquals(1, notifier.getSubscriptions().size());
+        assertEquals("order-service", notifier.getSubscriptions().iterator().next().application());
+
+        notifier.unsubscribe("http://localhost:8081/config/refresh");
+        assertTrue(notifier.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void getSubscriptions_WhenLeaseLapsed_ShouldDropSubscription() {
+        RefreshNotifier notifier = new RefreshNotifier(Duration.ofMillis(-1), "secret");
+
+        notifier.subscribe("order-service", "http://localhost:8081/config/refresh");
+
+        assertTrue(notifier.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void isSecret_WithoutConfiguredSecret_ShouldRejectEverything() {
+        assertFalse(new RefreshNotifier(Duration.ofMinutes(3), "").isSecret(""));
+        assertFalse(new RefreshNotifier(Duration.ofMinutes(3), "secret").isSecret(null));
+        assertTrue(new RefreshNotifier(Duration.ofMinutes(3), "secret").isSecret("secret"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.config_server;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.config_server.push.RefreshNotifier;
+
+@SpringBootTest(properties = "config.push.secret=test-secret")
+@AutoConfigureMockMvc
+class RefreshSubscriptionControllerAcceptanceTest {
+
+    private static final String SUBSCRIPTION = "{\"application\":\"order-service\","
+            + "\"callbackUrl\":\"http://localhost:8081/config/refresh\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void subscribe_WithoutSecret_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/subscriptions").contentType(MediaType.APPLICATION_JSON).content(SUBSCRIPTION))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/subscriptions").header(RefreshNotifier.SECRET_HEADER, "wrong")
+                .contentType(MediaType.APPLICATION_JSON).content(SUBSCRIPTION))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void subscribe_WithCallbackOtherThanRefreshEndpoint_ShouldBeRejected() throws Exception {
+        mockMvc.perform(post("/subscriptions").header(RefreshNotifier.SECRET_HEADER, "test-secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"application\":\"order-service\",\"callbackUrl\":\"http://169.254.169.254/latest\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void subscribe_WithSecret_ShouldSubscribe() throws Exception {
+        mockMvc.perform(post("/subscriptions").header(RefreshNotifier.SECRET_HEADER, "test-secret")
+                .contentType(MediaType.APPLICATION_JSON).content(SUBSCRIPTION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.application").value("order-service"));
+        mockMvc.perform(get("/subscriptions"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -6,14 +6,22 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.read_replicas.ReadReplicaConfig;
+import com.example.registry_push_client.PushInstanceCache;
+import com.example.registry_push_client.PushLoadBalancerConfig;
+
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableDiscoveryClient
+@LoadBalancerClients(defaultConfiguration = PushLoadBalancerConfig.class)
+@Import({ PushInstanceCache.class, ReadReplicaConfig.class })
 @ComponentScan(basePackages = { "com.example.customer_service", "com.example.hateoas" }) // Ensure correct package
 public class CustomerServiceApplication implements CommandLineRunner {
 
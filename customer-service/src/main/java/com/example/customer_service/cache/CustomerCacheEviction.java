@@ -0,0 +1,70 @@
+package com.example.customer_service.cache;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.customer_service.model.Customer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Drops a single customer from the second-level cache once a single-statement
+ * update or delete of it has committed, leaving the other cached customers in
+ * place. Called inside a transaction, it waits for that to commit.
+ *
+ * The statements are synchronized on a query space no entity maps to, so
+ * Hibernate does not record a change to the customers table itself. This
+ * records it after the commit instead: a cached query result over customers
+ * is only served if its query started after the last recorded change, so one
+ * that read the old row and was stored after the eviction is not. That also
+ * covers the sorted query region, without evicting it.
+ *
+ * Like any invalidation in the cache, this only reaches this process; other
+ * instances see the change when their entry's ttl ends.
+ */
+@Component
+public class CustomerCacheEviction {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CustomerCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @param id The ID of the customer that was updated or deleted.
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCommitted(id);
+                }
+            });
+        } else {
+            evictCommitted(id);
+        }
+    }
+
+    private void evictCommitted(Long id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        CacheImplementor cache = sessionFactory.getCache();
+        cache.evictEntityData(Customer.class, id);
+        // null when the second-level cache is off
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        if (timestamps != null) {
+            String[] spaces = sessionFactory.getMappingMetamodel().getEntityDescriptor(Customer.class)
+                    .getSynchronizedQuerySpaces();
+            // takes no connection, the session is only needed for statistics
+            try (SessionImplementor session = sessionFactory.openSession()) {
+                timestamps.invalidate(spaces, session);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.customer_service.client;
+
+/**
+ * Calls order-service. Over HTTP by default, in-process when both services
+ * run in the same JVM.
+ */
+public interface OrderClient {
+
+    /**
+     * Deletes every order of a customer.
+     *
+     * @param customerId The ID of the customer.
+     */
+    void deleteAllOrders(Long customerId);
+}
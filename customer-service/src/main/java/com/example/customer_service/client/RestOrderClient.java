@@ -0,0 +1,24 @@
+package com.example.customer_service.client;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Calls order-service through the load-balanced {@link RestTemplate}.
+ */
+@Component
+@Profile("!all-in-one")
+public class RestOrderClient implements OrderClient {
+
+    private final RestTemplate restTemplate;
+
+    public RestOrderClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public void deleteAllOrders(Long customerId) {
+        restTemplate.delete("http://order-service/api/orders/deleteall/" + customerId);
+    }
+}
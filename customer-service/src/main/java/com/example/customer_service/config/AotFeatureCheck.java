@@ -0,0 +1,76 @@
+package com.example.customer_service.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatVirtualThreadsWebServerFactoryCustomizer;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.example.read_replicas.ReadReplicaConfig;
+
+/**
+ * Stops an AOT-processed build ({@code spring.aot.enabled}) from starting with
+ * settings it was not built for.
+ *
+ * AOT processing decides once, at build time, which conditional beans exist,
+ * so an opt-in feature switched on at run time would silently stay off (and
+ * one switched off would stay on). This check compares each feature's setting
+ * with the beans the build contains and fails startup on any difference. To
+ * run a feature in the fast-startup build, pass its setting to the
+ * {@code process-aot} execution of the {@code fast-startup} profile as well.
+ */
+@Component
+public class AotFeatureCheck {
+
+    /**
+     * An opt-in feature and a bean that exists exactly when it is on.
+     */
+    record Feature(String setting, Predicate<Environment> requested, Class<?> bean) {
+    }
+
+    static final List<Feature> FEATURES = List.of(
+            new Feature("read-replicas.replicas",
+                    environment -> environment.containsProperty("read-replicas.replicas[0].url"),
+                    ReadReplicaConfig.class),
+            new Feature("second-level-cache.enabled",
+                    environment -> environment.getProperty("second-level-cache.enabled", Boolean.class, true),
+                    SecondLevelCacheConfig.class),
+            new Feature("spring.cloud.refresh.enabled",
+                    environment -> environment.getProperty("spring.cloud.refresh.enabled", Boolean.class, true),
+                    ConfigRefresher.class),
+            // set by the virtual-threads profile
+            new Feature("spring.threads.virtual.enabled",
+                    environment -> environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                    TomcatVirtualThreadsWebServerFactoryCustomizer.class));
+
+    public AotFeatureCheck(Environment environment, ListableBeanFactory beanFactory) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> mismatches = mismatches(environment, beanFactory);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("This AOT-processed build was not built for " + mismatches
+                    + "; rebuild with these settings passed to process-aot, or start without spring.aot.enabled");
+        }
+    }
+
+    /**
+     * @return The features whose setting does not match the beans of the
+     *         build, as {@code setting=requested}.
+     */
+    public static List<String> mismatches(Environment environment, ListableBeanFactory beanFactory) {
+        List<String> mismatches = new ArrayList<>();
+        for (Feature feature : FEATURES) {
+            boolean requested = feature.requested().test(environment);
+            boolean built = beanFactory.getBeanNamesForType(feature.bean(), true, false).length > 0;
+            if (requested != built) {
+                mismatches.add(feature.setting() + "=" + requested);
+            }
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.customer_service.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Callback for config-server's change notifications. Only requests carrying
+ * the shared {@code config.push.secret} are accepted, so nobody else can make
+ * the service refresh; without a secret the endpoint refuses everything.
+ */
+@RestController
+@ConditionalOnProperty(name = "spring.cloud.refresh.enabled", matchIfMissing = true)
+@RequestMapping("/config")
+public class ConfigRefreshController {
+
+    public static final String SECRET_HEADER = "X-Config-Push-Secret";
+
+    @Autowired
+    private ConfigRefresher configRefresher;
+
+    @Value("${config.push.secret:}")
+    private String secret;
+
+    /**
+     * Schedules a config refresh.
+     *
+     * @param presented The shared secret.
+     * @return 202 Accepted, the refresh runs in the background; 403 Forbidden
+     *         without the secret.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Void> refresh(@RequestHeader(value = SECRET_HEADER, required = false) String presented) {
+        if (secret.isBlank() || presented == null || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        configRefresher.requestRefresh();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.customer_service.config;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Re-imports configuration from config-server in the background.
+ *
+ * {@link ContextRefresher} rebinds {@code @ConfigurationProperties} beans and
+ * re-creates {@code @RefreshScope} beans, whose scope lock lets in-flight
+ * calls finish on the old instance. Requests that arrive while a refresh is
+ * already queued are coalesced into it.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cloud.refresh.enabled", matchIfMissing = true)
+public class ConfigRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigRefresher.class);
+
+    private final ContextRefresher contextRefresher;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConfigRefresher(ContextRefresher contextRefresher) {
+        this.contextRefresher = contextRefresher;
+    }
+
+    /**
+     * Queues a refresh unless one is already waiting to run.
+     */
+    public void requestRefresh() {
+        if (pending.compareAndSet(false, true)) {
+            executor.submit(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        pending.set(false);
+        try {
+            Set<String> keys = contextRefresher.refresh();
+            logger.info("Config refreshed, changed keys: {}", keys);
+        } catch (Exception ex) {
+            logger.error("Config refresh failed", ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customer_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.customer_service.model.TimeOrderedIdGenerator;
+
+/**
+ * Hands the worker ID for {@link TimeOrderedIdGenerator} to Hibernate.
+ * {@code id-generator.worker-id} has to be set to a different value on every
+ * instance, and the service does not start without it: instances sharing a
+ * worker ID generate the same IDs.
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorWorker(@Value("${id-generator.worker-id:}") String workerId) {
+        if (workerId.isBlank()) {
+            throw new IllegalStateException("id-generator.worker-id is not set; give every instance its own "
+                    + "worker ID between 0 and " + ((1 << TimeOrderedIdGenerator.WORKER_BITS) - 1));
+        }
+        int worker = Integer.parseInt(workerId);
+        logger.info("Generating IDs as worker {}", worker);
+        return properties -> properties.put(TimeOrderedIdGenerator.WORKER_ID, worker);
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.customer_service.controller;
 
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.PreconditionFailedException;
 import com.example.customer_service.exception.ResourceNotFoundException;
 import com.example.customer_service.hateoas.CustomerModelAssembler;
 import com.example.customer_service.model.Customer;
 import com.example.customer_service.model.CustomerDTO;
+import com.example.customer_service.model.CustomerPatch;
 import com.example.customer_service.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -54,31 +59,97 @@ public class CustomerController {
         return ResponseEntity.ok(customerDTOs);
     }
 
+    /**
+     * Retrieves many customers at once, for other services: one query, and
+     * plain DTOs without links.
+     *
+     * @param ids The IDs of the customers, at most
+     *            {@value CustomerService#MAX_LOOKUP_IDS}.
+     * @return The DTOs of the customers that exist, by ID; missing IDs are
+     *         left out.
+     * @throws BadRequestException if there are too many IDs.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<Long, CustomerDTO>> lookupCustomers(@RequestBody List<Long> ids) {
+        Map<Long, CustomerDTO> customers = customerService.getCustomersByIds(ids).values().stream()
+                .collect(Collectors.toMap(Customer::getId, customer -> new CustomerDTO(customer.getId(),
+                        customer.getName(), customer.getEmail(), customer.getTotalOrders())));
+        return ResponseEntity.ok(customers);
+    }
+
     /**
      * Retrieves a specific customer by ID.
      *
      * @param id The ID of the customer.
-     * @return The customer details with HATEOAS links.
+     * @return The customer details with HATEOAS links, and its version as
+     *         the ETag.
      * @throws ResourceNotFoundException if the customer is
      *                                   not found.
      */
     @GetMapping("/{id}")
     public ResponseEntity<EntityModel<CustomerDTO>> getCustomerById(@PathVariable Long id) {
         Customer customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customerModelAssembler.toModel(customer));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(customer.getVersion()))
+                .body(customerModelAssembler.toModel(customer));
+    }
+
+    /**
+     * Changes the given fields of a customer.
+     *
+     * @param id      The ID of the customer.
+     * @param patch   The fields to change; absent fields keep their value.
+     * @param ifMatch The ETag the customer must still have, optional.
+     * @return No content, with the new ETag when one was matched.
+     * @throws BadRequestException         if a field is invalid.
+     * @throws ResourceNotFoundException   if the customer does
+     *                                     not exist.
+     * @throws PreconditionFailedException if the customer no
+     *                                     longer matches the ETag.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchCustomer(@PathVariable Long id, @RequestBody CustomerPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = version(ifMatch);
+        customerService.patchCustomer(id, patch, version);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (version != null) {
+            response.eTag(String.valueOf(version + 1));
+        }
+        return response.build();
     }
 
     /**
      * Deletes a customer and all associated orders.
      *
-     * @param id The ID of the customer to delete.
+     * @param id      The ID of the customer to delete.
+     * @param ifMatch The ETag the customer must still have, optional.
      * @return A response message confirming the deletion.
-     * @throws ResourceNotFoundException if the customer does
-     *                                   not exist.
+     * @throws ResourceNotFoundException   if the customer does
+     *                                     not exist.
+     * @throws PreconditionFailedException if the customer no
+     *                                     longer matches the ETag.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteCustomer(@PathVariable Long id) {
-        customerService.deleteCustomer(id);
+    public ResponseEntity<String> deleteCustomer(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        customerService.deleteCustomer(id, version(ifMatch));
         return ResponseEntity.ok("Cascading delete successful");
     }
+
+    // the version from an If-Match header such as "3" or W/"3"; null for none or *
+    private static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
 }
@@ -31,7 +31,7 @@ public class CustomerModelAssembler implements RepresentationModelAssembler<Cust
                                 Link.of(orderServiceUrl, "customer-orders"),
                                 linkTo(methodOn(CustomerController.class).createCustomer(customer))
                                                 .withRel("update-customer"),
-                                linkTo(methodOn(CustomerController.class).deleteCustomer(customer.getId()))
+                                linkTo(methodOn(CustomerController.class).deleteCustomer(customer.getId(), null))
                                                 .withRel("delete-customer"));
         }
 }
\ No newline at end of file
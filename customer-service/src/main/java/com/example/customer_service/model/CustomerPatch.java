@@ -0,0 +1,7 @@
+package com.example.customer_service.model;
+
+/**
+ * A partial update of a customer; fields left null keep their value.
+ */
+public record CustomerPatch(String name, String email, String address) {
+}
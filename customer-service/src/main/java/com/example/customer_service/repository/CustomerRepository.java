@@ -1,28 +1,82 @@
 package com.example.customer_service.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.customer_service.cache.CustomerCacheEviction;
 import com.example.customer_service.model.Customer;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Queries are read-only transactions, which are served by a read replica when
+ * {@code read-replicas} are configured.
+ *
+ * Updates and deletes by ID are single statements that return the number of
+ * rows they changed; a null version matches any version. They are native SQL
+ * synchronized on {@link #ROW_WRITES_SPACE}, which no entity maps to, so
+ * Hibernate does not drop the whole customers region from the second-level
+ * cache as it does after JPQL updates and deletes;
+ * {@link CustomerCacheEviction} drops the one customer instead, and marks the
+ * customers table changed for the query cache.
+ *
+ * The sorted queries are kept in the query cache until the next write to the
+ * customers table.
+ */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    String SORTED_CACHE_REGION = "customers-by-created-at";
+    String ROW_WRITES_SPACE = "customer_row_writes";
+
     @SuppressWarnings({ "null", "unchecked" })
     Customer save(Customer customer);
 
+    @Transactional(readOnly = true)
     List<Customer> findAll();
 
     void deleteById(Long customerId);
 
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_WRITES_SPACE))
+    @Query(value = "UPDATE customers SET name = COALESCE(:name, name), email = COALESCE(:email, email), "
+            + "address = COALESCE(:address, address), version = version + 1 "
+            + "WHERE id = :id AND (:version IS NULL OR version = :version)", nativeQuery = true)
+    int patch(@Param("id") Long id, @Param("version") Long version, @Param("name") String name,
+            @Param("email") String email, @Param("address") String address);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_WRITES_SPACE))
+    @Query(value = "DELETE FROM customers WHERE id = :id AND (:version IS NULL OR version = :version)",
+            nativeQuery = true)
+    int delete(@Param("id") Long id, @Param("version") Long version);
+
+    @Transactional(readOnly = true)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SORTED_CACHE_REGION) })
     @Query("SELECT c FROM Customer c ORDER BY c.createdAt ASC")
     List<Customer> findAllByCreatedAtAsc();
 
+    @Transactional(readOnly = true)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SORTED_CACHE_REGION) })
     @Query("SELECT c FROM Customer c ORDER BY c.createdAt DESC")
     List<Customer> findAllByCreatedAtDesc();
 
+    @Transactional(readOnly = true)
     Optional<Customer> findById(Long customerId);
 
+    @Transactional(readOnly = true)
+    List<Customer> findByIdIn(Collection<Long> customerIds);
+
 }
@@ -1,18 +1,26 @@
 package com.example.customer_service.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.example.customer_service.cache.CustomerCacheEviction;
+import com.example.customer_service.client.OrderClient;
 import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.PreconditionFailedException;
 import com.example.customer_service.exception.ResourceNotFoundException;
 import com.example.customer_service.exception.ServiceUnavailableException;
 import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerPatch;
 import com.example.customer_service.repository.CustomerRepository;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -23,11 +31,20 @@ public class CustomerService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
 
+    /**
+     * The most customers {@link #getCustomersByIds(Collection)} looks up at
+     * once.
+     */
+    public static final int MAX_LOOKUP_IDS = 5000;
+
     @Autowired
     CustomerRepository customerRepository;
 
     @Autowired
-    RestTemplate restTemplate;
+    OrderClient orderClient;
+
+    @Autowired
+    CustomerCacheEviction customerCacheEviction;
 
     /**
      * Creates a new customer.
@@ -64,6 +81,30 @@ public class CustomerService {
         return customer;
     }
 
+    /**
+     * Retrieves many customers with one query.
+     *
+     * @param customerIds The IDs of the customers; duplicates are looked up
+     *                    once.
+     * @return The customers that exist, by ID.
+     * @throws BadRequestException if there are more than
+     *                             {@value #MAX_LOOKUP_IDS} distinct IDs.
+     */
+    public Map<Long, Customer> getCustomersByIds(Collection<Long> customerIds) {
+        List<Long> distinctIds = customerIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > MAX_LOOKUP_IDS) {
+            logger.error("Too many customer IDs to look up: {}", distinctIds.size());
+            throw new BadRequestException("At most " + MAX_LOOKUP_IDS + " customers can be looked up at once.");
+        }
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Customer> customers = customerRepository.findByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        logger.info("Found {} of {} customers", customers.size(), distinctIds.size());
+        return customers;
+    }
+
     /**
      * Retrieves all customers from the database.
      *
@@ -76,6 +117,37 @@ public class CustomerService {
         return customers;
     }
 
+    /**
+     * Changes the given fields of a customer in one statement.
+     *
+     * @param customerId The ID of the customer to change.
+     * @param patch      The fields to change; null fields keep their value.
+     * @param version    The version the customer must still have, or null for
+     *                   any version.
+     * @throws BadRequestException         if the name is empty.
+     * @throws ResourceNotFoundException   if the customer does not exist.
+     * @throws PreconditionFailedException if the customer has another version.
+     */
+    public void patchCustomer(Long customerId, CustomerPatch patch, Long version) {
+        logger.info("Patching customer with ID: {} at version {}: {}", customerId, version, patch);
+        if (patch.name() != null && patch.name().isEmpty()) {
+            logger.error("Customer name is empty");
+            throw new BadRequestException("Customer name cannot be null or empty.");
+        }
+        if (customerRepository.patch(customerId, version, patch.name(), patch.email(), patch.address()) == 0) {
+            // only a failed update pays for the read that explains it
+            if (customerRepository.findById(customerId).isEmpty()) {
+                logger.error("Customer not found with ID: {}", customerId);
+                throw new ResourceNotFoundException("Customer with ID " + customerId + " not found.");
+            }
+            logger.error("Customer with ID {} is no longer at version {}", customerId, version);
+            throw new PreconditionFailedException(
+                    "Customer with ID " + customerId + " is no longer at version " + version + ".");
+        }
+        customerCacheEviction.evict(customerId);
+        logger.info("Customer with ID {} patched successfully", customerId);
+    }
+
     /**
      * Deletes a customer and all associated orders.
      *
@@ -83,24 +155,58 @@ public class CustomerService {
      * @throws ResourceNotFoundException if the customer does not exist.
      */
     public void deleteCustomer(Long customerId) {
-        logger.info("Deleting customer with ID: {}", customerId);
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> {
-                    logger.error("Cannot delete. Customer with ID {} not found.", customerId);
-                    return new ResourceNotFoundException(
-                            "Cannot delete. Customer with ID " + customerId + " not found.");
-                });
+        deleteCustomer(customerId, null);
+    }
 
-        // Delete all orders associated with the customer
-        // This is a call to the order service to delete all orders for this customer
+    /**
+     * Deletes a customer and all associated orders, the customer with a single
+     * DELETE.
+     *
+     * @param customerId The ID of the customer to be deleted.
+     * @param version    The version the customer must still have, or null for
+     *                   any version.
+     * @throws ResourceNotFoundException   if the customer does not exist.
+     * @throws PreconditionFailedException if the customer has another version.
+     */
+    public void deleteCustomer(Long customerId, Long version) {
+        logger.info("Deleting customer with ID: {} at version {}", customerId, version);
+
+        // a customer at another version keeps its orders; the DELETE below
+        // checks the version again, against a change in between
+        if (version != null) {
+            Customer current = customerRepository.findById(customerId).orElseThrow(() -> {
+                logger.error("Cannot delete. Customer with ID {} not found.", customerId);
+                return new ResourceNotFoundException("Cannot delete. Customer with ID " + customerId + " not found.");
+            });
+            if (current.getVersion() != version) {
+                throw stale(customerId, version);
+            }
+        }
+
+        // Delete all orders associated with the customer first, so a failure
+        // there leaves the customer in place. A customer that does not exist
+        // has no orders, so this needs no lookup beforehand.
         logger.info("Deleting all orders for customer with ID: {}", customerId);
         deleteAllOrders(customerId);
 
         // Delete the customer
-        customerRepository.deleteById(customerId);
+        if (customerRepository.delete(customerId, version) == 0) {
+            if (version != null && customerRepository.findById(customerId).isPresent()) {
+                throw stale(customerId, version);
+            }
+            logger.error("Cannot delete. Customer with ID {} not found.", customerId);
+            throw new ResourceNotFoundException("Cannot delete. Customer with ID " + customerId + " not found.");
+        }
+        customerCacheEviction.evict(customerId);
         logger.info("Customer with ID {} deleted successfully", customerId);
     }
 
+    private static PreconditionFailedException stale(Long customerId, Long version) {
+        logger.error("Customer with ID {} is no longer at version {}", customerId, version);
+        return new PreconditionFailedException(
+                "Customer with ID " + customerId + " is no longer at version " + version + ".");
+    }
+
     /**
      * Deletes all orders associated with a customer.
      * This method uses Resilience4j to handle circuit breaking and retry logic
@@ -113,8 +219,7 @@ public class CustomerService {
     @Retry(name = "customerServiceRetry")
     public void deleteAllOrders(Long customerId) {
         logger.info("Calling order service to delete all orders for customer with ID: {}", customerId);
-        String orderServiceUrl = "http://order-service/api/orders/deleteall/" + customerId;
-        restTemplate.delete(orderServiceUrl);
+        orderClient.deleteAllOrders(customerId);
         logger.info("Successfully deleted all orders for customer with ID: {}", customerId);
     }
 
@@ -0,0 +1,66 @@
+package com.example.customer_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.example.customer_service.config.AotFeatureCheck;
+import com.example.customer_service.config.ConfigRefresher;
+import com.example.customer_service.config.SecondLevelCacheConfig;
+
+public class AotFeatureCheckUnitTest {
+
+    @Test
+    void mismatches_WithDefaultSettingsAndDefaultBeans_ShouldBeEmpty() {
+        // Given
+        DefaultListableBeanFactory beanFactory = defaultBeans();
+
+        // When
+        List<String> mismatches = AotFeatureCheck.mismatches(new MockEnvironment(), beanFactory);
+
+        // Then
+        assertTrue(mismatches.isEmpty());
+    }
+
+    @Test
+    void mismatches_WithFeatureSwitchedOnAfterTheBuild_ShouldReportIt() {
+        // Given
+        DefaultListableBeanFactory beanFactory = defaultBeans();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("read-replicas.replicas[0].url", "jdbc:h2:mem:replica")
+                .withProperty("spring.threads.virtual.enabled", "true");
+
+        // When
+        List<String> mismatches = AotFeatureCheck.mismatches(environment, beanFactory);
+
+        // Then
+        assertEquals(List.of("read-replicas.replicas=true", "spring.threads.virtual.enabled=true"), mismatches);
+    }
+
+    @Test
+    void mismatches_WithFeatureSwitchedOffAfterTheBuild_ShouldReportIt() {
+        // Given
+        DefaultListableBeanFactory beanFactory = defaultBeans();
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.cloud.refresh.enabled", "false");
+
+        // When
+        List<String> mismatches = AotFeatureCheck.mismatches(environment, beanFactory);
+
+        // Then
+        assertEquals(List.of("spring.cloud.refresh.enabled=false"), mismatches);
+    }
+
+    // the beans of a build without any opt-in feature
+    private static DefaultListableBeanFactory defaultBeans() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("secondLevelCacheConfig",
+                new RootBeanDefinition(SecondLevelCacheConfig.class));
+        beanFactory.registerBeanDefinition("configRefresher", new RootBeanDefinition(ConfigRefresher.class));
+        return beanFactory;
+    }
+}
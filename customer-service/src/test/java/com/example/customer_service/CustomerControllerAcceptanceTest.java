@@ -4,6 +4,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
@@ -97,4 +99,94 @@ public class CustomerControllerAcceptanceTest {
         // .andExpect(content().string("Cascading delete successful")); // Update
         // expected response
         // }
-}
\ No newline at end of file
+
+        @Test
+        void patchCustomer_WithMatchingETag_ShouldUpdateAndReturnNewETag() throws Exception {
+                // Given
+                Map<String, Object> customerRequest = new HashMap<>();
+                customerRequest.put("name", "Jim Doe");
+                customerRequest.put("email", "jim.doe." + System.currentTimeMillis() + "@example.com"); // Unique email
+
+                String response = mockMvc.perform(post("/api/customers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(customerRequest)))
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString();
+
+                Long customerId = objectMapper.readTree(response).get("id").asLong();
+
+                // When & Then
+                mockMvc.perform(get("/api/customers/{id}", customerId))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+                mockMvc.perform(patch("/api/customers/{id}", customerId)
+                                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("name", "James Doe"))))
+                                .andExpect(status().isNoContent())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+                mockMvc.perform(patch("/api/customers/{id}", customerId)
+                                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("name", "Jimmy Doe"))))
+                                .andExpect(status().isPreconditionFailed());
+                mockMvc.perform(get("/api/customers/{id}", customerId))
+                                .andExpect(jsonPath("$.name").value("James Doe"))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        }
+
+        @Test
+        void deleteCustomer_WithStaleETag_ShouldReturnPreconditionFailedAndKeepCustomer() throws Exception {
+                // Given
+                Map<String, Object> customerRequest = new HashMap<>();
+                customerRequest.put("name", "Joe Doe");
+                customerRequest.put("email", "joe.doe." + System.currentTimeMillis() + "@example.com"); // Unique email
+
+                String response = mockMvc.perform(post("/api/customers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(customerRequest)))
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString();
+
+                Long customerId = objectMapper.readTree(response).get("id").asLong();
+                mockMvc.perform(patch("/api/customers/{id}", customerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("name", "Joseph Doe"))))
+                                .andExpect(status().isNoContent());
+
+                // When & Then
+                mockMvc.perform(delete("/api/customers/{id}", customerId)
+                                .header(HttpHeaders.IF_MATCH, "\"0\""))
+                                .andExpect(status().isPreconditionFailed());
+                mockMvc.perform(get("/api/customers/{id}", customerId))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        }
+
+        @Test
+        void lookupCustomers_ShouldReturnExistingCustomersById() throws Exception {
+                // Given
+                Map<String, Object> customerRequest = new HashMap<>();
+                customerRequest.put("name", "Kim Doe");
+                customerRequest.put("email", "kim.doe." + System.currentTimeMillis() + "@example.com"); // Unique email
+
+                String response = mockMvc.perform(post("/api/customers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(customerRequest)))
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString();
+
+                Long customerId = objectMapper.readTree(response).get("id").asLong();
+
+                // When & Then
+                mockMvc.perform(post("/api/customers/lookup")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(customerId, customerId, -1L))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$['" + customerId + "'].name").value("Kim Doe"))
+                                .andExpect(jsonPath("$['" + customerId + "']._links").doesNotExist());
+        }
+}
@@ -6,7 +6,9 @@ import static org.mockito.Mockito.*;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,9 +17,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.example.customer_service.cache.CustomerCacheEviction;
+import com.example.customer_service.client.OrderClient;
 import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.PreconditionFailedException;
 import com.example.customer_service.exception.ResourceNotFoundException;
 import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerPatch;
 import com.example.customer_service.repository.CustomerRepository;
 // import com.example.customer_service.repository.OrderRepository;
 import com.example.customer_service.service.CustomerService;
@@ -31,6 +37,12 @@ public class CustomerServiceUnitTest {
     // @Mock
     // private OrderRepository orderRepository;
 
+    @Mock
+    private OrderClient orderClient;
+
+    @Mock
+    private CustomerCacheEviction customerCacheEviction;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -162,40 +174,78 @@ public class CustomerServiceUnitTest {
         verify(customerRepository, times(1)).findAll();
     }
 
-    // @Test
-    // void deleteCustomer_WithExistingId_ShouldDeleteCustomerAndOrders() {
-    // // Given
-    // when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
-    // // doNothing().when(orderRepository).deleteByCustomerId(1L);
-    // doNothing().when(customerRepository).deleteById(1L);
-
-    // // When
-    // // customerService.deleteCustomer(1L);
-
-    // // Then
-    // verify(customerRepository, times(1)).findById(1L);
-    // // verify(orderRepository, times(1)).deleteByCustomerId(1L);
-    // verify(customerRepository, times(1)).deleteById(1L);
-    // }
-
-    // @Test
-    // void deleteCustomer_WithNonExistingId_ShouldThrowResourceNotFoundException()
-    // {
-    // // Given
-    // Long nonExistingId = 999L;
-    // when(customerRepository.findById(nonExistingId)).thenReturn(Optional.empty());
-
-    // // When & Then
-    // ResourceNotFoundException exception =
-    // assertThrows(ResourceNotFoundException.class,
-    // () -> customerService.deleteCustomer(nonExistingId));
-
-    // assertEquals("Cannot delete. Customer with ID " + nonExistingId + " not
-    // found.", exception.getMessage());
-    // verify(customerRepository, times(1)).findById(nonExistingId);
-    // // verify(orderRepository, never()).deleteByCustomerId(anyLong());
-    // verify(customerRepository, never()).deleteById(anyLong());
-    // }
+    @Test
+    void deleteCustomer_WithExistingId_ShouldDeleteOrdersThenCustomerWithoutReading() {
+        // Given
+        when(customerRepository.delete(1L, null)).thenReturn(1);
+
+        // When
+        customerService.deleteCustomer(1L);
+
+        // Then
+        var inOrder = inOrder(orderClient, customerRepository, customerCacheEviction);
+        inOrder.verify(orderClient).deleteAllOrders(1L);
+        inOrder.verify(customerRepository).delete(1L, null);
+        inOrder.verify(customerCacheEviction).evict(1L);
+        verify(customerRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void deleteCustomer_WithStaleVersion_ShouldThrowPreconditionFailedExceptionAndKeepOrders() {
+        // Given
+        testCustomer.setVersion(3L);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> customerService.deleteCustomer(1L, 2L));
+        verifyNoInteractions(orderClient, customerCacheEviction);
+        verify(customerRepository, never()).delete(anyLong(), any());
+    }
+
+    @Test
+    void deleteCustomer_WithNonExistingId_ShouldThrowResourceNotFoundException() {
+        // Given
+        Long nonExistingId = 999L;
+        when(customerRepository.delete(nonExistingId, null)).thenReturn(0);
+
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> customerService.deleteCustomer(nonExistingId));
+        assertEquals("Cannot delete. Customer with ID " + nonExistingId + " not found.", exception.getMessage());
+    }
+
+    @Test
+    void patchCustomer_WithMatchingVersion_ShouldUpdateWithoutReading() {
+        // Given
+        CustomerPatch patch = new CustomerPatch(null, "other@example.com", null);
+        when(customerRepository.patch(1L, 3L, null, "other@example.com", null)).thenReturn(1);
+
+        // When
+        customerService.patchCustomer(1L, patch, 3L);
+
+        // Then
+        verify(customerRepository, never()).findById(anyLong());
+        verify(customerCacheEviction).evict(1L);
+    }
+
+    @Test
+    void patchCustomer_WithStaleVersion_ShouldThrowPreconditionFailedException() {
+        // Given
+        CustomerPatch patch = new CustomerPatch("Other Name", null, null);
+        when(customerRepository.patch(1L, 2L, "Other Name", null, null)).thenReturn(0);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> customerService.patchCustomer(1L, patch, 2L));
+    }
+
+    @Test
+    void patchCustomer_WithEmptyName_ShouldThrowBadRequestException() {
+        // When & Then
+        assertThrows(BadRequestException.class,
+                () -> customerService.patchCustomer(1L, new CustomerPatch("", null, null), null));
+        verifyNoInteractions(customerRepository);
+    }
 
     @Test
     void getCustomersSorted_WithAscendingOrder_ShouldReturnCustomersInAscendingOrder() {
@@ -258,4 +308,27 @@ public class CustomerServiceUnitTest {
         verify(customerRepository, times(1)).findAllByCreatedAtDesc();
         verify(customerRepository, never()).findAllByCreatedAtAsc();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCustomersByIds_ShouldLookUpDistinctIdsInOneQuery() {
+        // Given
+        when(customerRepository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of(testCustomer));
+
+        // When
+        Map<Long, Customer> result = customerService.getCustomersByIds(Arrays.asList(1L, 2L, 1L, null));
+
+        // Then
+        assertEquals(Map.of(1L, testCustomer), result);
+        verify(customerRepository, times(1)).findByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void getCustomersByIds_WithTooManyIds_ShouldThrowBadRequestException() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, CustomerService.MAX_LOOKUP_IDS + 1).boxed().toList();
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> customerService.getCustomersByIds(ids));
+        verify(customerRepository, never()).findByIdIn(any());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.customer_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.example.customer_service.config.LiveConfigRebinder;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.common.CompositeCustomizer;
+import io.github.resilience4j.retry.RetryRegistry;
+
+public class LiveConfigRebinderUnitTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("resilience4j.circuitbreaker.instances.customerServiceCB.failureRateThreshold", "50")
+            .withProperty("resilience4j.retry.instances.customerServiceRetry.maxAttempts", "3");
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+
+    private final LiveConfigRebinder rebinder = new LiveConfigRebinder(environment, circuitBreakerRegistry,
+            new CompositeCustomizer<>(List.of()), retryRegistry, new CompositeCustomizer<>(List.of()),
+            new StaticListableBeanFactory().getBeanProvider(DataSource.class),
+            new StaticListableBeanFactory().getBeanProvider(CacheManager.class));
+
+    @Test
+    void onEnvironmentChange_WithCircuitBreakerThreshold_ShouldReplaceAndKeepCircuitOpen() {
+        // Given
+        CircuitBreaker original = circuitBreakerRegistry.circuitBreaker("customerServiceCB");
+        original.transitionToOpenState();
+        environment.setProperty("resilience4j.circuitbreaker.instances.customerServiceCB.failureRateThreshold", "20");
+
+        // When
+        rebinder.onEnvironmentChange(new EnvironmentChangeEvent(
+                Set.of("resilience4j.circuitbreaker.instances.customerServiceCB.failureRateThreshold")));
+
+        // Then
+        CircuitBreaker replacement = circuitBreakerRegistry.circuitBreaker("customerServiceCB");
+        assertNotSame(original, replacement);
+        assertEquals(20f, replacement.getCircuitBreakerConfig().getFailureRateThreshold());
+        assertEquals(CircuitBreaker.State.OPEN, replacement.getState());
+    }
+
+    @Test
+    void onEnvironmentChange_WithRetryAttempts_ShouldReplaceRetry() {
+        // Given
+        retryRegistry.retry("customerServiceRetry");
+        environment.setProperty("resilience4j.retry.instances.customerServiceRetry.maxAttempts", "5");
+
+        // When
+        rebinder.onEnvironmentChange(new EnvironmentChangeEvent(
+                Set.of("resilience4j.retry.instances.customerServiceRetry.maxAttempts")));
+
+        // Then
+        assertEquals(5, retryRegistry.retry("customerServiceRetry").getRetryConfig().getMaxAttempts());
+    }
+
+    @Test
+    void onEnvironmentChange_WithUnrelatedKey_ShouldKeepCircuitBreaker() {
+        // Given
+        CircuitBreaker original = circuitBreakerRegistry.circuitBreaker("customerServiceCB");
+
+        // When
+        rebinder.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("logging.level.root")));
+
+        // Then
+        assertSame(original, circuitBreakerRegistry.circuitBreaker("customerServiceCB"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.customer_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.repository.CustomerRepository;
+import com.example.read_replicas.ReadYourWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Two H2 databases stand in for the primary and a replica. Nothing
+ * replicates between them, so where a row is found shows where a query went,
+ * once it is not in the second-level cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "read-replicas.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "read-replicas.sticky-window=5s" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (JdbcTemplate database : new JdbcTemplate[] { primary, replica }) {
+            database.update("DELETE FROM customers");
+        }
+    }
+
+    @Test
+    void save_ShouldWriteToPrimary() {
+        // When
+        customerRepository.save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0));
+
+        // Then
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM customers", Integer.class));
+    }
+
+    @Test
+    void readOnlyQueries_ShouldReadFromReplica() {
+        // Given
+        Customer onPrimary = customerRepository
+                .save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0));
+        replica.update("INSERT INTO customers (id, name, email) VALUES (1000, 'Bob', 'bob@example.com')");
+        // the save put the customer into the second-level cache
+        assertTrue(entityManagerFactory.getCache().contains(Customer.class, onPrimary.getId()));
+        entityManagerFactory.getCache().evictAll();
+
+        // When & Then
+        assertTrue(customerRepository.findById(onPrimary.getId()).isEmpty());
+        assertTrue(customerRepository.findById(1000L).isPresent());
+        assertFalse(entityManagerFactory.getCache().contains(Customer.class, 1000L));
+        assertEquals("Bob", customerRepository.findAll().get(0).getName());
+        assertTrue(meterRegistry.get("datasource.routing.connections").tag("pool", "replica-1").counter()
+                .count() > 0);
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").tag("pool", "replica-1").gauge());
+    }
+
+    @Test
+    void createCustomer_ShouldKeepClientOnPrimaryWithinStickyWindow() throws Exception {
+        // Given
+        Map<String, Object> customerRequest = Map.of("name", "Alice", "email", "alice@example.com");
+
+        // When
+        var result = mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customerRequest)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE))
+                .andReturn();
+        Cookie sticky = result.getResponse().getCookie(ReadYourWrites.COOKIE);
+        Long id = objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+
+        // Then
+        mockMvc.perform(get("/api/customers/{id}", id).cookie(sticky))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Alice"));
+        // another client still reads the replica, which has not seen the customer,
+        // once the primary's copy is out of the second-level cache
+        entityManagerFactory.getCache().evictAll();
+        mockMvc.perform(get("/api/customers/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getCustomer_WithCookieBeyondStickyWindow_ShouldReadFromReplica() throws Exception {
+        // Given
+        Long id = customerRepository
+                .save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0)).getId();
+        entityManagerFactory.getCache().evictAll();
+        Cookie forged = new Cookie(ReadYourWrites.COOKIE, String.valueOf(Long.MAX_VALUE));
+
+        // When & Then
+        mockMvc.perform(get("/api/customers/{id}", id).cookie(forged))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.customer_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerPatch;
+import com.example.customer_service.repository.CustomerRepository;
+import com.example.customer_service.service.CustomerService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Rows are changed with plain JDBC behind Hibernate's back, so a read that
+ * does not see the change was served from the cache.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM customers");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void getCustomerById_ShouldBeServedFromCacheUntilPatched() {
+        // Given
+        Customer customer = customerRepository
+                .save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0));
+        jdbcTemplate.update("UPDATE customers SET name = 'Behind' WHERE id = ?", customer.getId());
+
+        // When
+        Customer cached = customerService.getCustomerById(customer.getId());
+        customerService.patchCustomer(customer.getId(), new CustomerPatch("Alicia", null, null), null);
+        Customer patched = customerService.getCustomerById(customer.getId());
+
+        // Then
+        assertEquals("Alice", cached.getName());
+        assertEquals("Alicia", patched.getName());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Customer.CACHE_REGION, "result", "hit").functionCounter().count() > 0);
+    }
+
+    @Test
+    void patchCustomer_ShouldOnlyEvictThePatchedCustomer() {
+        // Given
+        Customer patched = customerRepository
+                .save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0));
+        Customer other = customerRepository
+                .save(new Customer(null, "Bob", "bob@example.com", null, LocalDateTime.now(), 0));
+        customerService.getCustomerById(patched.getId());
+        customerService.getCustomerById(other.getId());
+        jdbcTemplate.update("UPDATE customers SET name = 'Behind' WHERE id = ?", other.getId());
+
+        // When
+        customerService.patchCustomer(patched.getId(), new CustomerPatch("Alicia", null, null), null);
+
+        // Then
+        assertEquals("Alicia", customerService.getCustomerById(patched.getId()).getName());
+        assertEquals("Bob", customerService.getCustomerById(other.getId()).getName());
+    }
+
+    @Test
+    void sortedQueries_ShouldBeCachedUntilCustomersChange() {
+        // Given
+        customerRepository.save(new Customer(null, "Alice", "alice@example.com", null, LocalDateTime.now(), 0));
+        customerService.getCustomersSorted("asc");
+        jdbcTemplate.update("INSERT INTO customers (id, name, email) VALUES (1000, 'Behind', 'behind@example.com')");
+
+        // When
+        int cached = customerService.getCustomersSorted("asc").size();
+        customerRepository.save(new Customer(null, "Bob", "bob@example.com", null, LocalDateTime.now(), 0));
+        int afterWrite = customerService.getCustomersSorted("asc").size();
+
+        // Then
+        assertEquals(1, cached);
+        assertEquals(3, afterWrite);
+        assertTrue(meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit").functionCounter()
+                .count() > 0);
+    }
+}
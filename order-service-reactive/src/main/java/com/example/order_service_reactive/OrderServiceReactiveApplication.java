@@ -0,0 +1,35 @@
+package com.example.order_service_reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.config.EnableHypermediaSupport.HypermediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * order-service on WebFlux and R2DBC. Serves the same endpoints as the
+ * blocking order-service, under a service ID of its own: it lacks some of
+ * that service's features, so the gateway serves it apart, under
+ * {@code /order-service-reactive/api/orders}.
+ */
+@SpringBootApplication
+@EnableR2dbcAuditing
+@EnableDiscoveryClient
+@EnableHypermediaSupport(type = HypermediaType.HAL)
+public class OrderServiceReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(OrderServiceReactiveApplication.class, args);
+	}
+
+	@Bean
+	@LoadBalanced
+	public WebClient.Builder webClientBuilder() {
+		return WebClient.builder();
+	}
+
+}
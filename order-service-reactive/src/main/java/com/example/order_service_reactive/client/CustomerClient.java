@@ -0,0 +1,58 @@
+package com.example.order_service_reactive.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.order_service_reactive.exception.ServiceUnavailableException;
+import com.example.order_service_reactive.model.Customer;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Looks up customers in customer-service through the load-balanced
+ * {@link WebClient}, behind the same circuit breaker and retry instances as
+ * the blocking order-service.
+ */
+@Component
+public class CustomerClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerClient.class);
+
+    private final WebClient webClient;
+
+    public CustomerClient(WebClient.Builder webClientBuilder) {
+        this.webClient = webClientBuilder.baseUrl("http://customer-service").build();
+    }
+
+    /**
+     * Fetches a customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return The customer, or empty if customer-service does not know it. A
+     *         missing customer is an answer, so it neither trips the circuit
+     *         breaker nor is retried.
+     */
+    @CircuitBreaker(name = "orderServiceCB", fallbackMethod = "getCustomerFallback")
+    @Retry(name = "orderServiceRetry")
+    public Mono<Customer> getCustomer(Long customerId) {
+        return webClient.get()
+                .uri("/api/customers/{id}", customerId)
+                .exchangeToMono(response -> response.statusCode() == HttpStatus.NOT_FOUND
+                        ? response.releaseBody().then(Mono.<Customer>empty())
+                        : response.statusCode().is2xxSuccessful()
+                                ? response.bodyToMono(Customer.class)
+                                : response.createError());
+    }
+
+    // fallback method gets called when retries/circuit breaker fail.
+    private Mono<Customer> getCustomerFallback(Long customerId, Throwable ex) {
+        logger.error("Fallback triggered for getCustomer with customerId: {}. Reason: {}", customerId,
+                ex.getMessage());
+        return Mono.error(new ServiceUnavailableException("Customer service is unavailable. Please try again later."));
+    }
+}
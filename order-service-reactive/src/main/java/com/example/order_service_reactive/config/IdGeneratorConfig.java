@@ -0,0 +1,47 @@
+package com.example.order_service_reactive.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.model.TimeOrderedIdGenerator;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives new orders a {@link TimeOrderedIdGenerator} ID before they are
+ * inserted, instead of an AUTO_INCREMENT one, which would jump into the
+ * range of the blocking order-service's IDs and collide with them.
+ * {@code id-generator.worker-id} has to be set to a value no other instance
+ * of either variant uses.
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    @Bean
+    public TimeOrderedIdGenerator timeOrderedIdGenerator(@Value("${id-generator.worker-id:}") String workerId) {
+        if (workerId.isBlank()) {
+            throw new IllegalStateException("id-generator.worker-id is not set; give every instance its own "
+                    + "worker ID between 0 and " + ((1 << TimeOrderedIdGenerator.WORKER_BITS) - 1));
+        }
+        int worker = Integer.parseInt(workerId);
+        logger.info("Generating IDs as worker {}", worker);
+        return new TimeOrderedIdGenerator(worker);
+    }
+
+    @Bean
+    public BeforeConvertCallback<Order> orderIdAssigner(TimeOrderedIdGenerator idGenerator) {
+        return (order, table) -> {
+            if (order.getId() == null) {
+                order.setId(idGenerator.nextId());
+            }
+            return Mono.just(order);
+        };
+    }
+}
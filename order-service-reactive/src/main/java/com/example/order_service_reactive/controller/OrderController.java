@@ -0,0 +1,211 @@
+package com.example.order_service_reactive.controller;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.order_service_reactive.exception.BadRequestException;
+import com.example.order_service_reactive.exception.PreconditionFailedException;
+import com.example.order_service_reactive.exception.ResourceNotFoundException;
+import com.example.order_service_reactive.hateoas.OrderModelAssembler;
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.model.OrderDTO;
+import com.example.order_service_reactive.model.OrderPatch;
+import com.example.order_service_reactive.service.OrderService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller for handling order-related operations, with the same endpoints
+ * and responses as the blocking order-service.
+ */
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+    private final OrderModelAssembler orderModelAssembler;
+
+    public OrderController(OrderService orderService, OrderModelAssembler orderModelAssembler) {
+        this.orderService = orderService;
+        this.orderModelAssembler = orderModelAssembler;
+    }
+
+    /**
+     * Creates a new order.
+     *
+     * @param order The order object to be created.
+     * @return The created order as a DTO.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<OrderDTO>> createOrder(@Validated @RequestBody Order order) {
+        return orderService.createOrder(order)
+                .map(savedOrder -> ResponseEntity
+                        .ok(new OrderDTO(savedOrder.getId(), savedOrder.getCreatedAt(), savedOrder.getQuantity())));
+    }
+
+    /**
+     * Retrieves a Page of orders for a specific customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return A page of orders for the specified customer as DTOs with HATEOAS
+     *         links.
+     */
+    @GetMapping("/customer/{customerId}")
+    public Mono<ResponseEntity<PagedModel<EntityModel<OrderDTO>>>> getAllOrders(
+            @PathVariable Long customerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return orderService.getAllOrders(customerId, PageRequest.of(page, size))
+                .flatMap(orders -> orderModelAssembler.toPagedModel(orders, customerId))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves a specific order by ID.
+     *
+     * @param id The ID of the order.
+     * @return The order details with HATEOAS links, and its version as the
+     *         ETag.
+     * @throws ResourceNotFoundException if the order is not
+     *                                   found.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<OrderDTO>>> getOrder(@PathVariable Long id) {
+        return orderService.getOrder(id)
+                .flatMap(order -> orderModelAssembler.toModel(order)
+                        .map(model -> ResponseEntity.ok().eTag(String.valueOf(order.getVersion())).body(model)));
+    }
+
+    /**
+     * Updates an existing order.
+     *
+     * @param order   The order object containing updated details.
+     * @param ifMatch The ETag the order must still have, optional.
+     * @return The updated order as a DTO.
+     * @throws BadRequestException         if the order details
+     *                                     are invalid.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
+     */
+    @PutMapping
+    public Mono<ResponseEntity<OrderDTO>> updateOrder(@Validated @RequestBody Order order,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return orderService.updateOrder(order, version(ifMatch))
+                .map(updatedOrder -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (updatedOrder.getVersion() != null) {
+                        response.eTag(String.valueOf(updatedOrder.getVersion()));
+                    }
+                    return response.body(
+                            new OrderDTO(updatedOrder.getId(), updatedOrder.getCreatedAt(), updatedOrder.getQuantity()));
+                });
+    }
+
+    /**
+     * Changes the given fields of an order.
+     *
+     * @param id      The ID of the order.
+     * @param patch   The fields to change; absent fields keep their value.
+     * @param ifMatch The ETag the order must still have, optional.
+     * @return No content, with the new ETag when one was matched.
+     * @throws BadRequestException         if a field is invalid.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Void>> patchOrder(@PathVariable Long id, @RequestBody OrderPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = version(ifMatch);
+        return orderService.patchOrder(id, patch, version)
+                .then(Mono.fromSupplier(() -> {
+                    ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+                    if (version != null) {
+                        response.eTag(String.valueOf(version + 1));
+                    }
+                    return response.build();
+                }));
+    }
+
+    /**
+     * Deletes an order by its ID.
+     *
+     * @param id      The ID of the order to be deleted.
+     * @param ifMatch The ETag the order must still have, optional.
+     * @return A response message confirming deletion.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteOrder(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return orderService.deleteOrder(id, version(ifMatch))
+                .thenReturn(ResponseEntity.ok("Order deleted successfully"));
+    }
+
+    // the version from an If-Match header such as "3" or W/"3"; null for none or *
+    private static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    /**
+     * Deletes all orders for a customer.
+     *
+     * @param id The ID of the customer to delete orders for.
+     * @return A response message confirming deletion.
+     */
+    @DeleteMapping("/deleteall/{id}")
+    public Mono<ResponseEntity<String>> deleteOrders(@PathVariable Long id) {
+        return orderService.deleteAllOrders(id)
+                .thenReturn(ResponseEntity.ok("All Orders deleted successfully for customer ID: " + id));
+    }
+
+    /**
+     * Retrieves orders within a specific date range.
+     *
+     * @param startDate The start date-time of the range.
+     * @param endDate   The end date-time of the range.
+     * @return The orders within the specified date range.
+     */
+    @GetMapping("/bydate")
+    public Flux<Order> getOrdersByDateRange(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate) {
+        return orderService.getOrdersByDateRange(startDate, endDate);
+    }
+
+    /**
+     * Retrieves the orders sorted by creation date.
+     *
+     * @param sortDirection The sorting direction (asc/desc).
+     * @return The sorted orders.
+     */
+    @GetMapping("/sorted")
+    public Flux<Order> getOrdersSorted(@RequestParam String sortDirection) {
+        return orderService.getOrdersSorted(sortDirection);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.order_service_reactive.hateoas;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.PagedModel.PageMetadata;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service_reactive.controller.OrderController;
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.model.OrderDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds the same HAL representations as the blocking order-service. Links
+ * are resolved against the current exchange, hence the {@link Mono}s.
+ */
+@Component
+public class OrderModelAssembler {
+
+    public Mono<EntityModel<OrderDTO>> toModel(Order order) {
+        OrderDTO dto = new OrderDTO(order.getId(), order.getCreatedAt(), order.getQuantity());
+
+        // Manually construct the customer service URL
+        Link customer = Link.of("http://customer-service/api/customers/" + order.getCustomerId()).withRel("customer");
+
+        return Mono.zip(
+                linkTo(methodOn(OrderController.class).getOrder(order.getId())).withSelfRel().toMono(),
+                linkTo(methodOn(OrderController.class).updateOrder(order, null)).withRel("update-order").toMono())
+                .map(links -> EntityModel.of(dto, links.getT1(), customer, links.getT2()));
+    }
+
+    public Mono<PagedModel<EntityModel<OrderDTO>>> toPagedModel(Page<Order> page, Long customerId) {
+        List<Mono<Link>> links = new ArrayList<>();
+        if (page.hasPrevious()) {
+            links.add(pageLink(customerId, 0, page.getSize(), IanaLinkRelations.FIRST));
+            links.add(pageLink(customerId, page.getNumber() - 1, page.getSize(), IanaLinkRelations.PREV));
+        }
+        links.add(pageLink(customerId, page.getNumber(), page.getSize(), IanaLinkRelations.SELF));
+        if (page.hasNext()) {
+            links.add(pageLink(customerId, page.getNumber() + 1, page.getSize(), IanaLinkRelations.NEXT));
+            links.add(pageLink(customerId, page.getTotalPages() - 1, page.getSize(), IanaLinkRelations.LAST));
+        }
+        PageMetadata metadata = new PageMetadata(page.getSize(), page.getNumber(), page.getTotalElements(),
+                page.getTotalPages());
+
+        return Mono.zip(
+                Flux.fromIterable(page.getContent()).concatMap(this::toModel).collectList(),
+                Flux.concat(links).collectList())
+                .map(modelsAndLinks -> PagedModel.of(modelsAndLinks.getT1(), metadata, modelsAndLinks.getT2()));
+    }
+
+    private static Mono<Link> pageLink(Long customerId, int page, int size, LinkRelation relation) {
+        return linkTo(methodOn(OrderController.class).getAllOrders(customerId, page, size)).withRel(relation).toMono();
+    }
+}
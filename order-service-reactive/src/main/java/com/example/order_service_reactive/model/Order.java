@@ -0,0 +1,100 @@
+package com.example.order_service_reactive.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The orders row of the blocking order-service, mapped for R2DBC.
+ */
+@Table("orders")
+public class Order {
+    // assigned before the insert, see IdGeneratorConfig
+    @Id
+    private Long id;
+    @Column("customer_id")
+    private Long customerId;
+    private String product;
+    private Integer quantity;
+    @CreatedDate
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column("created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    // the same version column the blocking order-service bumps and sends as
+    // the ETag; null until the order is saved
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    public Order() {
+    }
+
+    public Order(Long id, Long customerId, String product, Integer quantity, LocalDateTime createdAt) {
+        this.id = id;
+        this.customerId = customerId;
+        this.product = product;
+        this.quantity = quantity;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public void setProduct(String product) {
+        this.product = product;
+    }
+
+    public Integer getQuantity() {
+        return quantity != null ? quantity : 0;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "Order [toString()=" + super.toString() + "]";
+    }
+
+}
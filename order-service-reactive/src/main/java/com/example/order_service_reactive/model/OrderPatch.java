@@ -0,0 +1,7 @@
+package com.example.order_service_reactive.model;
+
+/**
+ * A partial update of an order; fields left null keep their value.
+ */
+public record OrderPatch(String product, Integer quantity) {
+}
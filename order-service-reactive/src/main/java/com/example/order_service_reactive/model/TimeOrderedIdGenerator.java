@@ -0,0 +1,39 @@
+package com.example.order_service_reactive.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The blocking order-service's time-ordered IDs: the milliseconds since 2025,
+ * a 10-bit worker ID and a 12-bit sequence within the millisecond. Orders
+ * created here take their IDs from the same scheme, so they never collide
+ * with those of the blocking instances as long as every instance of either
+ * variant has its own worker ID.
+ */
+public class TimeOrderedIdGenerator {
+
+    public static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    private final long worker;
+    // milliseconds since the epoch shifted left by SEQUENCE_BITS, plus the sequence
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdGenerator(int workerId) {
+        if (workerId < 0 || workerId >= 1 << WORKER_BITS) {
+            throw new IllegalArgumentException("Worker ID must be between 0 and " + ((1 << WORKER_BITS) - 1));
+        }
+        this.worker = workerId;
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        // a full sequence, or a clock that went back, borrows the next millisecond
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1 << SEQUENCE_BITS) - 1);
+        return millis << (WORKER_BITS + SEQUENCE_BITS) | worker << SEQUENCE_BITS | sequence;
+    }
+}
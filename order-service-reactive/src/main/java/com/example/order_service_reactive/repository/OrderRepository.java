@@ -0,0 +1,66 @@
+package com.example.order_service_reactive.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.example.order_service_reactive.model.Order;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mirrors the blocking order-service's OrderRepository. R2DBC has no Page
+ * type, so a page is the slice of rows plus a separate count.
+ *
+ * Updates and deletes by ID are single statements that return the number of
+ * rows they changed. They bump or check the version column like the blocking
+ * service's, so an ETag from either service guards writes through both.
+ *
+ * The blocking service learns about these writes from the order_changes
+ * table, see {@link com.example.order_service_reactive.service.OrderChanges}.
+ */
+public interface OrderRepository extends ReactiveCrudRepository<Order, Long> {
+
+    Flux<Order> findByCustomerId(Long customerId, Pageable pageable);
+
+    Mono<Long> countByCustomerId(Long customerId);
+
+    @Modifying
+    @Query("UPDATE orders SET customer_id = :customerId, product = :product, quantity = :quantity, "
+            + "version = version + 1 WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> update(Long id, Long version, Long customerId, String product, Integer quantity);
+
+    @Query("SELECT created_at FROM orders WHERE id = :id")
+    Mono<LocalDateTime> findCreatedAtById(Long id);
+
+    @Modifying
+    @Query("UPDATE orders SET product = COALESCE(:product, product), quantity = COALESCE(:quantity, quantity), "
+            + "version = version + 1 WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> patch(Long id, Long version, String product, Integer quantity);
+
+    @Modifying
+    @Query("DELETE FROM orders WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> delete(Long id, Long version);
+
+    @Modifying
+    @Query("DELETE FROM orders WHERE customer_id = :customerId")
+    Mono<Integer> deleteByCustomerId(Long customerId);
+
+    @Modifying
+    @Query("INSERT INTO order_changes (order_id, customer_id, source, changed_at) "
+            + "VALUES (:orderId, :customerId, :source, :changedAt)")
+    Mono<Integer> recordChange(Long orderId, Long customerId, String source, LocalDateTime changedAt);
+
+    Flux<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT * FROM orders ORDER BY created_at ASC")
+    Flux<Order> findAllByCreatedAtAsc();
+
+    @Query("SELECT * FROM orders ORDER BY created_at DESC")
+    Flux<Order> findAllByCreatedAtDesc();
+
+}
@@ -0,0 +1,58 @@
+package com.example.order_service_reactive.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service_reactive.repository.OrderRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the updates and deletes made here in the order_changes table, which
+ * the blocking order-service polls to drop the changed orders from its
+ * second-level cache and recent order index. Recorded in the transaction of
+ * the write, so a change is recorded exactly when it commits.
+ *
+ * Without {@code order-changes.enabled} nothing is recorded, and order-service
+ * instances on the same database serve the changed orders until their cache
+ * entries expire and their index reloads.
+ */
+@Component
+public class OrderChanges {
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    // tells this instance's changes apart from the others'
+    private final String source = UUID.randomUUID().toString();
+
+    public OrderChanges(OrderRepository orderRepository,
+            @Value("${order-changes.enabled:false}") boolean enabled) {
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records an update or delete of an order.
+     */
+    public Mono<Void> changed(Long orderId) {
+        return record(orderId, null);
+    }
+
+    /**
+     * Records that the orders of a customer were deleted.
+     */
+    public Mono<Void> deletedCustomer(Long customerId) {
+        return record(null, customerId);
+    }
+
+    private Mono<Void> record(Long orderId, Long customerId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> orderRepository.recordChange(orderId, customerId, source, LocalDateTime.now()))
+                .then();
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.order_service_reactive.service;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.example.order_service_reactive.client.CustomerClient;
+import com.example.order_service_reactive.exception.BadRequestException;
+import com.example.order_service_reactive.exception.PreconditionFailedException;
+import com.example.order_service_reactive.exception.ResourceNotFoundException;
+import com.example.order_service_reactive.model.Customer;
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.model.OrderPatch;
+import com.example.order_service_reactive.repository.OrderRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the blocking order-service's OrderService, with
+ * the same validation and error semantics.
+ *
+ * Updates and deletes are recorded through {@link OrderChanges} in their own
+ * transaction, so order-service's caches drop what changed here.
+ */
+@Service
+public class OrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    private final OrderRepository orderRepository;
+    private final CustomerClient customerClient;
+    private final TransactionalOperator transactionalOperator;
+    private final OrderChanges orderChanges;
+
+    public OrderService(OrderRepository orderRepository, CustomerClient customerClient,
+            TransactionalOperator transactionalOperator, OrderChanges orderChanges) {
+        this.orderRepository = orderRepository;
+        this.customerClient = customerClient;
+        this.transactionalOperator = transactionalOperator;
+        this.orderChanges = orderChanges;
+    }
+
+    /**
+     * Creates a new order.
+     *
+     * @param order The order object to be created.
+     * @return The created order.
+     * @throws BadRequestException       if the order object is null or invalid.
+     * @throws ResourceNotFoundException if the customer does not exist.
+     */
+    public Mono<Order> createOrder(Order order) {
+        logger.info("Entering createOrder method with order: {}", order);
+        if (order == null) {
+            return Mono.error(new BadRequestException("Order cannot be null"));
+        }
+        if (order.getProduct() == null || order.getProduct().isEmpty()) {
+            return Mono.error(new BadRequestException("Product cannot be null or empty"));
+        }
+        if (order.getQuantity() == null || order.getQuantity() <= 0) {
+            return Mono.error(new BadRequestException("Quantity must be greater than 0"));
+        }
+        // Validate customer existence through customer-service
+        return getCustomer(order.getCustomerId())
+                .then(Mono.defer(() -> orderRepository.save(order)))
+                .doOnNext(savedOrder -> logger.info("Order created successfully: {}", savedOrder));
+    }
+
+    /**
+     * Retrieves a page of orders for a specific customer.
+     *
+     * @param customerId The ID of the customer.
+     * @param pageable   The page to fetch.
+     * @return A page of orders for the specified customer.
+     * @throws ResourceNotFoundException if the customer does not exist.
+     */
+    public Mono<Page<Order>> getAllOrders(Long customerId, Pageable pageable) {
+        logger.info("Entering getAllOrders method for customerId: {}", customerId);
+        return getCustomer(customerId)
+                .then(Mono.defer(() -> Mono.zip(
+                        orderRepository.findByCustomerId(customerId, pageable).collectList(),
+                        orderRepository.countByCustomerId(customerId))))
+                .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2()));
+    }
+
+    private Mono<Customer> getCustomer(Long customerId) {
+        return customerClient.getCustomer(customerId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer not found with id: "
+                        + customerId)))
+                .doOnNext(customer -> logger.info("Customer validated: {}", customer));
+    }
+
+    /**
+     * Retrieves a specific order by its ID.
+     *
+     * @param id The ID of the order.
+     * @return The order with the specified ID.
+     * @throws ResourceNotFoundException if the order is not found.
+     */
+    public Mono<Order> getOrder(Long id) {
+        logger.info("Fetching order with ID: {}", id);
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Order not found with id: " + id)));
+    }
+
+    /**
+     * Updates an existing order.
+     *
+     * @param order The order object containing updated details.
+     * @return The updated order.
+     * @throws ResourceNotFoundException if the order does not exist.
+     * @throws BadRequestException       if the order object is null or invalid.
+     */
+    public Mono<Order> updateOrder(Order order) {
+        return updateOrder(order, null);
+    }
+
+    /**
+     * Updates an existing order with a single UPDATE, without reading it first.
+     * The creation date of the stored order is kept, and read back afterwards
+     * in the same transaction.
+     *
+     * @param order   The order object containing updated details.
+     * @param version The version the order must have, or null for any version.
+     * @return The updated order with its stored creation date; its version is
+     *         only known when one was given.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws BadRequestException         if the order object is null or
+     *                                     invalid.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public Mono<Order> updateOrder(Order order, Long version) {
+        logger.info("Updating order: {}", order);
+        if (order == null || order.getId() == null) {
+            return Mono.error(new BadRequestException("Invalid order: order and ID must not be null"));
+        }
+        if (order.getCustomerId() == null) {
+            return Mono.error(new BadRequestException("Invalid order: customer ID must not be null"));
+        }
+        if (order.getProduct() == null || order.getProduct().isEmpty()) {
+            return Mono.error(new BadRequestException("Product cannot be null or empty"));
+        }
+        if (order.getQuantity() <= 0) {
+            return Mono.error(new BadRequestException("Quantity must be greater than 0"));
+        }
+        return orderRepository.update(order.getId(), version, order.getCustomerId(), order.getProduct(),
+                order.getQuantity())
+                .flatMap(updated -> updated == 0
+                        ? notChanged("update", order.getId(), version)
+                        : orderChanges.changed(order.getId())
+                                .then(orderRepository.findCreatedAtById(order.getId())))
+                .as(transactionalOperator::transactional)
+                .map(createdAt -> {
+                    order.setCreatedAt(createdAt);
+                    order.setVersion(version != null ? version + 1 : null);
+                    return order;
+                });
+    }
+
+    /**
+     * Changes the given fields of an order with a single UPDATE, without
+     * reading it first.
+     *
+     * @param id      The ID of the order.
+     * @param patch   The fields to change.
+     * @param version The version the order must have, or null for any version.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws BadRequestException         if a field is invalid.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public Mono<Void> patchOrder(Long id, OrderPatch patch, Long version) {
+        logger.info("Patching order with ID: {} with {}", id, patch);
+        if (patch == null) {
+            return Mono.error(new BadRequestException("Patch cannot be null"));
+        }
+        if (patch.product() != null && patch.product().isEmpty()) {
+            return Mono.error(new BadRequestException("Product cannot be empty"));
+        }
+        if (patch.quantity() != null && patch.quantity() <= 0) {
+            return Mono.error(new BadRequestException("Quantity must be greater than 0"));
+        }
+        return orderRepository.patch(id, version, patch.product(), patch.quantity())
+                .flatMap(updated -> updated == 0 ? notChanged("update", id, version) : orderChanges.changed(id))
+                .as(transactionalOperator::transactional)
+                .then();
+    }
+
+    /**
+     * Deletes an order by its ID.
+     *
+     * @param id The ID of the order to be deleted.
+     * @throws ResourceNotFoundException if the order does not exist.
+     */
+    public Mono<Void> deleteOrder(Long id) {
+        return deleteOrder(id, null);
+    }
+
+    /**
+     * Deletes an order with a single DELETE, without reading it first.
+     *
+     * @param id      The ID of the order to be deleted.
+     * @param version The version the order must have, or null for any version.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public Mono<Void> deleteOrder(Long id, Long version) {
+        logger.info("Deleting order with ID: {}", id);
+        return orderRepository.delete(id, version)
+                .flatMap(deleted -> deleted == 0 ? notChanged("delete", id, version) : orderChanges.changed(id))
+                .as(transactionalOperator::transactional)
+                .then();
+    }
+
+    // only read once a statement changed nothing, to tell the caller why
+    private <T> Mono<T> notChanged(String action, Long id, Long version) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        "Cannot " + action + ": Order not found with id: " + id)))
+                .flatMap(current -> {
+                    logger.error("Cannot {}: Order {} is at version {}, not {}", action, id, current.getVersion(),
+                            version);
+                    return Mono.error(new PreconditionFailedException(
+                            "Cannot " + action + ": Order " + id + " has been modified"));
+                });
+    }
+
+    /**
+     * Deletes all orders associated with a given customer.
+     *
+     * @param customerId The ID of the customer whose orders should be deleted.
+     */
+    public Mono<Void> deleteAllOrders(Long customerId) {
+        logger.info("Deleting all orders for customerId: {}", customerId);
+        return orderRepository.deleteByCustomerId(customerId)
+                .doOnNext(deleted -> logger.info("Deleted {} orders for customerId: {}", deleted, customerId))
+                .then(orderChanges.deletedCustomer(customerId))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Retrieves the orders within a specified date range.
+     *
+     * @param startDate The start date of the range.
+     * @param endDate   The end date of the range.
+     * @return The orders created within the specified date range.
+     */
+    public Flux<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        logger.info("Fetching orders between {} and {}", startDate, endDate);
+        return orderRepository.findByCreatedAtBetween(startDate, endDate);
+    }
+
+    /**
+     * Retrieves the orders sorted by creation date.
+     *
+     * @param sortDirection The sorting direction, either "asc" for ascending or
+     *                      "desc" for descending.
+     * @return The orders sorted by their creation date.
+     */
+    public Flux<Order> getOrdersSorted(String sortDirection) {
+        logger.info("Fetching orders sorted by creation date in {} order", sortDirection);
+        return "asc".equalsIgnoreCase(sortDirection)
+                ? orderRepository.findAllByCreatedAtAsc()
+                : orderRepository.findAllByCreatedAtDesc();
+    }
+}
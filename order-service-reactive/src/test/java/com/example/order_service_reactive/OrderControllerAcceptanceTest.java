@@ -0,0 +1,236 @@
+package com.example.order_service_reactive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.repository.OrderRepository;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The blocking order-service's acceptance tests, plus the endpoints that
+ * validate the customer, against a stub customer-service that knows
+ * customers 1 to 9.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+public class OrderControllerAcceptanceTest {
+
+        private static final HttpServer customerService = startCustomerService();
+
+        @Autowired
+        private WebTestClient webTestClient;
+
+        @Autowired
+        private OrderRepository orderRepository;
+
+        @Autowired
+        private DatabaseClient databaseClient;
+
+        @DynamicPropertySource
+        static void customerServiceInstance(DynamicPropertyRegistry registry) {
+                registry.add("spring.cloud.discovery.client.simple.instances.customer-service[0].uri",
+                                () -> "http://localhost:" + customerService.getAddress().getPort());
+        }
+
+        @AfterAll
+        static void stopCustomerService() {
+                customerService.stop(0);
+        }
+
+        @BeforeEach
+        void setUp() {
+                orderRepository.deleteAll().block(); // Clear orders before each test
+        }
+
+        @Test
+        void createOrder_ShouldReturnCreatedOrder() {
+                // Given
+                Map<String, Object> orderRequest = Map.of("customerId", 1, "product", "Test Product", "quantity", 2);
+
+                // When & Then
+                webTestClient.post().uri("/api/orders")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(orderRequest)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.id").exists()
+                                .jsonPath("$.quantity").isEqualTo(2);
+                assertEquals(1, orderRepository.count().block());
+        }
+
+        @Test
+        void createOrder_WhenCustomerDoesNotExist_ShouldReturnNotFound() {
+                // Given
+                Map<String, Object> orderRequest = Map.of("customerId", 404, "product", "Test Product", "quantity", 2);
+
+                // When & Then
+                webTestClient.post().uri("/api/orders")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(orderRequest)
+                                .exchange()
+                                .expectStatus().isNotFound();
+                assertEquals(0, orderRepository.count().block());
+        }
+
+        @Test
+        void getAllOrders_ShouldReturnPagedOrders() {
+                // Given
+                orderRepository.save(new Order(null, 2L, "Product 1", 1, LocalDateTime.now())).block();
+                orderRepository.save(new Order(null, 2L, "Product 2", 2, LocalDateTime.now())).block();
+                orderRepository.save(new Order(null, 3L, "Product 3", 3, LocalDateTime.now())).block();
+
+                // When & Then
+                webTestClient.get().uri("/api/orders/customer/{customerId}?page=0&size=1", 2)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$._embedded.orderDTOList.length()").isEqualTo(1)
+                                .jsonPath("$._links.next.href").exists()
+                                .jsonPath("$.page.totalElements").isEqualTo(2);
+        }
+
+        @Test
+        void getOrder_ShouldReturnOrderDetails() {
+                // Given
+                Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now())).block();
+
+                // When & Then
+                webTestClient.get().uri("/api/orders/{id}", order.getId())
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.id").isEqualTo(order.getId())
+                                .jsonPath("$.quantity").isEqualTo(1)
+                                .jsonPath("$._links.self.href").exists()
+                                .jsonPath("$._links.customer.href").isEqualTo("http://customer-service/api/customers/1");
+        }
+
+        @Test
+        void deleteOrder_ShouldReturnSuccessMessage() {
+                // Given
+                Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now())).block();
+
+                // When & Then
+                webTestClient.delete().uri("/api/orders/{id}", order.getId())
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody(String.class).isEqualTo("Order deleted successfully");
+                webTestClient.delete().uri("/api/orders/{id}", order.getId())
+                                .exchange()
+                                .expectStatus().isNotFound();
+                // order-service drops it from its caches
+                assertEquals(1, databaseClient.sql("SELECT COUNT(*) FROM order_changes WHERE order_id = :id")
+                                .bind("id", order.getId())
+                                .map(row -> row.get(0, Long.class))
+                                .one().block());
+        }
+
+        @Test
+        void updateOrder_WithStaleETag_ShouldReturnPreconditionFailed() {
+                // Given
+                Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now())).block();
+                String etag = webTestClient.get().uri("/api/orders/{id}", order.getId())
+                                .exchange()
+                                .expectStatus().isOk()
+                                .returnResult(String.class).getResponseHeaders().getETag();
+                Map<String, Object> update = Map.of("id", order.getId(), "customerId", 1, "product", "Other Product",
+                                "quantity", 3);
+                // as stored, which is less precise than the clock
+                LocalDateTime createdAt = orderRepository.findById(order.getId()).block().getCreatedAt();
+
+                // When & Then
+                webTestClient.put().uri("/api/orders")
+                                .header(HttpHeaders.IF_MATCH, etag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(update)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                                .expectBody()
+                                .jsonPath("$.createdAt").value((String returned) -> assertEquals(createdAt,
+                                                LocalDateTime.parse(returned)));
+                webTestClient.patch().uri("/api/orders/{id}", order.getId())
+                                .header(HttpHeaders.IF_MATCH, etag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of("quantity", 4))
+                                .exchange()
+                                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+                assertEquals(3, orderRepository.findById(order.getId()).block().getQuantity());
+                assertEquals(1L, orderRepository.findById(order.getId()).block().getVersion());
+        }
+
+        @Test
+        void getOrdersByDateRange_ShouldReturnOrders() {
+                // Given
+                String startDate = "2025-01-01T00:00:00";
+                String endDate = "2025-12-31T23:59:59";
+
+                // When & Then
+                webTestClient.get().uri("/api/orders/bydate?startDate={startDate}&endDate={endDate}", startDate, endDate)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$").isArray();
+        }
+
+        @Test
+        void getOrdersSorted_ShouldReturnSortedOrders() {
+                // Given
+                String sortDirection = "asc";
+
+                // When & Then
+                webTestClient.get().uri("/api/orders/sorted?sortDirection={sortDirection}", sortDirection)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$").isArray();
+        }
+
+        private static HttpServer startCustomerService() {
+                try {
+                        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                        server.createContext("/api/customers/", exchange -> {
+                                String path = exchange.getRequestURI().getPath();
+                                long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+                                if (id > 9) {
+                                        exchange.sendResponseHeaders(404, -1);
+                                        exchange.close();
+                                        return;
+                                }
+                                byte[] body = ("{\"id\":" + id + ",\"name\":\"Customer " + id + "\"}")
+                                                .getBytes(StandardCharsets.UTF_8);
+                                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                                exchange.sendResponseHeaders(200, body.length);
+                                exchange.getResponseBody().write(body);
+                                exchange.close();
+                        });
+                        server.start();
+                        return server;
+                } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                }
+        }
+}
@@ -0,0 +1,166 @@
+package com.example.order_service_reactive;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.example.order_service_reactive.client.CustomerClient;
+import com.example.order_service_reactive.exception.BadRequestException;
+import com.example.order_service_reactive.exception.PreconditionFailedException;
+import com.example.order_service_reactive.exception.ResourceNotFoundException;
+import com.example.order_service_reactive.model.Customer;
+import com.example.order_service_reactive.model.Order;
+import com.example.order_service_reactive.repository.OrderRepository;
+import com.example.order_service_reactive.service.OrderChanges;
+import com.example.order_service_reactive.service.OrderService;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceUnitTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CustomerClient customerClient;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private OrderChanges orderChanges;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private Order testOrder;
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        testDateTime = LocalDateTime.now();
+
+        testOrder = new Order();
+        testOrder.setId(1L);
+        testOrder.setCustomerId(1L);
+        testOrder.setProduct("Test Product");
+        testOrder.setQuantity(2);
+        testOrder.setCreatedAt(testDateTime);
+    }
+
+    @Test
+    void createOrder_WithValidOrder_ShouldReturnSavedOrder() {
+        // Given
+        when(customerClient.getCustomer(1L)).thenReturn(Mono.just(new Customer()));
+        when(orderRepository.save(testOrder)).thenReturn(Mono.just(testOrder));
+
+        // When & Then
+        StepVerifier.create(orderService.createOrder(testOrder))
+                .expectNext(testOrder)
+                .verifyComplete();
+    }
+
+    @Test
+    void createOrder_WithInvalidQuantity_ShouldFailWithoutCallingCustomerService() {
+        // Given
+        testOrder.setQuantity(0);
+
+        // When & Then
+        StepVerifier.create(orderService.createOrder(testOrder))
+                .expectError(BadRequestException.class)
+                .verify();
+        verifyNoInteractions(customerClient, orderRepository);
+    }
+
+    @Test
+    void createOrder_WhenCustomerDoesNotExist_ShouldNotSave() {
+        // Given
+        when(customerClient.getCustomer(1L)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(orderService.createOrder(testOrder))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void updateOrder_ShouldUpdateWithoutReadingTheOrder() {
+        // Given
+        Order update = new Order(1L, 1L, "Other Product", 5, testDateTime.plusDays(1));
+        when(orderRepository.update(1L, 3L, 1L, "Other Product", 5)).thenReturn(Mono.just(1));
+        when(orderRepository.findCreatedAtById(1L)).thenReturn(Mono.just(testDateTime));
+        when(orderChanges.changed(1L)).thenReturn(Mono.empty());
+        inTransaction();
+
+        // When & Then
+        StepVerifier.create(orderService.updateOrder(update, 3L))
+                .assertNext(updated -> {
+                    // the stored creation date, not the client's
+                    assertEquals(testDateTime, updated.getCreatedAt());
+                    assertEquals(4L, updated.getVersion());
+                })
+                .verifyComplete();
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderChanges).changed(1L);
+    }
+
+    @Test
+    void updateOrder_WithStaleVersion_ShouldThrowPreconditionFailedException() {
+        // Given
+        testOrder.setVersion(4L);
+        when(orderRepository.update(1L, 3L, 1L, "Test Product", 2)).thenReturn(Mono.just(0));
+        when(orderRepository.findById(1L)).thenReturn(Mono.just(testOrder));
+        inTransaction();
+
+        // When & Then
+        StepVerifier.create(orderService.updateOrder(testOrder, 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteOrder_WhenOrderDoesNotExist_ShouldThrowException() {
+        // Given
+        when(orderRepository.delete(1L, null)).thenReturn(Mono.just(0));
+        when(orderRepository.findById(1L)).thenReturn(Mono.empty());
+        inTransaction();
+
+        // When & Then
+        StepVerifier.create(orderService.deleteOrder(1L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(orderChanges, never()).changed(anyLong());
+    }
+
+    @Test
+    void deleteOrder_ShouldRecordTheChange() {
+        // Given
+        when(orderRepository.delete(1L, 3L)).thenReturn(Mono.just(1));
+        when(orderChanges.changed(1L)).thenReturn(Mono.empty());
+        inTransaction();
+
+        // When & Then
+        StepVerifier.create(orderService.deleteOrder(1L, 3L))
+                .verifyComplete();
+        verify(orderChanges).changed(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void inTransaction() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.order_service_reactive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Drives order-service-reactive with the same load as the blocking
+ * order-service's VirtualThreadBenchmark: many concurrent clients against a
+ * stub customer-service that answers after a fixed delay, half of them
+ * creating an order and half listing a customer's orders. Run both with the
+ * same settings to compare the variants; besides throughput and latency this
+ * reports how many threads the JVM needed. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReactiveBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1000);
+    private static final Duration DOWNSTREAM_DELAY = Duration.ofMillis(Long.getLong("benchmark.delay-ms", 10_000));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 60));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.seconds", 60));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private HttpServer customerService;
+
+    @BeforeAll
+    void startCustomerService() throws IOException {
+        // the stub closes idle connections above 200 by default, which pooled clients then reuse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(CLIENTS));
+        customerService = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        customerService.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        customerService.createContext("/api/customers/", exchange -> {
+            try {
+                Thread.sleep(DOWNSTREAM_DELAY);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            String path = exchange.getRequestURI().getPath();
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            byte[] body = ("{\"id\":" + id + ",\"name\":\"Customer " + id + "\",\"email\":\"customer" + id
+                    + "@example.com\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        customerService.start();
+    }
+
+    @AfterAll
+    void stopCustomerService() {
+        customerService.stop(0);
+    }
+
+    @Test
+    void reactive() throws Exception {
+        // Given
+        try (ConfigurableApplicationContext context = start()) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+
+            // When
+            load(port, WARMUP);
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            Result result = load(port, MEASUREMENT);
+            int threads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+
+            // Then
+            assertTrue(result.latencies().size() > 0, "no request succeeded");
+            Collections.sort(result.latencies());
+            System.out.printf("%nreactive: %d clients, downstream delay %d ms, %d s%n", CLIENTS,
+                    DOWNSTREAM_DELAY.toMillis(), MEASUREMENT.toSeconds());
+            System.out.printf("throughput %.0f req/s, latency p50 %.1f ms, p99 %.1f ms, errors %d%n",
+                    result.latencies().size() / (double) MEASUREMENT.toSeconds(),
+                    percentile(result.latencies(), 0.50), percentile(result.latencies(), 0.99), result.errors());
+            System.out.printf("peak platform threads in the JVM: %d%n", threads);
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceReactiveApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.customer-service[0].uri=http://localhost:"
+                        + customerService.getAddress().getPort(),
+                "--spring.r2dbc.url=r2dbc:h2:mem:///benchmark;DB_CLOSE_DELAY=-1",
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    private Result load(int port, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                futures.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    long errors = 0;
+                    for (long i = 0; System.nanoTime() < deadline; i++) {
+                        long customerId = ThreadLocalRandom.current().nextLong(1, 101);
+                        long start = System.nanoTime();
+                        try {
+                            int status = http.send(request(port, customerId, i % 2 == 0),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                            long end = System.nanoTime();
+                            if (end > deadline) {
+                                // requests still queued at the deadline would inflate the throughput
+                                break;
+                            }
+                            if (status == 200) {
+                                latencies.add(end - start);
+                            } else {
+                                errors++;
+                            }
+                        } catch (IOException ex) {
+                            errors++;
+                        }
+                    }
+                    return new Result(latencies, errors);
+                }));
+            }
+        }
+        List<Long> latencies = new ArrayList<>();
+        long errors = 0;
+        for (Future<Result> future : futures) {
+            latencies.addAll(future.get().latencies());
+            errors += future.get().errors();
+        }
+        return new Result(latencies, errors);
+    }
+
+    private static HttpRequest request(int port, long customerId, boolean create) {
+        if (create) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"customerId\":" + customerId + ",\"product\":\"Widget\",\"quantity\":1}"))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/customer/" + customerId
+                + "?page=0&size=5")).build();
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1e6;
+    }
+
+    private record Result(List<Long> latencies, long errors) {
+    }
+}
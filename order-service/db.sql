@@ -7,16 +7,63 @@ CREATE TABLE customers (
     email VARCHAR(255) UNIQUE NOT NULL,
     address TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    total_orders INT DEFAULT 0
+    total_orders INT DEFAULT 0,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
+-- Partitioned by month of created_at, so date-range queries only read the
+-- partitions of the months they cover. The partition key has to be part of
+-- the primary key, and partitioned tables cannot have foreign keys: deleting
+-- a customer deletes their orders through the order service instead.
+-- New months are added ahead of time by the order service when
+-- order-partitions.enabled is set; the last partition catches the rest.
+-- The primary key only makes (id, created_at) unique, not id alone. The
+-- order service assigns every ID with its time-ordered ID generator, which
+-- is unique as long as every instance has its own
+-- id_generator.worker_id, and AUTO_INCREMENT only numbers the rows below;
+-- orders must not be inserted with IDs from anywhere else. The archive keys
+-- on id alone, so archiving a duplicate would fail.
 CREATE TABLE orders (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     customer_id BIGINT NOT NULL,
     product VARCHAR(255) NOT NULL,
     quantity INT NOT NULL,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id, created_at),
+    INDEX idx_orders_created_at (created_at)
+)
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p202502 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p202503 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p202504 VALUES LESS THAN ('2025-05-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Orders older than order-archive.max-age, moved here by the order service
+CREATE TABLE orders_archive (
+    id BIGINT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    product VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,
+    created_at DATETIME NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_orders_archive_customer_id (customer_id)
+);
+
+-- Updates and deletes of orders, recorded by order-service and
+-- order-service-reactive when order-changes.enabled is set and read by every
+-- order-service instance, so their caches drop what the others changed. order_id is null when all orders of
+-- customer_id were deleted. Rows older than order-changes.retention are
+-- deleted by the readers.
+CREATE TABLE order_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT,
+    customer_id BIGINT,
+    source VARCHAR(36) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    INDEX idx_order_changes_changed_at (changed_at)
 );
 
 INSERT INTO customers (id, name, email, address, created_at, total_orders) VALUES
@@ -0,0 +1,158 @@
+package com.example.order_service.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.model.Customer;
+
+/**
+ * Bounded store of the last good customer-service response per customer.
+ *
+ * Used as a stale-while-revalidate fallback: when the customer-service circuit
+ * is open, the last known customer is served instead of failing the request.
+ * Entries served stale are remembered so they can be revalidated once the
+ * circuit lets calls through again.
+ *
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized}, so a
+ * virtual thread waiting for it unmounts instead of pinning its carrier.
+ */
+@Component
+public class CustomerResponseCache {
+
+    private volatile int maxEntries;
+    private volatile Duration maxStale;
+    private final Map<Long, CachedCustomer> entries;
+    private final Set<Long> staleKeys = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CustomerResponseCache(
+            @Value("${stale-cache.customers.max-entries:10000}") int maxEntries,
+            @Value("${stale-cache.customers.max-stale:10m}") Duration maxStale) {
+        this.maxEntries = maxEntries;
+        this.maxStale = maxStale;
+        // access-ordered so the least recently used customer is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedCustomer> eldest) {
+                if (size() > CustomerResponseCache.this.maxEntries) {
+                    staleKeys.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Stores a fresh customer response.
+     *
+     * @param customerId The ID of the customer.
+     * @param customer   The customer returned by customer-service.
+     */
+    public void put(Long customerId, Customer customer) {
+        if (customerId == null || customer == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.put(customerId, new CachedCustomer(customer, Instant.now()));
+            staleKeys.remove(customerId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the last known customer to serve as a stale response, and marks it
+     * for background revalidation.
+     *
+     * @param customerId The ID of the customer.
+     * @return The cached customer, or empty if there is none or it is older than
+     *         the configured max staleness.
+     */
+    public Optional<CachedCustomer> getStale(Long customerId) {
+        lock.lock();
+        try {
+            CachedCustomer cached = entries.get(customerId);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            if (cached.age().compareTo(maxStale) > 0) {
+                entries.remove(customerId);
+                staleKeys.remove(customerId);
+                return Optional.empty();
+            }
+            staleKeys.add(customerId);
+            return Optional.of(cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies new limits, evicting the least recently used customers if the
+     * store is now over capacity.
+     *
+     * @param maxEntries The maximum number of customers to keep.
+     * @param maxStale   The maximum age of a customer served stale.
+     */
+    public void resize(int maxEntries, Duration maxStale) {
+        lock.lock();
+        try {
+            this.maxEntries = maxEntries;
+            this.maxStale = maxStale;
+            Iterator<Long> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                staleKeys.remove(eldest.next());
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(Long customerId) {
+        lock.lock();
+        try {
+            entries.remove(customerId);
+            staleKeys.remove(customerId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The IDs of customers that were served stale and still need
+     *         revalidating.
+     */
+    public List<Long> getStaleKeys() {
+        return List.copyOf(staleKeys);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record CachedCustomer(Customer customer, Instant fetchedAt) {
+
+        public Duration age() {
+            return Duration.between(fetchedAt, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.order_service.cache;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Refreshes customers that were served stale as soon as the customer-service
+ * circuit goes half-open (and again once it closes), so the stale store
+ * converges back to fresh data in the background instead of on the request
+ * path.
+ */
+@Component
+public class CustomerRevalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerRevalidator.class);
+
+    static final String CIRCUIT_BREAKER_NAME = "orderServiceCB";
+
+    private final CustomerResponseCache customerResponseCache;
+    private final CustomerClient customerClient;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "customer-revalidator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CustomerRevalidator(CustomerResponseCache customerResponseCache, CustomerClient customerClient,
+            CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.customerResponseCache = customerResponseCache;
+        this.customerClient = customerClient;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        subscribe(circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME));
+        // the circuit breaker is replaced when its config is refreshed
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if (CIRCUIT_BREAKER_NAME.equals(event.getNewEntry().getName())) {
+                subscribe(event.getNewEntry());
+            }
+        });
+    }
+
+    private void subscribe(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State toState = event.getStateTransition().getToState();
+            if (toState == CircuitBreaker.State.HALF_OPEN || toState == CircuitBreaker.State.CLOSED) {
+                executor.submit(this::revalidate);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Re-fetches every customer that was served stale. Calls go through the
+     * circuit breaker, so while half-open only the permitted trial calls are
+     * made; the rest are picked up when the circuit closes.
+     */
+    void revalidate() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        for (Long customerId : customerResponseCache.getStaleKeys()) {
+            try {
+                ResponseEntity<Customer> response = circuitBreaker.executeSupplier(
+                        () -> customerClient.getCustomer(customerId));
+                customerResponseCache.put(customerId, response.getBody());
+                logger.info("Revalidated stale customer with ID: {}", customerId);
+            } catch (HttpClientErrorException.NotFound ex) {
+                customerResponseCache.evict(customerId);
+                logger.info("Stale customer with ID {} no longer exists, evicted", customerId);
+            } catch (CallNotPermittedException ex) {
+                logger.debug("Circuit not accepting calls, pausing revalidation");
+                return;
+            } catch (Exception ex) {
+                logger.warn("Revalidation of customer {} failed: {}", customerId, ex.getMessage());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.order_service.cache;
+
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.order_service.model.Order;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Drops a single order from the second-level cache once a single-statement
+ * update or delete of it has committed, leaving the other cached orders in
+ * place. Called inside a transaction, it waits for that to commit.
+ *
+ * The statements are synchronized on a query space no entity maps to, so
+ * Hibernate does not record a change to the orders table itself. This records
+ * it after the commit instead: a cached query result over orders is only
+ * served if its query started after the last recorded change, so one that
+ * read the old row and was stored after the eviction is not. That also covers
+ * the sorted query region, without evicting it.
+ *
+ * Like any invalidation in the cache, this only reaches this process; other
+ * instances see the change when their entry's ttl ends, or through the
+ * {@link OrderChangeFeed}.
+ */
+@Component
+public class OrderCacheEviction {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OrderCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @param id The ID of the order that was updated or deleted.
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCommitted(id);
+                }
+            });
+        } else {
+            evictCommitted(id);
+        }
+    }
+
+    /**
+     * Drops all orders from the second-level cache, for changes to orders
+     * whose IDs are not known.
+     */
+    public void evictAll() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getCache().evictEntityData(Order.class);
+        invalidateQueries(sessionFactory);
+    }
+
+    private void evictCommitted(Long id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getCache().evictEntityData(Order.class, id);
+        invalidateQueries(sessionFactory);
+    }
+
+    private static void invalidateQueries(SessionFactoryImplementor sessionFactory) {
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+        // null when the second-level cache is off
+        if (timestamps != null) {
+            String[] spaces = sessionFactory.getMappingMetamodel().getEntityDescriptor(Order.class)
+                    .getSynchronizedQuerySpaces();
+            // takes no connection, the session is only needed for statistics
+            try (SessionImplementor session = sessionFactory.openSession()) {
+                timestamps.invalidate(spaces, session);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.order_service.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.datasource.Shards;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies the order updates and deletes made by other writers of the orders
+ * table, the other order-service instances and order-service-reactive, to
+ * this instance's second-level cache and {@link RecentOrderIndex}. The
+ * writers record every change in the order_changes table of the first shard,
+ * see db.sql; every {@code order-changes.poll-interval} this reads the
+ * changes recorded since the last poll, less {@code overlap} for changes
+ * committed late or stamped by a slower clock, skipping its own and those
+ * already applied.
+ *
+ * This instance records its changes right after they commit, so if it stops
+ * in between, the others only see the change when their cache entry expires
+ * and their index reloads.
+ *
+ * A changed order is evicted from the cache and read again into the index; a
+ * customer whose orders were deleted takes all orders out of the cache, and
+ * theirs out of the index. Changes older than {@code retention} are deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "order-changes.enabled", havingValue = "true")
+public class OrderChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderChangeFeed.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderCacheEviction orderCacheEviction;
+    private final ObjectProvider<RecentOrderIndex> recentOrders;
+    private final Duration pollInterval;
+    private final Duration overlap;
+    private final Duration retention;
+    // tells this instance's changes apart from the others'
+    private final String source = UUID.randomUUID().toString();
+    private volatile LocalDateTime polledTo = LocalDateTime.now();
+    // the changes applied within the overlap, by ID, with when they were
+    // made; guarded by polling
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+    private final ReentrantLock polling = new ReentrantLock();
+    private ScheduledExecutorService poller;
+
+    public OrderChangeFeed(JdbcTemplate jdbcTemplate, Shards shards, PlatformTransactionManager transactionManager,
+            OrderCacheEviction orderCacheEviction, ObjectProvider<RecentOrderIndex> recentOrders,
+            @Value("${order-changes.poll-interval:1s}") Duration pollInterval,
+            @Value("${order-changes.overlap:30s}") Duration overlap,
+            @Value("${order-changes.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderCacheEviction = orderCacheEviction;
+        this.recentOrders = recentOrders;
+        this.pollInterval = pollInterval;
+        this.overlap = overlap;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-changes").daemon().factory());
+        poller.scheduleWithFixedDelay(this::run, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        poller.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            logger.error("Could not read the order changes", ex);
+        }
+    }
+
+    /**
+     * Applies the changes the other writers recorded since the last poll.
+     *
+     * @return The number of orders and customers whose changes were applied.
+     */
+    public int poll() {
+        polling.lock();
+        try {
+            return pollChanges();
+        } finally {
+            polling.unlock();
+        }
+    }
+
+    private int pollChanges() {
+        LocalDateTime started = LocalDateTime.now();
+        // a read-write transaction reads the primary, where the changes are
+        List<Change> changes = shards.on(0, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM order_changes WHERE changed_at < ?", started.minus(retention));
+            return jdbcTemplate.query(
+                    "SELECT id, order_id, customer_id, changed_at FROM order_changes "
+                            + "WHERE changed_at >= ? AND source <> ?",
+                    (row, rowNum) -> new Change(row.getLong("id"), row.getObject("order_id", Long.class),
+                            row.getObject("customer_id", Long.class),
+                            row.getObject("changed_at", LocalDateTime.class)),
+                    polledTo, source);
+        }));
+        polledTo = started.minus(overlap);
+        applied.values().removeIf(changedAt -> changedAt.isBefore(polledTo));
+        Set<Long> orders = new LinkedHashSet<>();
+        Set<Long> customers = new LinkedHashSet<>();
+        for (Change change : changes) {
+            if (applied.putIfAbsent(change.id(), change.changedAt()) != null) {
+                continue;
+            }
+            if (change.orderId() != null) {
+                orders.add(change.orderId());
+            } else {
+                customers.add(change.customerId());
+            }
+        }
+        for (Long id : orders) {
+            orderCacheEviction.evict(id);
+            recentOrders.ifAvailable(index -> index.refresh(id));
+        }
+        if (!customers.isEmpty()) {
+            orderCacheEviction.evictAll();
+            recentOrders.ifAvailable(index -> customers.forEach(index::deletedCustomer));
+        }
+        return orders.size() + customers.size();
+    }
+
+    /**
+     * Records an update or delete of an order made by this instance.
+     */
+    public void changed(Long orderId) {
+        record(orderId, null);
+    }
+
+    /**
+     * Records that this instance deleted the orders of a customer.
+     */
+    public void deletedCustomer(Long customerId) {
+        record(null, customerId);
+    }
+
+    private void record(Long orderId, Long customerId) {
+        shards.on(0, () -> jdbcTemplate.update(
+                "INSERT INTO order_changes (order_id, customer_id, source, changed_at) VALUES (?, ?, ?, ?)",
+                orderId, customerId, source, LocalDateTime.now()));
+    }
+
+    private record Change(Long id, Long orderId, Long customerId, LocalDateTime changedAt) {
+    }
+}
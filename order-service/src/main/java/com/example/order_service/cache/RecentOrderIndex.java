@@ -0,0 +1,476 @@
+package com.example.order_service.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The orders created within {@code recent-orders.retention}, kept in memory in
+ * a concurrent skip list ordered by creation date and ID, so the newest orders
+ * and recent date ranges are answered without a query. A question the index
+ * cannot answer completely, such as a range that starts before its window,
+ * gets an empty answer and goes to the database.
+ *
+ * The index holds at most {@code max-size} orders; past that the oldest are
+ * dropped and the window starts later, so a busy week cannot fill the heap.
+ *
+ * The window is loaded from the database at startup, off the startup thread.
+ * Every {@code refresh-interval} it catches up with the orders created since
+ * the last read, less {@code catch-up-overlap} for inserts committed late or
+ * stamped by a slower clock, and drops the orders that fell out of it. Every
+ * {@code full-reload-interval} it is loaded again in full instead. Writes
+ * made through this instance are applied right away, and replayed onto a read
+ * that was running when they happened. Orders created elsewhere, by other
+ * instances or in SQL, show up with the next catch-up; their updates and
+ * deletes with the next poll of the {@link OrderChangeFeed}, where
+ * order-service and order-service-reactive record them with
+ * {@code order-changes.enabled}, and otherwise, for plain SQL for example,
+ * with the next full reload.
+ *
+ * Reads take no lock. Writes are serialised by a {@link ReentrantLock} rather
+ * than {@code synchronized}, so a virtual thread waiting for it unmounts
+ * instead of pinning its carrier.
+ */
+@Component
+@ConditionalOnProperty(name = "recent-orders.enabled", havingValue = "true")
+public class RecentOrderIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentOrderIndex.class);
+
+    private final OrderRepository orderRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int maxSize;
+    private final Duration refreshInterval;
+    private final Duration fullReloadInterval;
+    private final Duration catchUpOverlap;
+    private final Counter hits;
+    private final Counter misses;
+    private final ReentrantLock lock = new ReentrantLock();
+    // one reload or catch-up at a time, the importer reloads too
+    private final ReentrantLock reading = new ReentrantLock();
+    // null until the first load
+    private volatile Window window;
+    // the writes made while a reload runs, guarded by lock
+    private List<Consumer<Window>> replay;
+    // where the next catch-up reads from, and when the last full reload ran
+    private volatile LocalDateTime caughtUpTo;
+    private volatile long reloadedAt;
+    private ScheduledExecutorService reloader;
+
+    public RecentOrderIndex(OrderRepository orderRepository, Shards shards,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${recent-orders.retention:7d}") Duration retention,
+            @Value("${recent-orders.max-size:100000}") int maxSize,
+            @Value("${recent-orders.refresh-interval:5s}") Duration refreshInterval,
+            @Value("${recent-orders.full-reload-interval:10m}") Duration fullReloadInterval,
+            @Value("${recent-orders.catch-up-overlap:30s}") Duration catchUpOverlap) {
+        this.orderRepository = orderRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.maxSize = maxSize;
+        this.refreshInterval = refreshInterval;
+        this.fullReloadInterval = fullReloadInterval;
+        this.catchUpOverlap = catchUpOverlap;
+        this.hits = Counter.builder("orders.recent-index.requests")
+                .description("Order queries answered by the recent order index, or passed to the database")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("orders.recent-index.requests")
+                .description("Order queries answered by the recent order index, or passed to the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("orders.recent-index.orders", this, index -> index.window == null ? 0 : index.window.keys.size())
+                .description("Orders in the recent order index")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        reloader = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("recent-orders-reload").daemon().factory());
+        reloader.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        reloader.shutdownNow();
+    }
+
+    private void refresh() {
+        if (window == null || System.nanoTime() - reloadedAt >= fullReloadInterval.toNanos()) {
+            reload();
+        } else {
+            catchUp();
+        }
+    }
+
+    /**
+     * Replaces the window with the newest {@code max-size} orders of the last
+     * {@code retention} from the database, plus the writes made while they
+     * were read.
+     */
+    public void reload() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime from = started.minus(retention);
+        Window loaded = new Window(from, maxSize);
+        reading.lock();
+        try {
+            List<List<Order>> read = read(from);
+            if (read == null) {
+                return;
+            }
+            lock.lock();
+            try {
+                read.forEach(orders -> orders.forEach(loaded::put));
+                replay.forEach(write -> write.accept(loaded));
+                replay = null;
+                window = loaded;
+            } finally {
+                lock.unlock();
+            }
+            caughtUpTo = started.minus(catchUpOverlap);
+            reloadedAt = System.nanoTime();
+        } finally {
+            reading.unlock();
+        }
+        logger.info("Recent order index loaded with {} orders since {}", loaded.keys.size(), loaded.from);
+    }
+
+    /**
+     * Adds the orders created since the last read to the window, and drops
+     * the ones older than {@code retention}. Falls back to a full reload when
+     * there is no window yet, or when more than {@code max-size} orders were
+     * created since.
+     */
+    public void catchUp() {
+        Window current = window;
+        if (current == null) {
+            reload();
+            return;
+        }
+        reading.lock();
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            List<List<Order>> read = read(caughtUpTo);
+            if (read == null) {
+                return;
+            }
+            if (read.stream().anyMatch(orders -> orders.size() >= maxSize)) {
+                // the orders between the window and what was read are missing
+                endReplay();
+                reload();
+                return;
+            }
+            lock.lock();
+            try {
+                read.forEach(orders -> orders.forEach(current::put));
+                // the writes were applied already, but may be older than what was read
+                replay.forEach(write -> write.accept(current));
+                replay = null;
+                current.dropBefore(started.minus(retention));
+            } finally {
+                lock.unlock();
+            }
+            caughtUpTo = started.minus(catchUpOverlap);
+        } finally {
+            reading.unlock();
+        }
+    }
+
+    /**
+     * Reads the newest orders created since {@code from} from every shard,
+     * recording the writes made meanwhile for replay.
+     *
+     * @return The orders of each shard, or null if they could not be read.
+     */
+    private List<List<Order>> read(LocalDateTime from) {
+        lock.lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            // a read-write transaction reads the primary, so orders written
+            // just before the read are not lost to replica lag
+            return shards.onEach(() -> transactionTemplate
+                    .execute(status -> orderRepository.findNewestSince(from, Limit.of(maxSize))));
+        } catch (RuntimeException ex) {
+            logger.error("Could not read the recent orders, keeping the current index", ex);
+            endReplay();
+            return null;
+        }
+    }
+
+    private void endReplay() {
+        lock.lock();
+        try {
+            replay = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param limit The number of orders.
+     * @return The newest orders, newest first; empty unless the index holds at
+     *         least {@code limit} orders.
+     */
+    public Optional<List<Order>> newest(int limit) {
+        Window current = window;
+        if (current != null) {
+            List<Order> orders = new ArrayList<>(limit);
+            for (Order order : current.orders.descendingMap().values()) {
+                if (orders.size() == limit) {
+                    break;
+                }
+                orders.add(copy(order));
+            }
+            if (orders.size() == limit) {
+                hits.increment();
+                return Optional.of(orders);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * @param start The start of the range, inclusive.
+     * @param end   The end of the range, inclusive.
+     * @return The orders created in the range, oldest first; empty unless the
+     *         range starts within the window.
+     */
+    public Optional<List<Order>> between(LocalDateTime start, LocalDateTime end) {
+        Window current = window;
+        if (current == null || start.isBefore(current.from)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        List<Order> orders = end.isBefore(start) ? List.of()
+                : current.orders
+                        .subMap(new Key(start, Long.MIN_VALUE), true, new Key(end, Long.MAX_VALUE), true)
+                        .values().stream()
+                        .map(RecentOrderIndex::copy)
+                        .toList();
+        // the window may have been trimmed past the start meanwhile
+        if (start.isBefore(current.from)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(orders);
+    }
+
+    /**
+     * Adds a saved order.
+     */
+    public void created(Order order) {
+        Order indexed = copy(order);
+        write(current -> current.put(indexed));
+    }
+
+    /**
+     * Applies an update that was made without reading the order.
+     *
+     * @param id      The ID of the order.
+     * @param version The version the update required, or null for any.
+     * @param change  Applies the update to the indexed order.
+     */
+    public void updated(Long id, Long version, Consumer<Order> change) {
+        lock.lock();
+        try {
+            // the version the order has now, where it can be told
+            Long updatedVersion = version != null ? Long.valueOf(version + 1)
+                    : window != null ? window.version(id).map(current -> current + 1).orElse(null) : null;
+            write(current -> current.update(id, updatedVersion, change));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted order.
+     */
+    public void deleted(Long id) {
+        write(current -> current.remove(id));
+    }
+
+    /**
+     * Removes the orders of a customer.
+     */
+    public void deletedCustomer(Long customerId) {
+        write(current -> current.removeCustomer(customerId));
+    }
+
+    /**
+     * Reads an order that was updated or deleted elsewhere again, and applies
+     * it, or its absence.
+     */
+    public void refresh(Long id) {
+        // a read-write transaction reads the primary, as read() does
+        Optional<Order> order = shards
+                .findAny(() -> transactionTemplate.execute(status -> orderRepository.findById(id)));
+        if (order.isPresent()) {
+            Order indexed = copy(order.get());
+            write(current -> current.put(indexed));
+        } else {
+            write(current -> current.remove(id));
+        }
+    }
+
+    private void write(Consumer<Window> write) {
+        lock.lock();
+        try {
+            if (window != null) {
+                write.accept(window);
+            }
+            if (replay != null) {
+                replay.add(write);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // callers get their own copy, the indexed orders are shared by all readers
+    private static Order copy(Order order) {
+        Order copy = new Order(order.getId(), order.getCustomerId(), order.getProduct(), order.getQuantity(),
+                order.getCreatedAt());
+        copy.setVersion(order.getVersion());
+        return copy;
+    }
+
+    private record Key(LocalDateTime createdAt, Long id) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::createdAt).thenComparing(Key::id);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * The orders created since {@code from}, at most {@code maxSize} of them;
+     * {@code from} only moves forward, when old orders are dropped. An order's
+     * key never changes, as its creation date cannot be updated, so an update
+     * replaces the value under the same key and readers never miss the order.
+     */
+    private static final class Window {
+
+        volatile LocalDateTime from;
+        final int maxSize;
+        final ConcurrentNavigableMap<Key, Order> orders = new ConcurrentSkipListMap<>();
+        final Map<Long, Key> keys = new ConcurrentHashMap<>();
+
+        Window(LocalDateTime from, int maxSize) {
+            this.from = from;
+            this.maxSize = maxSize;
+        }
+
+        Optional<Long> version(Long id) {
+            Key key = keys.get(id);
+            Order order = key == null ? null : orders.get(key);
+            return Optional.ofNullable(order).map(Order::getVersion);
+        }
+
+        void put(Order order) {
+            if (order.getCreatedAt() == null || order.getCreatedAt().isBefore(from)) {
+                return;
+            }
+            // read back from the database, an indexed order's creation date
+            // may be less precise than the one it was indexed with
+            Key key = keys.get(order.getId());
+            if (key == null) {
+                key = new Key(order.getCreatedAt(), order.getId());
+            } else {
+                order.setCreatedAt(key.createdAt());
+            }
+            Order current = orders.get(key);
+            // a replayed write may be older than what was loaded
+            if (current != null && current.getVersion() > order.getVersion()) {
+                return;
+            }
+            orders.put(key, order);
+            keys.put(order.getId(), key);
+            while (keys.size() > maxSize) {
+                // orders created at the same time as the dropped one may be
+                // missing too, so the window starts just after it
+                dropBefore(orders.firstKey().createdAt().plusNanos(1));
+            }
+        }
+
+        void dropBefore(LocalDateTime start) {
+            if (!start.isAfter(from)) {
+                return;
+            }
+            from = start;
+            for (Key key : orders.headMap(new Key(start, Long.MIN_VALUE)).keySet()) {
+                orders.remove(key);
+                keys.remove(key.id());
+            }
+        }
+
+        void update(Long id, Long version, Consumer<Order> change) {
+            Key key = keys.get(id);
+            Order current = key == null ? null : orders.get(key);
+            if (current == null || (version != null && current.getVersion() >= version)) {
+                return;
+            }
+            Order updated = copy(current);
+            change.accept(updated);
+            updated.setVersion(version != null ? version : current.getVersion());
+            orders.put(key, updated);
+        }
+
+        void remove(Long id) {
+            Key key = keys.remove(id);
+            if (key != null) {
+                orders.remove(key);
+            }
+        }
+
+        void removeCustomer(Long customerId) {
+            for (Order order : orders.values()) {
+                if (customerId.equals(order.getCustomerId())) {
+                    remove(order.getId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.order_service.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.Customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Batches customer lookups: callers queue the customer ID they need and
+ * block, while one dispatcher thread collects the queue for up to
+ * {@code max-delay} or {@code max-batch} IDs and fetches them with one bulk
+ * lookup, so concurrent requests share a call to customer-service instead of
+ * making one each. Callers asking for a customer that is already being
+ * fetched wait for that lookup rather than queueing the ID again.
+ *
+ * Every caller gets its own result: a customer missing from the lookup fails
+ * only its callers with a 404, as {@link CustomerClient#getCustomer} would,
+ * and a failed lookup fails the callers of that batch alone.
+ *
+ * Callers wait at most {@code timeout}. A lookup that has not answered by
+ * then is dropped from the in-flight lookups, so later callers for the same
+ * customer start a new one instead of waiting on it as well.
+ */
+@Component
+@ConditionalOnProperty(name = "customer-batching.enabled", havingValue = "true")
+public class CustomerBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerBatchLoader.class);
+
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Map<Long, CompletableFuture<Customer>> inFlight = new ConcurrentHashMap<>();
+    private final CustomerClient customerClient;
+    private final int maxBatch;
+    private final Duration maxDelay;
+    private final Duration timeout;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+    private Thread dispatcher;
+    private ExecutorService lookups;
+
+    public CustomerBatchLoader(CustomerClient customerClient, MeterRegistry meterRegistry,
+            @Value("${customer-batching.max-batch:200}") int maxBatch,
+            @Value("${customer-batching.max-delay:2ms}") Duration maxDelay,
+            @Value("${customer-batching.timeout:5s}") Duration timeout) {
+        this.customerClient = customerClient;
+        this.maxBatch = maxBatch;
+        this.maxDelay = maxDelay;
+        this.timeout = timeout;
+        this.batchSizes = DistributionSummary.builder("customers.lookup.batch.size")
+                .description("Customers fetched per batched lookup")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        // lookups run on their own threads, so a slow one does not hold up the next batch
+        lookups = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("customer-lookup-", 0).factory());
+        dispatcher = Thread.ofPlatform().name("customer-batch-loader").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join();
+        lookups.close();
+        // fail what was queued after the last batch
+        List<Long> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        IllegalStateException ex = new IllegalStateException("Customer batch loader is shut down");
+        rest.forEach(customerId -> fail(customerId, ex));
+    }
+
+    /**
+     * Fetches a customer in the next batched lookup.
+     *
+     * @param customerId The ID of the customer.
+     * @return The customer.
+     * @throws BadRequestException               if the ID is null.
+     * @throws HttpClientErrorException.NotFound if the customer does not exist.
+     * @throws ServiceUnavailableException       if the lookup did not answer
+     *                                           within {@code timeout}.
+     */
+    public ResponseEntity<Customer> load(Long customerId) {
+        if (customerId == null) {
+            throw new BadRequestException("Customer ID cannot be null");
+        }
+        CompletableFuture<Customer> created = new CompletableFuture<>();
+        CompletableFuture<Customer> existing = inFlight.putIfAbsent(customerId, created);
+        CompletableFuture<Customer> result = existing != null ? existing : created;
+        if (existing == null) {
+            queue.add(customerId);
+            if (!running && queue.remove(customerId)) {
+                inFlight.remove(customerId, result);
+                throw new IllegalStateException("Customer batch loader is shut down");
+            }
+        }
+        try {
+            // a copy, so the timeout of one caller does not fail the others sharing the lookup
+            return ResponseEntity.ok(result.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                if (inFlight.remove(customerId, result)) {
+                    queue.remove(customerId);
+                }
+                logger.error("Customer with ID {} not looked up within {}", customerId, timeout);
+                throw new ServiceUnavailableException("Customer service is unavailable. Please try again later.");
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void run() {
+        List<Long> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < maxBatch) {
+                    Long next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                List<Long> customerIds = List.copyOf(batch);
+                lookups.execute(() -> fetch(customerIds));
+            } catch (InterruptedException ex) {
+                queue.addAll(batch);
+                return;
+            } catch (RuntimeException ex) {
+                batch.forEach(customerId -> fail(customerId, ex));
+            }
+            batch.clear();
+        }
+    }
+
+    private void fetch(List<Long> customerIds) {
+        batchSizes.record(customerIds.size());
+        Map<Long, Customer> customers;
+        try {
+            customers = customerClient.getCustomers(customerIds);
+        } catch (RuntimeException ex) {
+            logger.warn("Lookup of {} customers failed: {}", customerIds.size(), ex.getMessage());
+            customerIds.forEach(customerId -> fail(customerId, ex));
+            return;
+        }
+        for (Long customerId : customerIds) {
+            Customer customer = customers.get(customerId);
+            if (customer != null) {
+                CompletableFuture<Customer> result = inFlight.remove(customerId);
+                if (result != null) {
+                    result.complete(customer);
+                }
+            } else {
+                fail(customerId, HttpClientErrorException.create(HttpStatus.NOT_FOUND,
+                        "Customer with ID " + customerId + " not found.", HttpHeaders.EMPTY, null, null));
+            }
+        }
+    }
+
+    private void fail(Long customerId, RuntimeException ex) {
+        CompletableFuture<Customer> result = inFlight.remove(customerId);
+        if (result != null) {
+            result.completeExceptionally(ex);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.order_service.client;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.order_service.model.Customer;
+
+/**
+ * Looks up customers in customer-service. Over HTTP by default, in-process
+ * when both services run in the same JVM.
+ */
+public interface CustomerClient {
+
+    /**
+     * Fetches a customer.
+     *
+     * @param customerId The ID of the customer.
+     * @return The customer.
+     * @throws org.springframework.web.client.HttpClientErrorException.NotFound if
+     *         the customer does not exist.
+     */
+    ResponseEntity<Customer> getCustomer(Long customerId);
+
+    /**
+     * Fetches many customers at once.
+     *
+     * @param customerIds The IDs of the customers.
+     * @return The customers that exist, by ID.
+     */
+    default Map<Long, Customer> getCustomers(Collection<Long> customerIds) {
+        // one request per customer, for a customer-service without bulk lookups
+        Map<Long, Customer> customers = new HashMap<>();
+        for (Long customerId : customerIds) {
+            try {
+                customers.put(customerId, getCustomer(customerId).getBody());
+            } catch (HttpClientErrorException.NotFound ex) {
+                // left out
+            }
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.order_service.client;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.order_service.cache.CustomerResponseCache;
+import com.example.order_service.cache.CustomerResponseCache.CachedCustomer;
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.ResourceNotFoundException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.Customer;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+
+/**
+ * Validates customers against customer-service behind the orderServiceCB
+ * circuit breaker and the orderServiceRetry retry.
+ *
+ * A bean of its own, so the calls from OrderService go through the proxy that
+ * applies the annotations; a call from within OrderService would bypass them.
+ */
+@Component
+public class CustomerLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerLookup.class);
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Autowired
+    CustomerClient customerClient;
+
+    // present when customer-batching.enabled
+    @Autowired(required = false)
+    CustomerBatchLoader customerBatchLoader;
+
+    @Autowired
+    CustomerResponseCache customerResponseCache;
+
+    // circuit breaker prevents your app from calling a downstream broken service
+    // again and again.
+    @CircuitBreaker(name = "orderServiceCB", fallbackMethod = "getCustomerFallback")
+    @Retry(name = "orderServiceRetry")
+    public ResponseEntity<Customer> getCustomer(Long customerId) {
+        logger.info("Fetching customer with ID: {}", customerId);
+        ResponseEntity<Customer> response = customerBatchLoader != null
+                ? customerBatchLoader.load(customerId)
+                : customerClient.getCustomer(customerId);
+        logger.info("Customer fetched successfully: {}", response.getBody());
+        customerResponseCache.put(customerId, response.getBody());
+        return response;
+    }
+
+    // fallback method gets called when retries/circuit breaker fail.
+    // serves the last known good customer (stale-while-revalidate) if we have
+    // one, unless customer-service actually answered with a client error or the
+    // request itself was invalid
+    private ResponseEntity<Customer> getCustomerFallback(Long customerId, Throwable ex) {
+        logger.error("Fallback triggered for getCustomer with customerId: {}. Reason: {}", customerId,
+                ex.getMessage());
+        if (ex instanceof BadRequestException badRequest) {
+            throw badRequest;
+        }
+        if (ex instanceof HttpClientErrorException) {
+            customerResponseCache.evict(customerId);
+            if (ex instanceof HttpClientErrorException.NotFound) {
+                throw new ResourceNotFoundException("Customer not found with id: " + customerId);
+            }
+        } else {
+            Optional<CachedCustomer> stale = customerResponseCache.getStale(customerId);
+            if (stale.isPresent()) {
+                long ageSeconds = stale.get().age().toSeconds();
+                logger.warn("Serving stale customer with ID: {} ({}s old)", customerId, ageSeconds);
+                markResponseStale(ageSeconds);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.WARNING, STALE_WARNING)
+                        .header(HttpHeaders.AGE, String.valueOf(ageSeconds))
+                        .body(stale.get().customer());
+            }
+        }
+        throw new ServiceUnavailableException("Customer service is unavailable. Please try again later.");
+    }
+
+    // flags the response of the current request so callers can tell it was built
+    // from stale customer data
+    private void markResponseStale(long ageSeconds) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            attributes.getResponse().setHeader(HttpHeaders.WARNING, STALE_WARNING);
+            attributes.getResponse().setHeader(HttpHeaders.AGE, String.valueOf(ageSeconds));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.order_service.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.order_service.model.Customer;
+
+/**
+ * Calls customer-service through the load-balanced {@link RestTemplate}.
+ */
+@Component
+@Profile("!all-in-one")
+public class RestCustomerClient implements CustomerClient {
+
+    // well below what customer-service takes in one lookup, so the responses
+    // stay small
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+    private static final ParameterizedTypeReference<Map<Long, Customer>> CUSTOMERS_BY_ID =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestTemplate restTemplate;
+
+    public RestCustomerClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public ResponseEntity<Customer> getCustomer(Long customerId) {
+        return restTemplate.getForEntity("http://customer-service/api/customers/" + customerId, Customer.class);
+    }
+
+    @Override
+    public Map<Long, Customer> getCustomers(Collection<Long> customerIds) {
+        List<Long> ids = new ArrayList<>(customerIds);
+        Map<Long, Customer> customers = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + LOOKUP_BATCH_SIZE));
+            Map<Long, Customer> found = restTemplate.exchange("http://customer-service/api/customers/lookup",
+                    HttpMethod.POST, new HttpEntity<>(batch), CUSTOMERS_BY_ID).getBody();
+            if (found != null) {
+                customers.putAll(found);
+            }
+        }
+        return customers;
+    }
+}
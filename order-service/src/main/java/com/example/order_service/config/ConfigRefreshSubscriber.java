@@ -0,0 +1,142 @@
+package com.example.order_service.config;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Subscribes this instance to config-server's change notifications
+ * ({@code config.push.server-url}), so edits to its config files are applied
+ * through {@link ConfigRefreshController} without a restart. The subscription
+ * is a lease, renewed every {@code config.push.renew-interval}.
+ *
+ * config-server and the services share {@code config.push.secret}; set it
+ * through the environment ({@code CONFIG_PUSH_SECRET}) rather than the config
+ * files, which config-server serves to anyone who asks.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cloud.refresh.enabled", matchIfMissing = true)
+public class ConfigRefreshSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigRefreshSubscriber.class);
+
+    private final String serverUrl;
+    private final String secret;
+    private final String callbackHost;
+    private final Duration renewInterval;
+    private final String application;
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-refresh-subscriber");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile String callbackUrl;
+    private volatile boolean subscribed;
+
+    public ConfigRefreshSubscriber(@Value("${config.push.server-url:}") String serverUrl,
+            @Value("${config.push.secret:}") String secret,
+            @Value("${config.push.callback-host:localhost}") String callbackHost,
+            @Value("${config.push.renew-interval:60s}") Duration renewInterval,
+            @Value("${spring.application.name}") String application,
+            Environment environment, ObjectMapper objectMapper) {
+        this.serverUrl = serverUrl;
+        this.secret = secret;
+        this.callbackHost = callbackHost;
+        this.renewInterval = renewInterval;
+        this.application = application;
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String port = environment.getProperty("local.server.port");
+        if (serverUrl.isBlank() || port == null) {
+            logger.info("config.push.server-url not set, config changes need a restart or a manual refresh");
+            return;
+        }
+        if (secret.isBlank()) {
+            logger.warn("config.push.secret not set, config changes need a restart");
+            return;
+        }
+        callbackUrl = "http://" + callbackHost + ":" + port + "/config/refresh";
+        scheduler.scheduleWithFixedDelay(this::subscribe, 0, renewInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void subscribe() {
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("application", application,
+                    "callbackUrl", callbackUrl));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + "/subscriptions"))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .header(ConfigRefreshController.SECRET_HEADER, secret)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("config-server returned " + response.statusCode());
+            }
+            if (!subscribed) {
+                logger.info("Subscribed to config changes at {}", serverUrl);
+                subscribed = true;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logSubscribeFailure(ex);
+        }
+    }
+
+    // the first failure after a success is a warning, retries before config-server is up are not
+    private void logSubscribeFailure(Exception ex) {
+        if (subscribed) {
+            logger.warn("Renewing config change subscription failed, will retry: {}", ex.getMessage());
+            subscribed = false;
+        } else {
+            logger.debug("Subscribing to config changes failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        if (!subscribed) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + "/subscriptions?callbackUrl="
+                + URLEncoder.encode(callbackUrl, StandardCharsets.UTF_8)))
+                .timeout(Duration.ofSeconds(2))
+                .header(ConfigRefreshController.SECRET_HEADER, secret)
+                .DELETE()
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.order_service.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.cache.CustomerResponseCache;
+import com.example.order_service.datasource.ShardRoutingDataSource;
+import com.example.read_replicas.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.common.CompositeCustomizer;
+import io.github.resilience4j.common.circuitbreaker.configuration.CircuitBreakerConfigCustomizer;
+import io.github.resilience4j.common.circuitbreaker.configuration.CommonCircuitBreakerConfigurationProperties.InstanceProperties;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerProperties;
+import io.github.resilience4j.springboot3.retry.autoconfigure.RetryProperties;
+
+/**
+ * Applies refreshed configuration to the beans that are built once at startup
+ * and are not covered by {@code @ConfigurationProperties} rebinding: the
+ * resilience4j circuit breakers and retries, the Hikari pool sizes, the
+ * stale customer cache and the second-level cache regions.
+ *
+ * Circuit breakers and retries are replaced in their registries; the
+ * annotation aspects look them up on every call, so new calls use the new
+ * settings while calls already in flight finish on the old instance.
+ */
+@Component
+public class LiveConfigRebinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveConfigRebinder.class);
+
+    private static final String CIRCUIT_BREAKER_PREFIX = "resilience4j.circuitbreaker";
+    private static final String RETRY_PREFIX = "resilience4j.retry";
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+    private static final String CACHE_REGIONS_PREFIX = "second-level-cache.regions";
+    private static final String STALE_CACHE_PREFIX = "stale-cache.customers";
+
+    private final Environment environment;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final CompositeCustomizer<CircuitBreakerConfigCustomizer> circuitBreakerCustomizer;
+    private final RetryRegistry retryRegistry;
+    private final CompositeCustomizer<RetryConfigCustomizer> retryCustomizer;
+    private final ObjectProvider<DataSource> dataSource;
+    private final CustomerResponseCache customerResponseCache;
+    private final ObjectProvider<CacheManager> secondLevelCacheManager;
+
+    public LiveConfigRebinder(Environment environment, CircuitBreakerRegistry circuitBreakerRegistry,
+            CompositeCustomizer<CircuitBreakerConfigCustomizer> circuitBreakerCustomizer,
+            RetryRegistry retryRegistry, CompositeCustomizer<RetryConfigCustomizer> retryCustomizer,
+            ObjectProvider<DataSource> dataSource, CustomerResponseCache customerResponseCache,
+            ObjectProvider<CacheManager> secondLevelCacheManager) {
+        this.environment = environment;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.circuitBreakerCustomizer = circuitBreakerCustomizer;
+        this.retryRegistry = retryRegistry;
+        this.retryCustomizer = retryCustomizer;
+        this.dataSource = dataSource;
+        this.customerResponseCache = customerResponseCache;
+        this.secondLevelCacheManager = secondLevelCacheManager;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        Binder binder = Binder.get(environment);
+        Set<String> keys = event.getKeys();
+        rebindCircuitBreakers(keys, binder);
+        rebindRetries(keys, binder);
+        if (changed(keys, HIKARI_PREFIX)) {
+            resizeConnectionPool(binder);
+        }
+        if (changed(keys, CACHE_REGIONS_PREFIX)) {
+            secondLevelCacheManager.ifAvailable(cacheManager -> {
+                SecondLevelCacheConfig.configureRegions(cacheManager, binder);
+                logger.info("Second-level cache regions resized");
+            });
+        }
+        if (changed(keys, STALE_CACHE_PREFIX)) {
+            customerResponseCache.resize(
+                    binder.bind(STALE_CACHE_PREFIX + ".max-entries", Integer.class).orElse(10000),
+                    binder.bind(STALE_CACHE_PREFIX + ".max-stale", Duration.class).orElse(Duration.ofMinutes(10)));
+            logger.info("Stale customer cache resized");
+        }
+    }
+
+    private void rebindCircuitBreakers(Set<String> keys, Binder binder) {
+        Set<String> names = changedInstances(keys, CIRCUIT_BREAKER_PREFIX);
+        if (names.isEmpty()) {
+            return;
+        }
+        CircuitBreakerProperties properties = binder.bind(CIRCUIT_BREAKER_PREFIX, CircuitBreakerProperties.class)
+                .orElseGet(CircuitBreakerProperties::new);
+        for (String name : names) {
+            InstanceProperties instance = properties.getInstances().get(name);
+            if (instance == null || circuitBreakerRegistry.find(name).isEmpty()) {
+                continue;
+            }
+            CircuitBreakerConfig config = properties.createCircuitBreakerConfig(name, instance,
+                    circuitBreakerCustomizer);
+            CircuitBreaker replacement = CircuitBreaker.of(name, config, circuitBreakerRegistry.getTags());
+            circuitBreakerRegistry.replace(name, replacement)
+                    .ifPresent(previous -> carryOverState(previous, replacement));
+            logger.info("Circuit breaker {} reconfigured", name);
+        }
+    }
+
+    // an open circuit stays open, so a config change does not let traffic through to a failing dependency
+    private void carryOverState(CircuitBreaker previous, CircuitBreaker replacement) {
+        switch (previous.getState()) {
+            case OPEN, HALF_OPEN -> replacement.transitionToOpenState();
+            case FORCED_OPEN -> replacement.transitionToForcedOpenState();
+            case DISABLED -> replacement.transitionToDisabledState();
+            case METRICS_ONLY -> replacement.transitionToMetricsOnlyState();
+            default -> {
+            }
+        }
+    }
+
+    private void rebindRetries(Set<String> keys, Binder binder) {
+        Set<String> names = changedInstances(keys, RETRY_PREFIX);
+        if (names.isEmpty()) {
+            return;
+        }
+        RetryProperties properties = binder.bind(RETRY_PREFIX, RetryProperties.class)
+                .orElseGet(RetryProperties::new);
+        for (String name : names) {
+            if (!properties.getInstances().containsKey(name) || retryRegistry.find(name).isEmpty()) {
+                continue;
+            }
+            Retry replacement = Retry.of(name, properties.createRetryConfig(name, retryCustomizer),
+                    retryRegistry.getTags());
+            retryRegistry.replace(name, replacement);
+            logger.info("Retry {} reconfigured", name);
+        }
+    }
+
+    private void resizeConnectionPool(Binder binder) {
+        try {
+            for (HikariDataSource source : pools(dataSource.getIfAvailable())) {
+                HikariConfigMXBean pool = source.getHikariConfigMXBean();
+                binder.bind(HIKARI_PREFIX + ".maximum-pool-size", Integer.class).ifBound(pool::setMaximumPoolSize);
+                binder.bind(HIKARI_PREFIX + ".minimum-idle", Integer.class).ifBound(pool::setMinimumIdle);
+                binder.bind(HIKARI_PREFIX + ".connection-timeout", Long.class).ifBound(pool::setConnectionTimeout);
+                logger.info("Connection pool {} resized to {} connections", source.getPoolName(),
+                        pool.getMaximumPoolSize());
+            }
+        } catch (Exception ex) {
+            logger.warn("Could not resize connection pool: {}", ex.getMessage());
+        }
+    }
+
+    // the single pool, or every pool behind the read replica or shard router
+    private static List<HikariDataSource> pools(DataSource source) throws SQLException {
+        if (source == null) {
+            return List.of();
+        }
+        if (source.isWrapperFor(ReadReplicaRoutingDataSource.class)) {
+            return source.unwrap(ReadReplicaRoutingDataSource.class).getPools();
+        }
+        if (source.isWrapperFor(ShardRoutingDataSource.class)) {
+            return source.unwrap(ShardRoutingDataSource.class).getPools();
+        }
+        if (source.isWrapperFor(HikariDataSource.class)) {
+            return List.of(source.unwrap(HikariDataSource.class));
+        }
+        return List.of();
+    }
+
+    private static boolean changed(Set<String> keys, String prefix) {
+        return keys.stream().anyMatch(key -> key.startsWith(prefix + "."));
+    }
+
+    /**
+     * @return The instance names whose settings changed; all registered
+     *         instances when shared {@code configs} changed.
+     */
+    private Set<String> changedInstances(Set<String> keys, String prefix) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (!key.startsWith(prefix + ".")) {
+                continue;
+            }
+            String[] parts = key.substring(prefix.length() + 1).split("\\.");
+            if (parts.length < 2) {
+                continue;
+            }
+            if (parts[0].equals("instances") || parts[0].equals("backends")) {
+                names.add(parts[1]);
+            } else if (parts[0].equals("configs")) {
+                if (prefix.equals(CIRCUIT_BREAKER_PREFIX)) {
+                    circuitBreakerRegistry.getAllCircuitBreakers().forEach(cb -> names.add(cb.getName()));
+                } else {
+                    retryRegistry.getAllRetries().forEach(retry -> names.add(retry.getName()));
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.order_service.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Turns on Hibernate's second-level and query cache, kept in this process by
+ * Caffeine behind JCache. Each region under {@code second-level-cache.regions}
+ * is created with its own {@code max-size} and {@code ttl}; a region without
+ * them is unbounded, as the update timestamps region always is. Hibernate
+ * creates regions that are not configured on first use, unbounded, and logs a
+ * warning.
+ *
+ * Hibernate's statistics are on, so the hits and misses per region are
+ * reported as {@code hibernate.second.level.cache.requests} and
+ * {@code hibernate.cache.query.requests}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheConfig.class);
+
+    static final String REGIONS_PREFIX = "second-level-cache.regions";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        // a provider of its own, so every application context gets its own caches
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        configureRegions(cacheManager, Binder.get(environment));
+        // cached query results are checked against it, so it must never lose an entry
+        if (cacheManager.getCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME) == null) {
+            cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                    new Region(null, null).configuration());
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager,
+            @Value("${sharding.shards[0].url:}") String firstShard) {
+        // every shard runs the same queries, and the query cache cannot tell
+        // their results apart
+        boolean queryCache = firstShard.isBlank();
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, queryCache);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            // cached query results carry the rows, so a hit never loads
+            // evicted entities one by one
+            properties.put(AvailableSettings.QUERY_CACHE_LAYOUT, "FULL");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Creates the configured regions that do not exist yet and applies the
+     * current limits to those that do. A region created without a size or TTL
+     * limit cannot be given one later.
+     */
+    public static void configureRegions(CacheManager cacheManager, Binder binder) {
+        Map<String, Region> regions = binder.bind(REGIONS_PREFIX, Bindable.mapOf(String.class, Region.class))
+                .orElse(Map.of());
+        regions.forEach((name, region) -> {
+            Cache<Object, Object> cache = cacheManager.getCache(name);
+            if (cache == null) {
+                cacheManager.createCache(name, region.configuration());
+            } else {
+                region.applyTo(name, cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class));
+            }
+        });
+    }
+
+    /**
+     * Limits of a cache region; null means unlimited.
+     */
+    public record Region(Long maxSize, Duration ttl) {
+
+        CaffeineConfiguration<Object, Object> configuration() {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            // Hibernate caches immutable entries, there is nothing to copy
+            configuration.setStoreByValue(false);
+            if (maxSize != null) {
+                configuration.setMaximumSize(OptionalLong.of(maxSize));
+            }
+            if (ttl != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            }
+            return configuration;
+        }
+
+        void applyTo(String name, com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+            if (maxSize != null) {
+                cache.policy().eviction().ifPresentOrElse(eviction -> eviction.setMaximum(maxSize),
+                        () -> logger.warn("Cache region {} was created unbounded, max-size applies after a restart",
+                                name));
+            }
+            if (ttl != null) {
+                cache.policy().expireAfterWrite().ifPresentOrElse(expiry -> expiry.setExpiresAfter(ttl),
+                        () -> logger.warn("Cache region {} was created without a TTL, ttl applies after a restart",
+                                name));
+            }
+        }
+    }
+}
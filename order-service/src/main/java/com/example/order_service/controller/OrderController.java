@@ -1,10 +1,12 @@
 package com.example.order_service.controller;
 
 import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.PreconditionFailedException;
 import com.example.order_service.exception.ResourceNotFoundException;
 import com.example.order_service.hateoas.OrderModelAssembler;
 import com.example.order_service.model.Order;
 import com.example.order_service.model.OrderDTO;
+import com.example.order_service.model.OrderPatch;
 import com.example.order_service.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,6 +16,7 @@ import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -75,47 +78,104 @@ public class OrderController {
      * Retrieves a specific order by ID.
      *
      * @param id The ID of the order.
-     * @return The order details with HATEOAS links.
+     * @return The order details with HATEOAS links, and its version as the
+     *         ETag.
      * @throws ResourceNotFoundException if the order is not
      *                                   found.
      */
     @GetMapping("/{id}")
     public ResponseEntity<EntityModel<OrderDTO>> getOrder(@PathVariable Long id) {
         Order order = orderService.getOrder(id);
-        return ResponseEntity.ok(orderModelAssembler.toModel(order));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(order.getVersion()))
+                .body(orderModelAssembler.toModel(order));
     }
 
     /**
      * Updates an existing order.
      *
-     * @param order The order object containing updated details.
+     * @param order   The order object containing updated details.
+     * @param ifMatch The ETag the order must still have, optional.
      * @return The updated order as a DTO.
-     * @throws BadRequestException       if the order details
-     *                                   are invalid.
-     * @throws ResourceNotFoundException if the order does not
-     *                                   exist.
+     * @throws BadRequestException         if the order details
+     *                                     are invalid.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
      */
     @PutMapping
-    public ResponseEntity<OrderDTO> updateOrder(@Validated @RequestBody Order order) {
-        Order updatedOrder = orderService.updateOrder(order);
-        return ResponseEntity
-                .ok(new OrderDTO(updatedOrder.getId(), updatedOrder.getCreatedAt(), updatedOrder.getQuantity()));
+    public ResponseEntity<OrderDTO> updateOrder(@Validated @RequestBody Order order,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = version(ifMatch);
+        Order updatedOrder = orderService.updateOrder(order, version);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag(String.valueOf(updatedOrder.getVersion()));
+        }
+        return response
+                .body(new OrderDTO(updatedOrder.getId(), updatedOrder.getCreatedAt(), updatedOrder.getQuantity()));
+    }
+
+    /**
+     * Changes the given fields of an order.
+     *
+     * @param id      The ID of the order.
+     * @param patch   The fields to change; absent fields keep their value.
+     * @param ifMatch The ETag the order must still have, optional.
+     * @return No content, with the new ETag when one was matched.
+     * @throws BadRequestException         if a field is invalid.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchOrder(@PathVariable Long id, @RequestBody OrderPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = version(ifMatch);
+        orderService.patchOrder(id, patch, version);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (version != null) {
+            response.eTag(String.valueOf(version + 1));
+        }
+        return response.build();
     }
 
     /**
      * Deletes an order by its ID.
      *
-     * @param id The ID of the order to be deleted.
+     * @param id      The ID of the order to be deleted.
+     * @param ifMatch The ETag the order must still have, optional.
      * @return A response message confirming deletion.
-     * @throws ResourceNotFoundException if the order does not
-     *                                   exist.
+     * @throws ResourceNotFoundException   if the order does not
+     *                                     exist.
+     * @throws PreconditionFailedException if the order no longer
+     *                                     matches the ETag.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteOrder(@PathVariable Long id) {
-        orderService.deleteOrder(id);
+    public ResponseEntity<String> deleteOrder(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        orderService.deleteOrder(id, version(ifMatch));
         return ResponseEntity.ok("Order deleted successfully");
     }
 
+    // the version from an If-Match header such as "3" or W/"3"; null for none or *
+    private static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
     /**
      * Deletes all orders for a customer.
      *
@@ -148,10 +208,14 @@ public class OrderController {
      * Retrieves a list of orders sorted by creation date.
      *
      * @param sortDirection The sorting direction (asc/desc).
+     * @param limit         The number of orders, optional; all orders
+     *                      without it.
      * @return A sorted list of orders.
+     * @throws BadRequestException if the limit is not positive.
      */
     @GetMapping("/sorted")
-    public ResponseEntity<List<Order>> getOrdersSorted(@RequestParam String sortDirection) {
-        return ResponseEntity.ok(orderService.getOrdersSorted(sortDirection));
+    public ResponseEntity<List<Order>> getOrdersSorted(@RequestParam String sortDirection,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(orderService.getOrdersSorted(sortDirection, limit));
     }
 }
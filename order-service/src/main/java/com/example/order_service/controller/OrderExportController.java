@@ -0,0 +1,72 @@
+package com.example.order_service.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.model.ExportStatus;
+import com.example.order_service.service.OrderExporter;
+
+/**
+ * Controller for bulk exports of all orders to files.
+ */
+@RestController
+@ConditionalOnProperty(name = "order-export.enabled", havingValue = "true")
+@RequestMapping("/api/orders/exports")
+public class OrderExportController {
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    /**
+     * Starts an export of all orders.
+     *
+     * @param format csv or ndjson.
+     * @return 202 Accepted with the status of the export, which runs in the
+     *         background.
+     */
+    @PostMapping
+    public ResponseEntity<ExportStatus> startExport(@RequestParam(defaultValue = "csv") String format) {
+        ExportStatus status = orderExporter.start(format(format));
+        return ResponseEntity.accepted().location(URI.create("/api/orders/exports/" + status.id())).body(status);
+    }
+
+    /**
+     * Retrieves the progress of an export, with its rate in rows per second.
+     *
+     * @param id The ID of the export.
+     * @return The status of the export.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportStatus> getExport(@PathVariable String id) {
+        return ResponseEntity.ok(orderExporter.status(id));
+    }
+
+    /**
+     * Resumes a failed export from its last checkpoint.
+     *
+     * @param id The ID of the export.
+     * @return 202 Accepted with the status of the export.
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ExportStatus> resumeExport(@PathVariable String id) {
+        return ResponseEntity.accepted().body(orderExporter.resume(id));
+    }
+
+    private static ExportStatus.Format format(String format) {
+        try {
+            return ExportStatus.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Format must be csv or ndjson");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.order_service.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.order_service.model.ImportStatus;
+import com.example.order_service.service.OrderImporter;
+
+/**
+ * Controller for bulk imports of orders from files.
+ */
+@RestController
+@ConditionalOnProperty(name = "order-import.enabled", havingValue = "true")
+@RequestMapping("/api/orders/imports")
+public class OrderImportController {
+
+    @Autowired
+    private OrderImporter orderImporter;
+
+    /**
+     * Starts importing the orders of a file in the import directory.
+     *
+     * @param file The name of a .csv or .ndjson file.
+     * @return 202 Accepted with the status of the import, which runs in the
+     *         background.
+     */
+    @PostMapping
+    public ResponseEntity<ImportStatus> startImport(@RequestParam String file) {
+        ImportStatus status = orderImporter.start(file);
+        return ResponseEntity.accepted().location(URI.create("/api/orders/imports/" + status.id())).body(status);
+    }
+
+    /**
+     * Retrieves the progress of an import, with its rate in rows per second
+     * and the first rejected lines.
+     *
+     * @param id The ID of the import.
+     * @return The status of the import.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportStatus> getImport(@PathVariable String id) {
+        return ResponseEntity.ok(orderImporter.status(id));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.order_service.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out connections from the pool of the shard that {@link Shards} bound
+ * to the current thread, or from the first shard when none is bound.
+ *
+ * Transactions start before the repository call picks its shard, so this
+ * sits behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that fetches the connection on the first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<HikariDataSource> shards;
+    private final List<Counter> checkouts;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards, MeterRegistry meterRegistry) {
+        this.shards = List.copyOf(shards);
+        this.checkouts = this.shards.stream()
+                .map(pool -> Counter.builder("datasource.routing.connections")
+                        .description("Connections handed out by the shard routing data source")
+                        .tag("pool", pool.getPoolName())
+                        .register(meterRegistry))
+                .toList();
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (int shard = 0; shard < this.shards.size(); shard++) {
+            targets.put(shard, this.shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.shards.get(0));
+        afterPropertiesSet();
+    }
+
+    /**
+     * @return The shard pools, in shard order.
+     */
+    public List<HikariDataSource> getPools() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = Shards.current();
+        return shard != null ? shard : 0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route().getConnection(username, password);
+    }
+
+    private HikariDataSource route() {
+        int shard = (Integer) determineCurrentLookupKey();
+        checkouts.get(shard).increment();
+        return shards.get(shard);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.order_service.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.read_replicas.ReadReplicaConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the single {@code spring.datasource} pool with one pool per entry
+ * of {@code sharding.shards}, behind a {@link ShardRoutingDataSource}. Like
+ * the read replica pools, every pool takes its settings from
+ * {@code spring.datasource.hikari} and reports the {@code hikaricp.*} metrics
+ * under its own pool name.
+ *
+ * Read replicas cannot be combined with shards; startup fails if both are
+ * configured.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "sharding.shards[0].url")
+@Conditional(ShardingConfig.WithoutReadReplicas.class)
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (Shard shard : binder.bind("sharding.shards", Bindable.listOf(Shard.class)).get()) {
+            DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                    .url(shard.url())
+                    .username(shard.username() != null ? shard.username() : properties.determineUsername())
+                    .password(shard.password() != null ? shard.password() : properties.determinePassword());
+            pools.add(ReadReplicaConfig.pool("shard-" + pools.size(), builder, binder, meterRegistry));
+        }
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(pools, meterRegistry));
+    }
+
+    /**
+     * A shard; username and password default to {@code spring.datasource}'s.
+     */
+    public record Shard(String url, String username, String password) {
+    }
+
+    /**
+     * Fails while the configuration classes are read, before the read replica
+     * and shard DataSources clash with an error that does not say why.
+     */
+    static class WithoutReadReplicas implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment environment = context.getEnvironment();
+            if (environment.containsProperty("sharding.shards[0].url")
+                    && environment.containsProperty("read-replicas.replicas[0].url")) {
+                throw new IllegalStateException("sharding.shards and read-replicas.replicas cannot both be set; "
+                        + "shard without replicas, or point each shard at its own primary");
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.order_service.datasource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the shard for a key by hashing it, and binds work to a shard for the
+ * {@link ShardRoutingDataSource}. Work that spans every shard runs on one
+ * virtual thread per shard and the results are gathered on the caller.
+ *
+ * Without {@code sharding.shards} there is a single shard and all work runs
+ * inline on the calling thread, inside the caller's transaction.
+ */
+@Component
+public class Shards implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+    private final ExecutorService executor = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-query-", 0).factory());
+
+    @Autowired
+    public Shards(Environment environment) {
+        this(Binder.get(environment).bind("sharding.shards", Bindable.listOf(ShardingConfig.Shard.class))
+                .map(List::size)
+                .orElse(1));
+    }
+
+    public Shards(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @return The shard bound to the current thread, or null outside
+     *         {@link #on(int, Supplier)}.
+     */
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int shardOf(Long key) {
+        return Math.floorMod(Long.hashCode(key), count);
+    }
+
+    /**
+     * Runs work with its statements going to the given shard.
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs work on the shard that owns the key.
+     */
+    public <T> T forKey(Long key, Supplier<T> work) {
+        return on(shardOf(key), work);
+    }
+
+    public void forKey(Long key, Runnable work) {
+        forKey(key, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs work on every shard in parallel.
+     *
+     * @return One result per shard, in shard order.
+     */
+    public <T> List<T> onEach(Supplier<T> work) {
+        if (count == 1) {
+            return List.of(on(0, work));
+        }
+        List<CompletableFuture<T>> results = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            results.add(CompletableFuture.supplyAsync(() -> on(target, work), executor));
+        }
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Looks a row up on every shard.
+     *
+     * @return The first shard's match, in shard order.
+     */
+    public <T> Optional<T> findAny(Supplier<Optional<T>> query) {
+        return onEach(query).stream().flatMap(Optional::stream).findFirst();
+    }
+
+    /**
+     * Runs a query on every shard and merges the results in order. The shards'
+     * results are sorted runs, which the list sort merges in O(n log shards).
+     */
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order) {
+        List<T> merged = new ArrayList<>();
+        onEach(query).forEach(merged::addAll);
+        merged.sort(order);
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -19,4 +19,10 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleBadRequest(BadRequestException ex) {
         return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        return new ResponseEntity<>(new ErrorResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage()),
+                HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -23,6 +23,6 @@ public class OrderModelAssembler implements RepresentationModelAssembler<Order,
         return EntityModel.of(dto,
                 linkTo(methodOn(OrderController.class).getOrder(order.getId())).withSelfRel(),
                 org.springframework.hateoas.Link.of(customerServiceUrl).withRel("customer"), // Replace
-                linkTo(methodOn(OrderController.class).updateOrder(order)).withRel("update-order"));
+                linkTo(methodOn(OrderController.class).updateOrder(order, null)).withRel("update-order"));
     }
 }
@@ -0,0 +1,23 @@
+package com.example.order_service.model;
+
+/**
+ * The progress of an order export, which is also its checkpoint: the file
+ * holds the orders of the shards before {@code shard}, and those of
+ * {@code shard} up to {@code lastId}, in its first {@code position} bytes.
+ */
+public record ExportStatus(String id, Format format, State state, String file, long rows, double rowsPerSecond,
+        int shard, long lastId, long position, String error) {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public ExportStatus with(State state, long rows, double rowsPerSecond, int shard, long lastId, long position,
+            String error) {
+        return new ExportStatus(id, format, state, file, rows, rowsPerSecond, shard, lastId, position, error);
+    }
+}
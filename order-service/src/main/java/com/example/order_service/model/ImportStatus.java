@@ -0,0 +1,22 @@
+package com.example.order_service.model;
+
+import java.util.List;
+
+/**
+ * The progress of an order import. {@code read} counts the orders read from
+ * the file; once it completes each was either imported or rejected.
+ * {@code errors} holds the first rejected lines, by line number.
+ */
+public record ImportStatus(String id, String file, State state, long read, long imported, long rejected,
+        double rowsPerSecond, List<LineError> errors, String error) {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * Why a line of the file was not imported.
+     */
+    public record LineError(long line, String message) {
+    }
+}
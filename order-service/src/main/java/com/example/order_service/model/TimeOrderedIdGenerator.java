@@ -0,0 +1,82 @@
+package com.example.order_service.model;
+
+import java.lang.reflect.Member;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Time-ordered 64-bit IDs made up of the milliseconds since 2025, a 10-bit
+ * worker ID and a 12-bit sequence within the millisecond. They need no
+ * database round trip, so Hibernate can batch the inserts, unlike
+ * {@code IDENTITY} columns, and they are unique across instances and shards
+ * as long as every instance has its own worker ID.
+ *
+ * The worker ID is the {@value #WORKER_ID} Hibernate setting, which has to
+ * be set: a worker ID derived from the host would collide between instances
+ * sooner or later, and so would their IDs.
+ *
+ * The IDs are above 2^53 from 2025 on, so JavaScript clients, whose numbers
+ * hold integers exactly only up to there, have to read ID fields of the JSON
+ * responses as strings or BigInt.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator, AnnotationBasedGenerator<TimeOrderedId> {
+
+    public static final String WORKER_ID = "id_generator.worker_id";
+    public static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    private long worker;
+    // milliseconds since the epoch shifted left by SEQUENCE_BITS, plus the sequence
+    private final AtomicLong last = new AtomicLong();
+
+    // created by Hibernate, which then calls initialize
+    public TimeOrderedIdGenerator() {
+    }
+
+    public TimeOrderedIdGenerator(int workerId) {
+        setWorker(workerId);
+    }
+
+    @Override
+    public void initialize(TimeOrderedId config, Member member, GeneratorCreationContext context) {
+        setWorker(workerId(context.getServiceRegistry().requireService(ConfigurationService.class).getSettings()));
+    }
+
+    private void setWorker(int workerId) {
+        if (workerId < 0 || workerId >= 1 << WORKER_BITS) {
+            throw new IllegalArgumentException("Worker ID must be between 0 and " + ((1 << WORKER_BITS) - 1));
+        }
+        this.worker = workerId;
+    }
+
+    private static int workerId(Map<String, Object> settings) {
+        Object workerId = settings.get(WORKER_ID);
+        if (workerId == null) {
+            throw new IllegalStateException("The " + WORKER_ID + " Hibernate setting is not set");
+        }
+        return Integer.parseInt(workerId.toString());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return nextId();
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        // a full sequence, or a clock that went back, borrows the next millisecond
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1 << SEQUENCE_BITS) - 1);
+        return millis << (WORKER_BITS + SEQUENCE_BITS) | worker << SEQUENCE_BITS | sequence;
+    }
+}
@@ -4,31 +4,128 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.order_service.cache.OrderCacheEviction;
 import com.example.order_service.model.Order;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Queries are read-only transactions, which are served by a read replica when
+ * {@code read-replicas} are configured.
+ *
+ * Updates and deletes by ID are single statements that return the number of
+ * rows they changed; a null version matches any version. They are native SQL
+ * synchronized on {@link #ROW_WRITES_SPACE}, which no entity maps to, so
+ * Hibernate does not drop the whole orders region from the second-level cache
+ * as it does after JPQL updates and deletes; {@link OrderCacheEviction} drops
+ * the one order instead, and marks the orders table changed for the query
+ * cache.
+ *
+ * The sorted queries are kept in the query cache until the next write to the
+ * orders table.
+ *
+ * Date-range queries filter on created_at, the partition key of the orders
+ * table in db.sql, so they only read the partitions of the months they cover.
+ */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    String SORTED_CACHE_REGION = "orders-by-created-at";
+    String ROW_WRITES_SPACE = "order_row_writes";
+
     Order save(Order order);
 
+    @Transactional(readOnly = true)
     Page<Order> findByCustomerId(Long customerId, Pageable pageable);
 
+    @Transactional(readOnly = true)
     Optional<Order> findById(Long id);
 
     void deleteById(Long id);
 
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_WRITES_SPACE))
+    @Query(value = "UPDATE orders SET customer_id = :customerId, product = :product, quantity = :quantity, "
+            + "version = version + 1 WHERE id = :id AND (:version IS NULL OR version = :version)", nativeQuery = true)
+    int update(@Param("id") Long id, @Param("version") Long version, @Param("customerId") Long customerId,
+            @Param("product") String product, @Param("quantity") Integer quantity);
+
+    /**
+     * {@link #update}, then reads back the creation date the update kept, in
+     * the same transaction and so on the same connection.
+     *
+     * @return The creation date of the updated order, empty if none was
+     *         updated.
+     */
+    @Transactional
+    default Optional<LocalDateTime> updateReturningCreatedAt(Long id, Long version, Long customerId,
+            String product, Integer quantity) {
+        if (update(id, version, customerId, product, quantity) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(findCreatedAtById(id));
+    }
+
+    @Transactional
+    @Query("SELECT o.createdAt FROM Order o WHERE o.id = :id")
+    LocalDateTime findCreatedAtById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_WRITES_SPACE))
+    @Query(value = "UPDATE orders SET product = COALESCE(:product, product), "
+            + "quantity = COALESCE(:quantity, quantity), version = version + 1 "
+            + "WHERE id = :id AND (:version IS NULL OR version = :version)", nativeQuery = true)
+    int patch(@Param("id") Long id, @Param("version") Long version, @Param("product") String product,
+            @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_WRITES_SPACE))
+    @Query(value = "DELETE FROM orders WHERE id = :id AND (:version IS NULL OR version = :version)",
+            nativeQuery = true)
+    int delete(@Param("id") Long id, @Param("version") Long version);
+
+    // derived deletes load and remove each entity, which needs a transaction
+    @Transactional
     void deleteByCustomerId(Long id);
 
+    @Transactional(readOnly = true)
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    @Transactional(readOnly = true)
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :from ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findNewestSince(@Param("from") LocalDateTime from, Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SORTED_CACHE_REGION) })
     @Query("SELECT o FROM Order o ORDER BY o.createdAt ASC")
     List<Order> findAllByCreatedAtAsc();
 
+    @Transactional(readOnly = true)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SORTED_CACHE_REGION) })
     @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
     List<Order> findAllByCreatedAtDesc();
 
+    @Transactional(readOnly = true)
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt ASC")
+    List<Order> findAllByCreatedAtAsc(Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
+    List<Order> findAllByCreatedAtDesc(Limit limit);
+
 }
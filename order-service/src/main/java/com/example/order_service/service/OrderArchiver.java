@@ -0,0 +1,233 @@
+package com.example.order_service.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves the orders older than {@code order-archive.max-age} from the orders
+ * table to orders_archive every {@code interval}, on every shard. The orders
+ * go oldest first, {@code chunk-size} per transaction, so locks and undo
+ * stay bounded however far behind the archiver is. A chunk's rows are locked
+ * before they are copied, so instances archiving at the same time take turns
+ * and no order is archived twice.
+ *
+ * The rows are moved in plain SQL, so the archived orders are evicted from
+ * this instance's second-level cache, its cached sorted queries and the
+ * recent order index. Other instances serve them from their caches until the
+ * entries expire.
+ *
+ * Archived orders stay readable, but not writable: {@link OrderService} reads
+ * through to the archive for an order by ID, a customer's orders and date
+ * ranges that start before {@code max-age} ago, and deletes a customer's
+ * archived orders with the live ones. The sorted listings cover the orders
+ * that are not archived yet.
+ */
+@Component
+@ConditionalOnProperty(name = "order-archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final String SELECT = "SELECT id, customer_id, product, quantity, created_at, version "
+            + "FROM orders_archive ";
+
+    private static final RowMapper<Order> ARCHIVED_ORDER = (row, rowNum) -> {
+        Order order = new Order(row.getLong("id"), row.getLong("customer_id"), row.getString("product"),
+                row.getInt("quantity"), row.getObject("created_at", LocalDateTime.class));
+        order.setVersion(row.getLong("version"));
+        return order;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<RecentOrderIndex> recentOrders;
+    private final Duration maxAge;
+    private final int chunkSize;
+    private final Duration interval;
+    private final Counter archived;
+    private ScheduledExecutorService archiver;
+
+    public OrderArchiver(JdbcTemplate jdbcTemplate, Shards shards, PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory, ObjectProvider<RecentOrderIndex> recentOrders,
+            MeterRegistry meterRegistry,
+            @Value("${order-archive.max-age:365d}") Duration maxAge,
+            @Value("${order-archive.chunk-size:1000}") int chunkSize,
+            @Value("${order-archive.interval:1h}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.recentOrders = recentOrders;
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+        this.interval = interval;
+        this.archived = Counter.builder("orders.archived")
+                .description("Orders moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        archiver = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-archiver").daemon().factory());
+        archiver.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        archiver.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            archive();
+        } catch (RuntimeException ex) {
+            logger.error("Could not archive orders", ex);
+        }
+    }
+
+    /**
+     * Archives the orders that are older than {@code max-age} now.
+     *
+     * @return The number of orders archived.
+     */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int total = shards.onEach(() -> archiveShard(cutoff)).stream().mapToInt(Integer::intValue).sum();
+        if (total > 0) {
+            logger.info("Archived {} orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveShard(LocalDateTime cutoff) {
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = transactionTemplate.execute(status -> moveChunk(cutoff));
+            evict(ids);
+            archived.increment(ids.size());
+            total += ids.size();
+        } while (ids.size() == chunkSize && !Thread.currentThread().isInterrupted());
+        return total;
+    }
+
+    // a read-write transaction, so it runs on the primary
+    private List<Long> moveChunk(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE created_at < ? ORDER BY created_at, id LIMIT ? FOR UPDATE", Long.class,
+                cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // the date condition keeps the statements to the old partitions
+        String chunk = "created_at < ? AND id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(cutoff);
+        args.addAll(ids);
+        List<Object> insertArgs = new ArrayList<>(args);
+        insertArgs.add(0, LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO orders_archive (id, customer_id, product, quantity, created_at, version, "
+                + "archived_at) SELECT id, customer_id, product, quantity, created_at, version, ? FROM orders WHERE "
+                + chunk, insertArgs.toArray());
+        jdbcTemplate.update("DELETE FROM orders WHERE " + chunk, args.toArray());
+        return ids;
+    }
+
+    /**
+     * @return The archived order with the given ID.
+     */
+    public Optional<Order> find(Long id) {
+        return shards.findAny(() -> jdbcTemplate.query(SELECT + "WHERE id = ?", ARCHIVED_ORDER, id).stream()
+                .findFirst());
+    }
+
+    /**
+     * Continues a page of a customer's orders with their archived orders,
+     * oldest first, once the live ones run out.
+     *
+     * @param live The page of the customer's orders that are not archived.
+     * @return The page of all the customer's orders.
+     */
+    public Page<Order> withArchived(Long customerId, Page<Order> live, Pageable pageable) {
+        return shards.forKey(customerId, () -> {
+            long archivedCount = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders_archive WHERE customer_id = ?", Long.class, customerId);
+            List<Order> content = new ArrayList<>(live.getContent());
+            if (archivedCount > 0 && content.size() < pageable.getPageSize()) {
+                long offset = Math.max(0, pageable.getOffset() - live.getTotalElements());
+                content.addAll(jdbcTemplate.query(
+                        SELECT + "WHERE customer_id = ? ORDER BY created_at, id LIMIT ? OFFSET ?", ARCHIVED_ORDER,
+                        customerId, pageable.getPageSize() - content.size(), offset));
+            }
+            return new PageImpl<>(content, pageable, live.getTotalElements() + archivedCount);
+        });
+    }
+
+    /**
+     * @param start The start of the range, inclusive.
+     * @param end   The end of the range, inclusive.
+     * @return The archived orders created in the range, oldest first; none if
+     *         the range starts after the archiving cutoff.
+     */
+    public List<Order> findBetween(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(LocalDateTime.now().minus(maxAge))) {
+            return List.of();
+        }
+        return shards.gather(() -> jdbcTemplate.query(SELECT + "WHERE created_at BETWEEN ? AND ?", ARCHIVED_ORDER,
+                start, end), Comparator.comparing(Order::getCreatedAt));
+    }
+
+    /**
+     * Deletes the archived orders of a customer.
+     */
+    public void deleteCustomer(Long customerId) {
+        shards.forKey(customerId, () -> jdbcTemplate.update("DELETE FROM orders_archive WHERE customer_id = ?",
+                customerId));
+    }
+
+    private void evict(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Order.class, id));
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(OrderRepository.SORTED_CACHE_REGION);
+        recentOrders.ifAvailable(index -> ids.forEach(index::deleted));
+    }
+}
@@ -0,0 +1,516 @@
+package com.example.order_service.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.ResourceNotFoundException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.ExportStatus;
+import com.example.order_service.model.ExportStatus.Format;
+import com.example.order_service.model.ExportStatus.State;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exports all orders to a CSV or NDJSON file in {@code order-export.directory},
+ * in the background. Each shard's orders are read in ID order from a
+ * forward-only cursor, {@code fetch-size} rows at a time, and written through
+ * a direct buffer of {@code buffer-size} to a {@link FileChannel}, so an
+ * export of any size runs in constant memory.
+ *
+ * Every {@code checkpoint-rows} orders the file is forced to disk and the
+ * export's status is saved next to it, as its checkpoint. An export that
+ * stopped, with the service or on an error, resumes from its last checkpoint:
+ * the file is cut back to the checkpoint's length and the cursor starts after
+ * the last order written. Exports that were running when the service stopped
+ * resume when it starts again, failed ones when asked to. An export whose
+ * checkpoint cannot be read is failed, and starts over when resumed.
+ *
+ * At most {@code max-running} exports run at once. Finished exports are
+ * forgotten {@code keep-finished} after they completed or failed: their
+ * checkpoint is deleted, and so is the partial file of a failed one, which
+ * can then no longer be resumed.
+ *
+ * Reads are read-only transactions, served by a read replica when
+ * {@code read-replicas} are configured.
+ */
+@Component
+@ConditionalOnProperty(name = "order-export.enabled", havingValue = "true")
+public class OrderExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExporter.class);
+
+    private static final String QUERY = "SELECT id, customer_id, product, quantity, created_at, version FROM orders "
+            + "WHERE id > ? ORDER BY id";
+    private static final String CSV_HEADER = "id,customer_id,product,quantity,created_at,version\n";
+    private static final DateTimeFormatter CREATED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int bufferSize;
+    private final int fetchSize;
+    private final long checkpointRows;
+    private final int maxRunning;
+    private final Duration keepFinished;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean running = true;
+
+    public OrderExporter(JdbcTemplate jdbcTemplate, Shards shards, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${order-export.directory:${java.io.tmpdir}/order-exports}") Path directory,
+            @Value("${order-export.buffer-size:4MB}") DataSize bufferSize,
+            @Value("${order-export.fetch-size:1000}") int fetchSize,
+            @Value("${order-export.checkpoint-rows:100000}") long checkpointRows,
+            @Value("${order-export.max-running:2}") int maxRunning,
+            @Value("${order-export.keep-finished:1d}") Duration keepFinished) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.bufferSize = Math.toIntExact(bufferSize.toBytes());
+        this.fetchSize = fetchSize;
+        this.checkpointRows = checkpointRows;
+        this.maxRunning = maxRunning;
+        this.keepFinished = keepFinished;
+    }
+
+    @PostConstruct
+    void start() {
+        resumeInterrupted();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Job job : jobs.values()) {
+            if (job.thread != null) {
+                job.thread.join();
+            }
+        }
+    }
+
+    /**
+     * Loads the exports in the directory, and resumes those that were running
+     * when the service stopped.
+     */
+    public void resumeInterrupted() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> checkpoints = Files.newDirectoryStream(directory, "*.json")) {
+                for (Path checkpoint : checkpoints) {
+                    ExportStatus status = load(checkpoint);
+                    Job job = new Job(status);
+                    jobs.put(status.id(), job);
+                    if (status.state() == State.RUNNING) {
+                        logger.info("Resuming order export {} after {} orders", status.id(), status.rows());
+                        launch(job);
+                    } else {
+                        job.finishedAt = Files.getLastModifiedTime(checkpoint).toInstant();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not load the order exports in " + directory, ex);
+        }
+    }
+
+    // an unreadable checkpoint fails its export, which then starts over when resumed
+    private ExportStatus load(Path checkpoint) {
+        try {
+            return objectMapper.readValue(checkpoint.toFile(), ExportStatus.class);
+        } catch (IOException ex) {
+            String name = checkpoint.getFileName().toString();
+            String id = name.substring(0, name.length() - ".json".length());
+            logger.error("Order export {} failed, its checkpoint {} cannot be read", id, checkpoint, ex);
+            Format format = Files.exists(directory.resolve("orders-" + id + ".ndjson")) ? Format.NDJSON : Format.CSV;
+            Path file = directory.resolve("orders-" + id + "." + format.name().toLowerCase());
+            return new ExportStatus(id, format, State.FAILED, file.toString(), 0, 0, 0, Long.MIN_VALUE, 0,
+                    "Unreadable checkpoint: " + ex);
+        }
+    }
+
+    /**
+     * Starts exporting all orders.
+     *
+     * @param format The format of the file.
+     * @return The status of the new export.
+     * @throws ServiceUnavailableException if {@code max-running} exports are
+     *                                     running.
+     */
+    public ExportStatus start(Format format) {
+        evictFinished();
+        String id = UUID.randomUUID().toString();
+        Path file = directory.resolve("orders-" + id + "." + format.name().toLowerCase());
+        ExportStatus status = new ExportStatus(id, format, State.RUNNING, file.toString(), 0, 0, 0, Long.MIN_VALUE,
+                0, null);
+        Job job = new Job(status);
+        lock.lock();
+        try {
+            checkRunning();
+            save(status);
+            jobs.put(id, job);
+            launch(job);
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Started order export {} to {}", id, file);
+        return job.status();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if there is no export with the ID.
+     */
+    public ExportStatus status(String id) {
+        return job(id).status();
+    }
+
+    /**
+     * Resumes a failed export from its last checkpoint.
+     *
+     * @throws ResourceNotFoundException if there is no export with the ID.
+     * @throws BadRequestException       if the export has not failed.
+     * @throws ServiceUnavailableException if {@code max-running} exports are
+     *                                     running.
+     */
+    public ExportStatus resume(String id) {
+        Job job = job(id);
+        lock.lock();
+        try {
+            if (job.checkpoint.state() != State.FAILED) {
+                throw new BadRequestException(
+                        "Only failed exports can be resumed, export " + id + " is " + job.checkpoint.state());
+            }
+            checkRunning();
+            ExportStatus from = job.checkpoint;
+            job.checkpoint = from.with(State.RUNNING, from.rows(), 0, from.shard(), from.lastId(), from.position(),
+                    null);
+            save(job.checkpoint);
+            job.finishedAt = null;
+            launch(job);
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Resuming order export {} after {} orders", id, job.checkpoint.rows());
+        return job.status();
+    }
+
+    // called with the lock held, which every export is started under
+    private void checkRunning() {
+        long running = jobs.values().stream().filter(job -> job.checkpoint.state() == State.RUNNING).count();
+        if (running >= maxRunning) {
+            throw new ServiceUnavailableException(
+                    running + " order exports are running already. Please try again when one has finished.");
+        }
+    }
+
+    /**
+     * Forgets the exports that finished more than {@code keep-finished} ago.
+     */
+    public void evictFinished() {
+        Instant before = Instant.now().minus(keepFinished);
+        lock.lock();
+        try {
+            for (Job job : List.copyOf(jobs.values())) {
+                Instant finishedAt = job.finishedAt;
+                if (finishedAt == null || !finishedAt.isBefore(before)) {
+                    continue;
+                }
+                ExportStatus status = job.checkpoint;
+                try {
+                    Files.deleteIfExists(directory.resolve(status.id() + ".json"));
+                    // a failed export cannot be resumed any more
+                    if (status.state() == State.FAILED) {
+                        Files.deleteIfExists(Path.of(status.file()));
+                    }
+                } catch (IOException ex) {
+                    logger.warn("Could not delete order export {}", status.id(), ex);
+                    continue;
+                }
+                jobs.remove(status.id());
+                logger.info("Evicted {} order export {}", status.state().name().toLowerCase(), status.id());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Job job(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export not found with id: " + id);
+        }
+        return job;
+    }
+
+    private void launch(Job job) {
+        job.rows = job.checkpoint.rows();
+        job.runRows = job.rows;
+        job.runStarted = System.nanoTime();
+        job.thread = Thread.ofPlatform().name("order-export").daemon().start(() -> export(job));
+    }
+
+    private void export(Job job) {
+        ExportStatus from = job.checkpoint;
+        try (FileChannel channel = FileChannel.open(Path.of(from.file()), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            // anything past the checkpoint was written by the run that stopped
+            channel.truncate(from.position());
+            channel.position(from.position());
+            Sink sink = new Sink(channel, ByteBuffer.allocateDirect(bufferSize));
+            if (from.position() == 0 && from.format() == Format.CSV) {
+                sink.write(CSV_HEADER);
+            }
+            for (int shard = from.shard(); shard < shards.count(); shard++) {
+                int target = shard;
+                long after = shard == from.shard() ? from.lastId() : Long.MIN_VALUE;
+                boolean completed = shards.on(shard,
+                        () -> readOnlyTransaction.execute(status -> exportShard(job, target, after, sink)));
+                if (!completed) {
+                    logger.info("Stopped order export {} after {} orders", from.id(), job.rows);
+                    return;
+                }
+            }
+            job.checkpoint = job.checkpoint.with(State.COMPLETED, job.rows, job.rate(), job.checkpoint.shard(),
+                    job.checkpoint.lastId(), job.checkpoint.position(), null);
+            save(job.checkpoint);
+            job.finishedAt = Instant.now();
+            logger.info("Completed order export {} with {} orders", from.id(), job.rows);
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Order export {} failed after {} orders", from.id(), job.rows, ex);
+            lock.lock();
+            try {
+                ExportStatus last = job.checkpoint;
+                job.checkpoint = last.with(State.FAILED, last.rows(), job.rate(), last.shard(), last.lastId(),
+                        last.position(), ex.toString());
+                save(job.checkpoint);
+            } finally {
+                job.finishedAt = Instant.now();
+                lock.unlock();
+            }
+        }
+    }
+
+    // true once every order of the shard is written, false if stopped
+    private boolean exportShard(Job job, int shard, long after, Sink sink) {
+        Format format = job.checkpoint.format();
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(QUERY, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            // MariaDB streams the rows fetchSize at a time instead of reading
+            // the whole result into memory
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, after);
+            return statement;
+        }, resultSet -> {
+            long lastId = after;
+            long sinceCheckpoint = 0;
+            while (resultSet.next()) {
+                lastId = resultSet.getLong(1);
+                sink.write(format == Format.CSV ? csv(resultSet) : ndjson(resultSet));
+                job.rows++;
+                if (++sinceCheckpoint == checkpointRows || !running) {
+                    checkpoint(job, shard, lastId, sink);
+                    sinceCheckpoint = 0;
+                    if (!running) {
+                        return false;
+                    }
+                }
+            }
+            checkpoint(job, shard + 1, Long.MIN_VALUE, sink);
+            return true;
+        });
+    }
+
+    private void checkpoint(Job job, int shard, long lastId, Sink sink) {
+        sink.flush();
+        try {
+            sink.channel.force(false);
+            job.checkpoint = job.checkpoint.with(State.RUNNING, job.rows, job.rate(), shard, lastId,
+                    sink.channel.position(), null);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        save(job.checkpoint);
+    }
+
+    // replaced in one move, so a crash leaves the previous checkpoint
+    private void save(ExportStatus status) {
+        Path checkpoint = directory.resolve(status.id() + ".json");
+        Path next = directory.resolve(status.id() + ".json.tmp");
+        try {
+            objectMapper.writeValue(next.toFile(), status);
+            Files.move(next, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not save the checkpoint of order export " + status.id(), ex);
+        }
+    }
+
+    private static String csv(ResultSet row) throws SQLException {
+        return new StringBuilder(128)
+                .append(row.getLong(1)).append(',')
+                .append(row.getLong(2)).append(',')
+                .append(csvField(row.getString(3))).append(',')
+                .append(row.getInt(4)).append(',')
+                .append(row.getObject(5, LocalDateTime.class).format(CREATED_AT)).append(',')
+                .append(row.getLong(6)).append('\n')
+                .toString();
+    }
+
+    // field names and date format as in the order JSON of the API
+    private static String ndjson(ResultSet row) throws SQLException {
+        return new StringBuilder(160)
+                .append("{\"id\":").append(row.getLong(1))
+                .append(",\"customerId\":").append(row.getLong(2))
+                .append(",\"product\":").append(jsonString(row.getString(3)))
+                .append(",\"quantity\":").append(row.getInt(4))
+                .append(",\"createdAt\":\"").append(row.getObject(5, LocalDateTime.class).format(CREATED_AT))
+                .append("\",\"version\":").append(row.getLong(6))
+                .append("}\n")
+                .toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * An export and the thread running it. Only that thread writes the counts.
+     */
+    private static final class Job {
+
+        volatile ExportStatus checkpoint;
+        volatile long rows;
+        // the rows and time at the start of the current run
+        volatile long runRows;
+        volatile long runStarted;
+        // when it completed or failed, null while it runs
+        volatile Instant finishedAt;
+        Thread thread;
+
+        Job(ExportStatus checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        ExportStatus status() {
+            ExportStatus current = checkpoint;
+            if (current.state() != State.RUNNING) {
+                return current;
+            }
+            return current.with(State.RUNNING, rows, rate(), current.shard(), current.lastId(), current.position(),
+                    null);
+        }
+
+        double rate() {
+            long elapsed = System.nanoTime() - runStarted;
+            return elapsed <= 0 ? 0 : (rows - runRows) * 1_000_000_000d / elapsed;
+        }
+    }
+
+    /**
+     * Fills the buffer and writes it out whole.
+     */
+    private static final class Sink {
+
+        final FileChannel channel;
+        final ByteBuffer buffer;
+
+        Sink(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        void write(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        void flush() {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) {
+            try {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.order_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+import com.example.read_replicas.ReadYourWrites;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Saves new orders in group commits: callers queue their order and block,
+ * while one writer thread collects the queue for up to {@code max-delay} or
+ * {@code max-batch} orders and saves them in one transaction per shard, so
+ * concurrent requests share a commit instead of paying for one each.
+ *
+ * If a batch fails, its orders are saved again one transaction each, so only
+ * the callers whose order is at fault get the error. A caller waits at most
+ * {@code timeout}: an order still queued then is dropped, one already being
+ * committed may yet be saved, and the caller gets a 503 either way.
+ *
+ * The commit runs on the writer thread, so the caller starts its own
+ * read-your-writes window once its order is saved.
+ */
+@Component
+@ConditionalOnProperty(name = "group-commit.orders.enabled", havingValue = "true")
+public class OrderGroupCommit {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderGroupCommit.class);
+
+    private record Pending(Order order, Long id, CompletableFuture<Order> result) {
+    }
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final OrderRepository orderRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+    private final int maxBatch;
+    private final Duration maxDelay;
+    private final Duration timeout;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public OrderGroupCommit(OrderRepository orderRepository, Shards shards,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            ObjectProvider<ReadYourWrites> readYourWrites,
+            @Value("${group-commit.orders.max-batch:100}") int maxBatch,
+            @Value("${group-commit.orders.max-delay:5ms}") Duration maxDelay,
+            @Value("${group-commit.orders.timeout:5s}") Duration timeout) {
+        this.orderRepository = orderRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readYourWrites = readYourWrites;
+        this.maxBatch = maxBatch;
+        this.maxDelay = maxDelay;
+        this.timeout = timeout;
+        this.batchSizes = DistributionSummary.builder("orders.group-commit.batch.size")
+                .description("Orders saved per group commit")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = Thread.ofPlatform().name("order-group-commit").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join();
+        // save what was queued before shutdown
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    /**
+     * Saves a new order in the next group commit.
+     *
+     * @param order The order to save.
+     * @return The saved order, with its generated ID.
+     * @throws ServiceUnavailableException if the order was not saved within
+     *                                     {@code timeout}.
+     */
+    public Order save(Order order) {
+        Pending pending = new Pending(order, order.getId(), new CompletableFuture<>());
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Order group commit is shut down");
+        }
+        Order saved;
+        try {
+            saved = pending.result().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                if (queue.remove(pending)) {
+                    logger.error("Order not committed within {}, dropped it from the queue", timeout);
+                    throw new ServiceUnavailableException("The order could not be saved in time. Please try again.");
+                }
+                logger.error("Order not committed within {}, its commit is still running", timeout);
+                throw new ServiceUnavailableException(
+                        "The order was not confirmed in time and may have been saved. Please check before retrying.");
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        readYourWrites.ifAvailable(ReadYourWrites::stickToPrimary);
+        return saved;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < maxBatch) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                queue.addAll(batch);
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Group commit of {} orders failed", batch.size(), ex);
+                batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        Map<Integer, List<Pending>> byShard = batch.stream()
+                .collect(Collectors.groupingBy(pending -> shards.shardOf(pending.order().getCustomerId())));
+        byShard.forEach((shard, orders) -> shards.on(shard, () -> {
+            commit(orders);
+            return null;
+        }));
+    }
+
+    private void commit(List<Pending> batch) {
+        try {
+            List<Order> saved = transactionTemplate.execute(status -> batch.stream()
+                    .map(pending -> orderRepository.save(pending.order()))
+                    .toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(ex);
+                return;
+            }
+            logger.warn("Group commit of {} orders failed, saving them one by one: {}", batch.size(),
+                    ex.getMessage());
+            for (Pending pending : batch) {
+                // the rolled back batch may have assigned IDs
+                pending.order().setId(pending.id());
+                try {
+                    pending.result().complete(orderRepository.save(pending.order()));
+                } catch (RuntimeException orderEx) {
+                    pending.result().completeExceptionally(orderEx);
+                }
+            }
+        }
+    }
+}
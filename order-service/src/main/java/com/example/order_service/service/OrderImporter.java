@@ -0,0 +1,596 @@
+package com.example.order_service.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.ResourceNotFoundException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.ImportStatus;
+import com.example.order_service.model.ImportStatus.LineError;
+import com.example.order_service.model.ImportStatus.State;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.TimeOrderedIdGenerator;
+import com.example.order_service.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Imports orders from a CSV or NDJSON file in {@code order-import.directory},
+ * in the background. CSV files start with a header naming their columns,
+ * NDJSON files hold one order object per line, as written by the exports;
+ * IDs and versions in the file are ignored, the orders get new ones. Fields
+ * cannot span lines.
+ *
+ * The file is split into chunks of about {@code chunk-size} at line ends,
+ * and each chunk is memory-mapped and parsed on one of {@code parallelism}
+ * threads, twice: the first pass collects the distinct customer IDs, which
+ * are then looked up in customer-service at once, and the second inserts the
+ * valid orders in JDBC batches of {@code batch-size}, each in a transaction
+ * of its own on the customer's shard. The mapped pages are read from the page
+ * cache the second time, so parsing twice costs less than keeping the orders.
+ *
+ * Lines that cannot be parsed, fail validation, belong to an unknown customer
+ * or fail to insert are rejected and reported with their line number; the
+ * rest of the file is still imported.
+ *
+ * At most {@code max-running} imports run at once, and finished imports are
+ * forgotten {@code keep-finished} after they completed or failed.
+ */
+@Component
+@ConditionalOnProperty(name = "order-import.enabled", havingValue = "true")
+public class OrderImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderImporter.class);
+
+    private static final String INSERT = "INSERT INTO orders (id, customer_id, product, quantity, created_at, "
+            + "version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final DateTimeFormatter CREATED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerClient customerClient;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<RecentOrderIndex> recentOrders;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long chunkSize;
+    private final int parallelism;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxRunning;
+    private final Duration keepFinished;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public OrderImporter(JdbcTemplate jdbcTemplate, Shards shards, PlatformTransactionManager transactionManager,
+            CustomerClient customerClient, EntityManagerFactory entityManagerFactory,
+            ObjectProvider<RecentOrderIndex> recentOrders, ObjectMapper objectMapper,
+            @Value("${order-import.directory:${java.io.tmpdir}/order-imports}") Path directory,
+            @Value("${order-import.chunk-size:16MB}") DataSize chunkSize,
+            @Value("${order-import.parallelism:0}") int parallelism,
+            @Value("${order-import.batch-size:1000}") int batchSize,
+            @Value("${order-import.max-errors:100}") int maxErrors,
+            @Value("${order-import.max-running:2}") int maxRunning,
+            @Value("${order-import.keep-finished:1d}") Duration keepFinished) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.customerClient = customerClient;
+        this.entityManagerFactory = entityManagerFactory;
+        this.recentOrders = recentOrders;
+        this.objectMapper = objectMapper;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.chunkSize = chunkSize.toBytes();
+        // 0 for one thread per core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxRunning = maxRunning;
+        this.keepFinished = keepFinished;
+    }
+
+    /**
+     * Starts importing a file.
+     *
+     * @param fileName The name of a .csv or .ndjson file in the import
+     *                 directory.
+     * @return The status of the new import.
+     * @throws BadRequestException       if the file is outside the import
+     *                                   directory or of another type.
+     * @throws ResourceNotFoundException if the file does not exist.
+     * @throws ServiceUnavailableException if {@code max-running} imports are
+     *                                     running.
+     */
+    public ImportStatus start(String fileName) {
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory)) {
+            throw new BadRequestException("File must be in the import directory");
+        }
+        String name = file.getFileName().toString().toLowerCase();
+        if (!name.endsWith(".csv") && !name.endsWith(".ndjson")) {
+            throw new BadRequestException("File must be a .csv or .ndjson file");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Import file not found: " + fileName);
+        }
+        evictFinished();
+        Job job = new Job(UUID.randomUUID().toString(), file, name.endsWith(".csv"));
+        lock.lock();
+        try {
+            long running = jobs.values().stream().filter(other -> other.state == State.RUNNING).count();
+            if (running >= maxRunning) {
+                throw new ServiceUnavailableException(
+                        running + " order imports are running already. Please try again when one has finished.");
+            }
+            jobs.put(job.id, job);
+            Thread.ofPlatform().name("order-import").daemon().start(() -> run(job));
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Started order import {} from {}", job.id, file);
+        return job.status();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if there is no import with the ID.
+     */
+    public ImportStatus status(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import not found with id: " + id);
+        }
+        return job.status();
+    }
+
+    /**
+     * Forgets the imports that finished more than {@code keep-finished} ago.
+     */
+    public void evictFinished() {
+        long before = System.nanoTime() - keepFinished.toNanos();
+        jobs.values().removeIf(job -> job.state != State.RUNNING && job.finished - before < 0);
+    }
+
+    private void run(Job job) {
+        try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ);
+                ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                        Thread.ofPlatform().name("order-import-", 0).daemon().factory())) {
+            long size = channel.size();
+            long start = 0;
+            Function<String, Row> parser = this::ndjson;
+            if (job.csv) {
+                start = lineEnd(channel, 0, size);
+                String header = new String(read(channel, 0, start), StandardCharsets.UTF_8).strip();
+                parser = csvParser(header);
+            }
+            List<Chunk> chunks = chunks(channel, start, size);
+            Function<String, Row> parse = parser;
+
+            // first pass: count the lines of every chunk and collect the customers
+            Set<Long> customerIds = ConcurrentHashMap.newKeySet();
+            List<List<LineError>> parseErrors = inParallel(workers, chunks, chunk -> {
+                List<LineError> errors = new ArrayList<>();
+                chunk.lines = forEachLine(channel, chunk, (line, text) -> {
+                    try {
+                        customerIds.add(parse.apply(text).customerId());
+                    } catch (IllegalArgumentException ex) {
+                        errors.add(new LineError(line, ex.getMessage()));
+                    }
+                });
+                return errors;
+            });
+            // the header is line 1 of a CSV file
+            long firstLine = job.csv ? 1 : 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                chunks.get(i).firstLine = firstLine;
+                for (LineError error : parseErrors.get(i)) {
+                    job.reject(firstLine + error.line(), error.message());
+                }
+                firstLine += chunks.get(i).lines;
+            }
+
+            Set<Long> existing = customerClient.getCustomers(customerIds).keySet();
+            logger.info("Order import {} found {} of {} customers", job.id, existing.size(), customerIds.size());
+
+            // second pass: insert the valid orders of every chunk
+            TimeOrderedIdGenerator ids = idGenerator();
+            inParallel(workers, chunks, chunk -> {
+                List<Row> batch = new ArrayList<>(batchSize);
+                forEachLine(channel, chunk, (line, text) -> {
+                    job.read.incrementAndGet();
+                    Row row;
+                    try {
+                        row = parse.apply(text).at(chunk.firstLine + line);
+                    } catch (IllegalArgumentException ex) {
+                        // rejected in the first pass
+                        return;
+                    }
+                    if (!existing.contains(row.customerId())) {
+                        job.reject(row.line(), "Customer not found with id: " + row.customerId());
+                        return;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        insert(job, batch, ids);
+                        batch.clear();
+                    }
+                });
+                insert(job, batch, ids);
+                return null;
+            });
+            job.finish(State.COMPLETED, null);
+            logger.info("Completed order import {}: {} orders imported, {} rejected", job.id, job.imported.get(),
+                    job.rejected.get());
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Order import {} failed", job.id, ex);
+            job.finish(State.FAILED, ex.toString());
+        } finally {
+            // the rows were inserted in plain SQL, behind Hibernate's back
+            entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class)
+                    .evictQueryRegion(OrderRepository.SORTED_CACHE_REGION);
+            recentOrders.ifAvailable(RecentOrderIndex::reload);
+        }
+    }
+
+    // one transaction per shard; a failed batch is retried row by row, so
+    // only the rows at fault are rejected
+    private void insert(Job job, List<Row> batch, TimeOrderedIdGenerator ids) {
+        Map<Integer, List<Row>> byShard = batch.stream()
+                .collect(Collectors.groupingBy(row -> shards.shardOf(row.customerId())));
+        byShard.forEach((shard, rows) -> shards.on(shard, () -> {
+            List<Object[]> values = rows.stream()
+                    .map(row -> new Object[] { ids.nextId(), row.customerId(), row.product(), row.quantity(),
+                            row.createdAt() })
+                    .toList();
+            try {
+                transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT, values));
+                job.imported.addAndGet(rows.size());
+            } catch (RuntimeException ex) {
+                for (int i = 0; i < rows.size(); i++) {
+                    try {
+                        jdbcTemplate.update(INSERT, values.get(i));
+                        job.imported.incrementAndGet();
+                    } catch (RuntimeException rowEx) {
+                        job.reject(rows.get(i).line(), "Insert failed: " + rowEx.getMessage());
+                    }
+                }
+            }
+            return null;
+        }));
+    }
+
+    // Hibernate's own instance, so the IDs never collide with those of the
+    // orders saved through JPA at the same time
+    private TimeOrderedIdGenerator idGenerator() {
+        return (TimeOrderedIdGenerator) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(Order.class).getGenerator();
+    }
+
+    private static <T> List<T> inParallel(ExecutorService workers, List<Chunk> chunks, ChunkTask<T> task) {
+        List<CompletableFuture<T>> results = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.run(chunk);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }, workers))
+                .toList();
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // splits the file into chunks of about chunkSize that end at line ends
+    private List<Chunk> chunks(FileChannel channel, long start, long size) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = lineEnd(channel, Math.min(size, start + chunkSize) - 1, size);
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    // the position after the first line end at or after from
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte[] read(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    // calls back with every line of the chunk and its number in the chunk,
+    // from 1; returns the number of lines
+    private static long forEachLine(FileChannel channel, Chunk chunk, LineHandler handler) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        int limit = mapped.limit();
+        long line = 0;
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit ? lineStart < limit : mapped.get(i) == '\n') {
+                int length = i - lineStart;
+                if (length > 0 && mapped.get(lineStart + length - 1) == '\r') {
+                    length--;
+                }
+                line++;
+                if (length > 0) {
+                    byte[] bytes = new byte[length];
+                    mapped.get(lineStart, bytes);
+                    handler.line(line, new String(bytes, StandardCharsets.UTF_8));
+                }
+                lineStart = i + 1;
+            }
+        }
+        return line;
+    }
+
+    private Function<String, Row> csvParser(String header) {
+        List<String> columns = csvFields(header);
+        int customerId = column(columns, "customer_id", "customerId");
+        int product = column(columns, "product", "product");
+        int quantity = column(columns, "quantity", "quantity");
+        int createdAt = columns.indexOf("created_at") >= 0 ? columns.indexOf("created_at")
+                : columns.indexOf("createdAt");
+        return text -> {
+            List<String> fields = csvFields(text);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            return row(customerId(fields.get(customerId)), fields.get(product), quantity(fields.get(quantity)),
+                    createdAt >= 0 ? fields.get(createdAt) : null);
+        };
+    }
+
+    private static int column(List<String> columns, String name, String alternative) {
+        int index = columns.indexOf(name) >= 0 ? columns.indexOf(name) : columns.indexOf(alternative);
+        if (index < 0) {
+            throw new BadRequestException("CSV header has no " + name + " column");
+        }
+        return index;
+    }
+
+    private Row ndjson(String text) {
+        JsonNode order;
+        try {
+            order = objectMapper.readTree(text);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+        }
+        JsonNode customerId = order.path("customerId");
+        if (!customerId.isIntegralNumber()) {
+            throw new IllegalArgumentException("Customer ID must be a number");
+        }
+        JsonNode quantity = order.path("quantity");
+        return row(customerId.asLong(), order.path("product").asText(null),
+                quantity.isIntegralNumber() && quantity.canConvertToInt() ? quantity.asInt() : null,
+                order.path("createdAt").asText(null));
+    }
+
+    // validated as by OrderService.createOrder
+    private static Row row(Long customerId, String product, Integer quantity, String createdAt) {
+        if (product == null || product.isEmpty()) {
+            throw new IllegalArgumentException("Product cannot be null or empty");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        LocalDateTime created;
+        try {
+            created = createdAt == null || createdAt.isEmpty() ? LocalDateTime.now()
+                    : LocalDateTime.parse(createdAt, CREATED_AT);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Created at must be formatted as yyyy-MM-dd HH:mm:ss");
+        }
+        return new Row(0, customerId, product, quantity, created);
+    }
+
+    private static Long customerId(String value) {
+        try {
+            return Long.valueOf(value.strip());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Customer ID must be a number");
+        }
+    }
+
+    private static Integer quantity(String value) {
+        try {
+            return Integer.valueOf(value.strip());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+    }
+
+    // fields may be quoted, with quotes in them doubled, as in the exports
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long line, Long customerId, String product, Integer quantity, LocalDateTime createdAt) {
+
+        Row at(long line) {
+            return new Row(line, customerId, product, quantity, createdAt);
+        }
+    }
+
+    /**
+     * A part of the file that starts and ends at line ends.
+     */
+    private static final class Chunk {
+
+        final long start;
+        final long end;
+        // known after the first pass
+        long lines;
+        long firstLine;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineHandler {
+        void line(long line, String text);
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask<T> {
+        T run(Chunk chunk) throws IOException;
+    }
+
+    private final class Job {
+
+        final String id;
+        final Path file;
+        final boolean csv;
+        final long started = System.nanoTime();
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<LineError> errors = new ArrayList<>();
+        final ReentrantLock errorsLock = new ReentrantLock();
+        volatile State state = State.RUNNING;
+        volatile String error;
+        volatile long finished;
+
+        Job(String id, Path file, boolean csv) {
+            this.id = id;
+            this.file = file;
+            this.csv = csv;
+        }
+
+        void reject(long line, String message) {
+            rejected.incrementAndGet();
+            errorsLock.lock();
+            try {
+                errors.add(new LineError(line, message));
+                // keeps the first lines, whatever order the chunks report in
+                if (errors.size() > maxErrors) {
+                    errors.sort(Comparator.comparingLong(LineError::line));
+                    errors.remove(errors.size() - 1);
+                }
+            } finally {
+                errorsLock.unlock();
+            }
+        }
+
+        void finish(State state, String error) {
+            this.finished = System.nanoTime();
+            this.error = error;
+            this.state = state;
+        }
+
+        ImportStatus status() {
+            long elapsed = (state == State.RUNNING ? System.nanoTime() : finished) - started;
+            List<LineError> firstErrors;
+            errorsLock.lock();
+            try {
+                firstErrors = new ArrayList<>(errors);
+            } finally {
+                errorsLock.unlock();
+            }
+            firstErrors.sort(Comparator.comparingLong(LineError::line));
+            return new ImportStatus(id, file.toString(), state, read.get(), imported.get(), rejected.get(),
+                    elapsed <= 0 ? 0 : imported.get() * 1_000_000_000d / elapsed, firstErrors, error);
+        }
+    }
+}
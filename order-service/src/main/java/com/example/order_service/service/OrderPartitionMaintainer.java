@@ -0,0 +1,195 @@
+package com.example.order_service.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.order_service.datasource.Shards;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the monthly partitions of the orders table, see db.sql, ahead of
+ * time. Every {@code check-interval} the catch-all partition is split so each
+ * of the next {@code months-ahead} months has a partition of its own, and the
+ * partitions of months that ended before the archiving cutoff,
+ * {@code order-archive.max-age} ago, are dropped once the archiver has emptied
+ * them. Splitting only moves the rows of the catch-all partition, which stays
+ * empty while the months are added ahead of time.
+ *
+ * An order can still be written into an emptied month, by an import of old
+ * orders for example, so the orders table is write-locked from the check that
+ * the partition is empty until it is dropped; the check only reads one row of
+ * a partition that the archiver keeps empty, so writers wait briefly.
+ *
+ * Runs on the primary of every shard. Databases without partitions, such as
+ * H2, and an orders table that was created unpartitioned are left alone.
+ */
+@Component
+@ConditionalOnProperty(name = "order-partitions.enabled", havingValue = "true")
+public class OrderPartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPartitionMaintainer.class);
+
+    private static final String CATCH_ALL = "pmax";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final int monthsAhead;
+    private final Duration checkInterval;
+    private final Duration archiveMaxAge;
+    private ScheduledExecutorService maintainer;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate, Shards shards,
+            @Value("${order-partitions.months-ahead:3}") int monthsAhead,
+            @Value("${order-partitions.check-interval:1d}") Duration checkInterval,
+            @Value("${order-archive.max-age:365d}") Duration archiveMaxAge) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.monthsAhead = monthsAhead;
+        this.checkInterval = checkInterval;
+        this.archiveMaxAge = archiveMaxAge;
+    }
+
+    @PostConstruct
+    void start() {
+        maintainer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-partitions").daemon().factory());
+        maintainer.scheduleWithFixedDelay(this::maintain, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        maintainer.shutdownNow();
+    }
+
+    /**
+     * Adds the missing months and drops the empty archived ones, on every
+     * shard.
+     * Another instance doing the same at the same time makes one of them fail
+     * on a partition that already exists or is gone; the next check starts
+     * from the partitions as they are then.
+     */
+    public void maintain() {
+        try {
+            shards.onEach(() -> {
+                maintainShard();
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            logger.error("Could not maintain the order partitions", ex);
+        }
+    }
+
+    private void maintainShard() {
+        Optional<List<String>> partitions = partitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        List<YearMonth> months = partitions.get().stream()
+                .map(OrderPartitionMaintainer::month)
+                .flatMap(Optional::stream)
+                .sorted()
+                .toList();
+        YearMonth current = YearMonth.now();
+        addMonths(months, current, partitions.get().contains(CATCH_ALL));
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveMaxAge);
+        for (YearMonth month : months) {
+            if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff) && dropIfEmpty(month)) {
+                logger.info("Dropped the empty order partition for {}", month);
+            }
+        }
+    }
+
+    // the table lock keeps writers out between the check and the drop; DDL
+    // commits, but does not release the lock
+    private boolean dropIfEmpty(YearMonth month) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LOCK TABLES orders WRITE");
+                try {
+                    if (!isEmpty(statement, month)) {
+                        return false;
+                    }
+                    statement.execute("ALTER TABLE orders DROP PARTITION " + month.format(NAME));
+                    return true;
+                } finally {
+                    statement.execute("UNLOCK TABLES");
+                }
+            }
+        });
+    }
+
+    // the partitions of the orders table, empty if it has none
+    private Optional<List<String>> partitions() {
+        String database = jdbcTemplate
+                .execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MariaDB".equalsIgnoreCase(database) && !"MySQL".equalsIgnoreCase(database)) {
+            return Optional.empty();
+        }
+        List<String> partitions = jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+        return partitions.isEmpty() ? Optional.empty() : Optional.of(partitions);
+    }
+
+    private void addMonths(List<YearMonth> months, YearMonth current, boolean catchAll) {
+        YearMonth last = months.isEmpty() ? current.minusMonths(1) : months.get(months.size() - 1);
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(current.plusMonths(monthsAhead)); month = month
+                .plusMonths(1)) {
+            missing.add(month);
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        String added = missing.stream()
+                .map(month -> "PARTITION " + month.format(NAME) + " VALUES LESS THAN ('"
+                        + month.plusMonths(1).atDay(1) + "')")
+                .collect(Collectors.joining(", "));
+        // rows cannot go past a MAXVALUE partition, so months are split off it
+        jdbcTemplate.execute(catchAll
+                ? "ALTER TABLE orders REORGANIZE PARTITION " + CATCH_ALL + " INTO (" + added + ", PARTITION "
+                        + CATCH_ALL + " VALUES LESS THAN (MAXVALUE))"
+                : "ALTER TABLE orders ADD PARTITION (" + added + ")");
+        logger.info("Added order partitions for {} to {}", missing.get(0), missing.get(missing.size() - 1));
+    }
+
+    private static boolean isEmpty(Statement statement, YearMonth month) throws SQLException {
+        try (ResultSet rows = statement
+                .executeQuery("SELECT 1 FROM orders PARTITION (" + month.format(NAME) + ") LIMIT 1")) {
+            return !rows.next();
+        }
+    }
+
+    // the month of a partition named like p202503, empty for other partitions
+    private static Optional<YearMonth> month(String partition) {
+        try {
+            return Optional.of(YearMonth.parse(partition, NAME));
+        } catch (DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,34 +1,55 @@
 package com.example.order_service.service;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.example.order_service.cache.OrderCacheEviction;
+import com.example.order_service.cache.OrderChangeFeed;
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.client.CustomerLookup;
+import com.example.order_service.datasource.Shards;
 import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.PreconditionFailedException;
 import com.example.order_service.exception.ResourceNotFoundException;
-import com.example.order_service.exception.ServiceUnavailableException;
 import com.example.order_service.model.Customer;
 import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
 // import com.example.order_service.repository.CustomerRepository;
 import com.example.order_service.repository.OrderRepository;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
-
 /**
  * Service class for managing business logic related to orders.
  * This class acts as an intermediary between the controller and repository
  * layers.
+ *
+ * Orders live on the shard of their customer. Work for one customer goes to
+ * that shard; lookups by order ID and the cross-customer listings ask every
+ * shard.
+ *
+ * With {@code recent-orders.enabled} the newest orders and recent date ranges
+ * are answered from the in-memory {@link RecentOrderIndex}, which every write
+ * here keeps up to date. With {@code order-changes.enabled} updates and
+ * deletes are also recorded in the {@link OrderChangeFeed}, for the other
+ * instances' caches.
+ *
+ * With {@code order-archive.enabled} lookups by ID, by customer and by date
+ * also return the orders the {@link OrderArchiver} moved to the archive.
  */
 @Service
 public class OrderService {
@@ -37,14 +58,37 @@ public class OrderService {
 
     @Autowired
     OrderRepository orderRepository;
+
+    @Autowired
+    Shards shards;
+
+    // present when group-commit.orders.enabled
+    @Autowired(required = false)
+    OrderGroupCommit orderGroupCommit;
+
+    // present when recent-orders.enabled
+    @Autowired(required = false)
+    RecentOrderIndex recentOrders;
+
+    // present when order-archive.enabled
+    @Autowired(required = false)
+    OrderArchiver orderArchiver;
     // @Autowired
     // CustomerRepository customerRepository;
 
     @Autowired
-    RestTemplate restTemplate;
+    CustomerLookup customerLookup;
+
+    @Autowired
+    OrderCacheEviction orderCacheEviction;
+
+    // present when order-changes.enabled
+    @Autowired(required = false)
+    OrderChangeFeed orderChanges;
 
     /**
-     * Creates a new order.
+     * Creates a new order. With {@code group-commit.orders.enabled} it is saved
+     * in one transaction together with the orders created concurrently.
      *
      * @param order The order object to be created.
      * @return The created order.
@@ -66,11 +110,16 @@ public class OrderService {
         }
 
         // service discovery
-        // Validate customer existence using RestTemplate
-        ResponseEntity<Customer> customer = getCustomerById(order.getCustomerId());
+        // Validate customer existence through customer-service
+        ResponseEntity<Customer> customer = customerLookup.getCustomer(order.getCustomerId());
         logger.info("Customer validated for order creation: {}", customer.getBody());
 
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = orderGroupCommit != null
+                ? orderGroupCommit.save(order)
+                : shards.forKey(order.getCustomerId(), () -> orderRepository.save(order));
+        if (recentOrders != null) {
+            recentOrders.created(savedOrder);
+        }
         logger.info("Order created successfully: {}", savedOrder);
         return savedOrder;
     }
@@ -83,34 +132,18 @@ public class OrderService {
      */
     public Page<Order> getAllOrders(Long customerId, Pageable pageable) {
         logger.info("Entering getAllOrders method for customerId: {}", customerId);
-        // Validate customer existence using RestTemplate
-        ResponseEntity<Customer> customer = getCustomerById(customerId);
+        // Validate customer existence through customer-service
+        ResponseEntity<Customer> customer = customerLookup.getCustomer(customerId);
         logger.info("Customer validated for retrieving orders: {}", customer.getBody());
 
-        Page<Order> orders = orderRepository.findByCustomerId(customerId, pageable);
+        Page<Order> orders = shards.forKey(customerId, () -> orderRepository.findByCustomerId(customerId, pageable));
+        if (orderArchiver != null) {
+            orders = orderArchiver.withArchived(customerId, orders, pageable);
+        }
         logger.info("Retrieved {} orders for customerId: {}", orders.getTotalElements(), customerId);
         return orders;
     }
 
-    // circuit breaker prevents your app from calling a downstream broken service
-    // again and again.
-    @CircuitBreaker(name = "orderServiceCB", fallbackMethod = "getCustomerByIdFallback")
-    @Retry(name = "orderServiceRetry")
-    public ResponseEntity<Customer> getCustomerById(Long customerId) {
-        logger.info("Fetching customer with ID: {}", customerId);
-        String customerServiceUrl = "http://customer-service/api/customers/" + customerId;
-        ResponseEntity<Customer> response = restTemplate.getForEntity(customerServiceUrl, Customer.class);
-        logger.info("Customer fetched successfully: {}", response.getBody());
-        return response;
-    }
-
-    // fallback method gets called when retries/circuit breaker fail
-    private ResponseEntity<Customer> getCustomerByIdFallback(Long customerId, Throwable ex) {
-        logger.error("Fallback triggered for getCustomerById with customerId: {}. Reason: {}", customerId,
-                ex.getMessage());
-        throw new ServiceUnavailableException("Customer service is unavailable. Please try again later.");
-    }
-
     /**
      * Retrieves a specific order by its ID.
      *
@@ -120,7 +153,8 @@ public class OrderService {
      */
     public Order getOrder(Long id) {
         logger.info("Fetching order with ID: {}", id);
-        Order order = orderRepository.findById(id)
+        Order order = shards.findAny(() -> orderRepository.findById(id))
+                .or(() -> orderArchiver != null ? orderArchiver.find(id) : Optional.empty())
                 .orElseThrow(() -> {
                     logger.error("Order not found with ID: {}", id);
                     return new ResourceNotFoundException("Order not found with id: " + id);
@@ -135,24 +169,118 @@ public class OrderService {
      * @param order The order object containing updated details.
      * @return The updated order.
      * @throws ResourceNotFoundException if the order does not exist.
-     * @throws BadRequestException       if the order object is null or invalid.
+     * @throws BadRequestException       if the order object is null or invalid,
+     *                                   or moves the order to a customer on
+     *                                   another shard.
      */
     public Order updateOrder(Order order) {
+        return updateOrder(order, null);
+    }
+
+    /**
+     * Updates an existing order with a single UPDATE, without reading it first.
+     * The creation date of the stored order is kept, and read back afterwards.
+     *
+     * @param order   The order object containing updated details.
+     * @param version The version the order must have, or null for any version.
+     * @return The updated order with its stored creation date; its version is
+     *         only known when one was given.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws BadRequestException         if the order object is null or
+     *                                     invalid, or moves the order to a
+     *                                     customer on another shard.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public Order updateOrder(Order order, Long version) {
         logger.info("Updating order: {}", order);
         if (order == null || order.getId() == null) {
             logger.error("Invalid order: order or ID is null");
             throw new BadRequestException("Invalid order: order and ID must not be null");
         }
+        if (order.getCustomerId() == null) {
+            logger.error("Invalid order: customer ID is null");
+            throw new BadRequestException("Invalid order: customer ID must not be null");
+        }
+        if (order.getProduct() == null || order.getProduct().isEmpty()) {
+            logger.error("Product is null or empty");
+            throw new BadRequestException("Product cannot be null or empty");
+        }
+        if (order.getQuantity() <= 0) {
+            logger.error("Quantity is invalid: {}", order.getQuantity());
+            throw new BadRequestException("Quantity must be greater than 0");
+        }
 
-        orderRepository.findById(order.getId())
-                .orElseThrow(() -> {
-                    logger.error("Cannot update: Order not found with ID: {}", order.getId());
-                    return new ResourceNotFoundException("Cannot update: Order not found with id: " + order.getId());
-                });
+        // an order on another customer's shard is not found on this one
+        Optional<LocalDateTime> createdAt = shards.forKey(order.getCustomerId(),
+                () -> orderRepository.updateReturningCreatedAt(order.getId(), version, order.getCustomerId(),
+                        order.getProduct(), order.getQuantity()));
+        if (createdAt.isEmpty()) {
+            throw notChanged("update", order.getId(), version, order.getCustomerId());
+        }
+        orderCacheEviction.evict(order.getId());
+        if (orderChanges != null) {
+            orderChanges.changed(order.getId());
+        }
+        if (recentOrders != null) {
+            recentOrders.updated(order.getId(), version, indexed -> {
+                indexed.setCustomerId(order.getCustomerId());
+                indexed.setProduct(order.getProduct());
+                indexed.setQuantity(order.getQuantity());
+            });
+        }
+        if (version != null) {
+            order.setVersion(version + 1);
+        }
+        order.setCreatedAt(createdAt.get());
+        logger.info("Order updated successfully: {}", order);
+        return order;
+    }
+
+    /**
+     * Changes the given fields of an order with a single UPDATE, without
+     * reading it first.
+     *
+     * @param id      The ID of the order.
+     * @param patch   The fields to change.
+     * @param version The version the order must have, or null for any version.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws BadRequestException         if a field is invalid.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public void patchOrder(Long id, OrderPatch patch, Long version) {
+        logger.info("Patching order with ID: {} with {}", id, patch);
+        if (patch == null) {
+            logger.error("Patch is null");
+            throw new BadRequestException("Patch cannot be null");
+        }
+        if (patch.product() != null && patch.product().isEmpty()) {
+            logger.error("Product is empty");
+            throw new BadRequestException("Product cannot be empty");
+        }
+        if (patch.quantity() != null && patch.quantity() <= 0) {
+            logger.error("Quantity is invalid: {}", patch.quantity());
+            throw new BadRequestException("Quantity must be greater than 0");
+        }
 
-        Order updatedOrder = orderRepository.save(order);
-        logger.info("Order updated successfully: {}", updatedOrder);
-        return updatedOrder;
+        int updated = sum(shards.onEach(() -> orderRepository.patch(id, version, patch.product(), patch.quantity())));
+        if (updated == 0) {
+            throw notChanged("update", id, version, null);
+        }
+        orderCacheEviction.evict(id);
+        if (orderChanges != null) {
+            orderChanges.changed(id);
+        }
+        if (recentOrders != null) {
+            recentOrders.updated(id, version, indexed -> {
+                if (patch.product() != null) {
+                    indexed.setProduct(patch.product());
+                }
+                if (patch.quantity() != null) {
+                    indexed.setQuantity(patch.quantity());
+                }
+            });
+        }
+        logger.info("Order patched successfully with ID: {}", id);
     }
 
     /**
@@ -162,17 +290,52 @@ public class OrderService {
      * @throws ResourceNotFoundException if the order does not exist.
      */
     public void deleteOrder(Long id) {
-        logger.info("Deleting order with ID: {}", id);
-        orderRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Cannot delete: Order not found with ID: {}", id);
-                    return new ResourceNotFoundException("Cannot delete: Order not found with id: " + id);
-                });
+        deleteOrder(id, null);
+    }
 
-        orderRepository.deleteById(id);
+    /**
+     * Deletes an order with a single DELETE, without reading it first.
+     *
+     * @param id      The ID of the order to be deleted.
+     * @param version The version the order must have, or null for any version.
+     * @throws ResourceNotFoundException   if the order does not exist.
+     * @throws PreconditionFailedException if the order has another version.
+     */
+    public void deleteOrder(Long id, Long version) {
+        logger.info("Deleting order with ID: {}", id);
+        int deleted = sum(shards.onEach(() -> orderRepository.delete(id, version)));
+        if (deleted == 0) {
+            throw notChanged("delete", id, version, null);
+        }
+        orderCacheEviction.evict(id);
+        if (orderChanges != null) {
+            orderChanges.changed(id);
+        }
+        if (recentOrders != null) {
+            recentOrders.deleted(id);
+        }
         logger.info("Order deleted successfully with ID: {}", id);
     }
 
+    private static int sum(List<Integer> counts) {
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // only read once a statement changed nothing, to tell the caller why
+    private RuntimeException notChanged(String action, Long id, Long version, Long customerId) {
+        Optional<Order> current = shards.findAny(() -> orderRepository.findById(id));
+        if (current.isEmpty()) {
+            logger.error("Cannot {}: Order not found with ID: {}", action, id);
+            return new ResourceNotFoundException("Cannot " + action + ": Order not found with id: " + id);
+        }
+        if (customerId != null && shards.shardOf(customerId) != shards.shardOf(current.get().getCustomerId())) {
+            logger.error("Cannot {}: Order {} cannot move to customer {}", action, id, customerId);
+            return new BadRequestException("Cannot " + action + ": Order cannot move to customer " + customerId);
+        }
+        logger.error("Cannot {}: Order {} is at version {}, not {}", action, id, current.get().getVersion(), version);
+        return new PreconditionFailedException("Cannot " + action + ": Order " + id + " has been modified");
+    }
+
     /**
      * Deletes all orders associated with a given customer.
      *
@@ -180,7 +343,16 @@ public class OrderService {
      */
     public void deleteAllOrders(Long customerId) {
         logger.info("Deleting all orders for customerId: {}", customerId);
-        orderRepository.deleteByCustomerId(customerId); // Delete orders first
+        shards.forKey(customerId, () -> orderRepository.deleteByCustomerId(customerId)); // Delete orders first
+        if (orderArchiver != null) {
+            orderArchiver.deleteCustomer(customerId);
+        }
+        if (orderChanges != null) {
+            orderChanges.deletedCustomer(customerId);
+        }
+        if (recentOrders != null) {
+            recentOrders.deletedCustomer(customerId);
+        }
         logger.info("All orders deleted for customerId: {}", customerId);
     }
 
@@ -189,11 +361,27 @@ public class OrderService {
      *
      * @param startDate The start date of the range.
      * @param endDate   The end date of the range.
-     * @return A list of orders created within the specified date range.
+     * @return A list of orders created within the specified date range,
+     *         oldest first.
      */
     public List<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         logger.info("Fetching orders between {} and {}", startDate, endDate);
-        List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
+        Optional<List<Order>> recent = recentOrders != null
+                ? recentOrders.between(startDate, endDate)
+                : Optional.empty();
+        List<Order> orders = recent.orElseGet(() -> shards.gather(
+                () -> orderRepository.findByCreatedAtBetween(startDate, endDate),
+                Comparator.comparing(Order::getCreatedAt)));
+        if (orderArchiver != null) {
+            // read after the live orders, so an order archived meanwhile is
+            // found twice rather than not at all
+            List<Order> archived = orderArchiver.findBetween(startDate, endDate);
+            if (!archived.isEmpty()) {
+                Set<Long> live = orders.stream().map(Order::getId).collect(Collectors.toSet());
+                orders = Stream.concat(archived.stream().filter(order -> !live.contains(order.getId())),
+                        orders.stream()).sorted(Comparator.comparing(Order::getCreatedAt)).toList();
+            }
+        }
         logger.info("Retrieved {} orders between {} and {}", orders.size(), startDate, endDate);
         return orders;
     }
@@ -204,13 +392,48 @@ public class OrderService {
      * @param sortDirection The sorting direction, either "asc" for ascending or
      *                      "desc" for descending.
      * @return A list of orders sorted by their creation date in the specified
-     *         order.
+     *         order, without the archived ones.
      */
     public List<Order> getOrdersSorted(String sortDirection) {
-        logger.info("Fetching orders sorted by creation date in {} order", sortDirection);
-        List<Order> orders = "asc".equalsIgnoreCase(sortDirection)
-                ? orderRepository.findAllByCreatedAtAsc()
-                : orderRepository.findAllByCreatedAtDesc();
+        return getOrdersSorted(sortDirection, null);
+    }
+
+    /**
+     * Retrieves the first orders by creation date.
+     *
+     * @param sortDirection The sorting direction, either "asc" for ascending or
+     *                      "desc" for descending.
+     * @param limit         The number of orders, or null for all of them.
+     * @return At most {@code limit} orders sorted by their creation date in the
+     *         specified order, without the archived ones.
+     * @throws BadRequestException if the limit is not positive.
+     */
+    public List<Order> getOrdersSorted(String sortDirection, Integer limit) {
+        logger.info("Fetching {} orders sorted by creation date in {} order", limit != null ? limit : "all",
+                sortDirection);
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        List<Order> orders;
+        if (limit == null) {
+            orders = ascending
+                    ? shards.gather(orderRepository::findAllByCreatedAtAsc, Comparator.comparing(Order::getCreatedAt))
+                    : shards.gather(orderRepository::findAllByCreatedAtDesc,
+                            Comparator.comparing(Order::getCreatedAt).reversed());
+        } else {
+            if (limit <= 0) {
+                logger.error("Limit is invalid: {}", limit);
+                throw new BadRequestException("Limit must be greater than 0");
+            }
+            Optional<List<Order>> newest = !ascending && recentOrders != null
+                    ? recentOrders.newest(limit)
+                    : Optional.empty();
+            // every shard returns its first orders, the first of all are among them
+            orders = newest.orElseGet(() -> (ascending
+                    ? shards.gather(() -> orderRepository.findAllByCreatedAtAsc(Limit.of(limit)),
+                            Comparator.comparing(Order::getCreatedAt))
+                    : shards.gather(() -> orderRepository.findAllByCreatedAtDesc(Limit.of(limit)),
+                            Comparator.comparing(Order::getCreatedAt).reversed()))
+                    .stream().limit(limit).toList());
+        }
         logger.info("Retrieved {} orders sorted in {} order", orders.size(), sortDirection);
         return orders;
     }
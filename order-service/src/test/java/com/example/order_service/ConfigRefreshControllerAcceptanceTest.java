@@ -0,0 +1,48 @@
+package com.example.order_service;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.order_service.config.ConfigRefreshController;
+import com.example.order_service.config.ConfigRefresher;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:configrefresh;DB_CLOSE_DELAY=-1",
+        "config.push.secret=test-secret" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ConfigRefreshControllerAcceptanceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ConfigRefresher configRefresher;
+
+    @Test
+    void refresh_WithoutSecret_ShouldBeForbidden() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/config/refresh"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/config/refresh").header(ConfigRefreshController.SECRET_HEADER, "wrong"))
+                .andExpect(status().isForbidden());
+        verify(configRefresher, never()).requestRefresh();
+    }
+
+    @Test
+    void refresh_WithSecret_ShouldScheduleRefresh() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/config/refresh").header(ConfigRefreshController.SECRET_HEADER, "test-secret"))
+                .andExpect(status().isAccepted());
+        verify(configRefresher).requestRefresh();
+    }
+}
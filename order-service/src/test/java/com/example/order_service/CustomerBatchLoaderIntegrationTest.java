@@ -0,0 +1,121 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.order_service.client.CustomerBatchLoader;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.client.CustomerLookup;
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.Customer;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customerbatching;DB_CLOSE_DELAY=-1",
+        "customer-batching.enabled=true",
+        "customer-batching.max-delay=500ms",
+        "customer-batching.timeout=2s" })
+@ActiveProfiles("test")
+public class CustomerBatchLoaderIntegrationTest {
+
+    @Autowired
+    private CustomerBatchLoader customerBatchLoader;
+
+    @Autowired
+    private CustomerLookup customerLookup;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load_WhenConcurrent_ShouldShareOneLookupAndKeepErrorsPerCaller() throws Exception {
+        // Given
+        Customer alice = new Customer();
+        alice.setId(1L);
+        Customer bob = new Customer();
+        bob.setId(2L);
+        when(customerClient.getCustomers(anyCollection())).thenReturn(Map.of(1L, alice, 2L, bob));
+        long[] customerIds = { 1, 2, 1, 404, 2, 1, 1, 404, 2, 1 };
+        List<Future<ResponseEntity<Customer>>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService callers = Executors.newFixedThreadPool(customerIds.length)) {
+            for (long customerId : customerIds) {
+                results.add(callers.submit(() -> customerBatchLoader.load(customerId)));
+            }
+        }
+
+        // Then
+        for (int i = 0; i < customerIds.length; i++) {
+            if (customerIds[i] == 404) {
+                Future<ResponseEntity<Customer>> failed = results.get(i);
+                ExecutionException ex = assertThrows(ExecutionException.class, failed::get);
+                assertInstanceOf(HttpClientErrorException.NotFound.class, ex.getCause());
+            } else {
+                assertEquals(customerIds[i], results.get(i).get().getBody().getId());
+            }
+        }
+        ArgumentCaptor<Collection<Long>> lookedUp = ArgumentCaptor.forClass(Collection.class);
+        verify(customerClient).getCustomers(lookedUp.capture());
+        assertEquals(3, lookedUp.getValue().size());
+        assertEquals(Set.of(1L, 2L, 404L), Set.copyOf(lookedUp.getValue()));
+        verify(customerClient, never()).getCustomer(anyLong());
+    }
+
+    @Test
+    void load_WhenLookupHangs_ShouldTimeOutAndLetNextCallerLookUpAgain() throws Exception {
+        // Given
+        Customer carol = new Customer();
+        carol.setId(3L);
+        CountDownLatch hung = new CountDownLatch(1);
+        AtomicInteger lookups = new AtomicInteger();
+        when(customerClient.getCustomers(anyCollection())).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() == 1) {
+                hung.await();
+            }
+            return Map.of(3L, carol);
+        });
+
+        try {
+            // When & Then
+            assertThrows(ServiceUnavailableException.class, () -> customerBatchLoader.load(3L));
+            assertEquals(3L, customerBatchLoader.load(3L).getBody().getId());
+            assertEquals(2, lookups.get());
+        } finally {
+            hung.countDown();
+        }
+    }
+
+    @Test
+    void load_WithNullCustomerId_ShouldRejectItBeforeQueueing() {
+        // When & Then
+        assertThrows(BadRequestException.class, () -> customerBatchLoader.load(null));
+        // not turned into a 503 by the circuit breaker fallback
+        assertThrows(BadRequestException.class, () -> customerLookup.getCustomer(null));
+        verify(customerClient, never()).getCustomers(anyCollection());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.client.CustomerLookup;
+import com.example.order_service.model.Customer;
+
+/**
+ * Validates random customers from {@code benchmark.threads} threads for
+ * {@code benchmark.seconds} through {@link CustomerLookup}, once with a call
+ * per lookup and once with {@code customer-batching.enabled}, and counts the
+ * calls that reach customer-service. customer-service is a stub that takes
+ * {@code benchmark.lookup-latency-ms} per call, however many customers it is
+ * asked for. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CustomerBatchingBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 200);
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.customers", 1000);
+    private static final Duration LOOKUP_LATENCY = Duration.ofMillis(Integer.getInteger("benchmark.lookup-latency-ms", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+
+    // calls that reached the stub, and the customers they asked for
+    static final AtomicLong calls = new AtomicLong();
+    static final AtomicLong customersAsked = new AtomicLong();
+
+    // not a @Configuration: component scanning would put the stub into every
+    // context started from this package, it is passed to start() instead
+    static class StubCustomerServiceConfig {
+
+        @Bean
+        @Primary
+        CustomerClient stubCustomerClient() {
+            return new CustomerClient() {
+
+                @Override
+                public ResponseEntity<Customer> getCustomer(Long customerId) {
+                    return ResponseEntity.ok(getCustomers(List.of(customerId)).get(customerId));
+                }
+
+                @Override
+                public Map<Long, Customer> getCustomers(Collection<Long> customerIds) {
+                    calls.incrementAndGet();
+                    customersAsked.addAndGet(customerIds.size());
+                    try {
+                        Thread.sleep(LOOKUP_LATENCY);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    Map<Long, Customer> customers = new HashMap<>();
+                    for (Long customerId : customerIds) {
+                        Customer customer = new Customer();
+                        customer.setId(customerId);
+                        customers.put(customerId, customer);
+                    }
+                    return customers;
+                }
+            };
+        }
+    }
+
+    @Test
+    void unbatched() throws Exception {
+        run("unbatched", false);
+    }
+
+    @Test
+    void batched() throws Exception {
+        run("batched", true);
+    }
+
+    private void run(String name, boolean batching) throws Exception {
+        // Given
+        try (ConfigurableApplicationContext context = start(batching)) {
+            CustomerLookup customerLookup = context.getBean(CustomerLookup.class);
+            calls.set(0);
+            customersAsked.set(0);
+
+            // When
+            AtomicLong lookups = new AtomicLong();
+            long deadline = System.nanoTime() + DURATION.toNanos();
+            try (ExecutorService callers = Executors.newFixedThreadPool(THREADS)) {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    results.add(callers.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long customerId = ThreadLocalRandom.current().nextLong(1, CUSTOMERS + 1);
+                            assertEquals(customerId, customerLookup.getCustomer(customerId).getBody().getId());
+                            lookups.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
+
+            // Then
+            assertTrue(lookups.get() > 0);
+            double seconds = DURATION.toNanos() / 1e9;
+            System.out.printf("%n%s: %d threads, %d customers, %d ms per call, %ds%n", name, THREADS, CUSTOMERS,
+                    LOOKUP_LATENCY.toMillis(), DURATION.toSeconds());
+            System.out.printf("%.0f lookups/s, %d calls to customer-service (%.2f per lookup), %.1f customers per call%n",
+                    lookups.get() / seconds, calls.get(), (double) calls.get() / lookups.get(),
+                    (double) customersAsked.get() / calls.get());
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean batching) {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceApplication.class, StubCustomerServiceConfig.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:mem:batching" + batching + ";DB_CLOSE_DELAY=-1",
+                "--customer-batching.enabled=" + batching,
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.client.CustomerLookup;
+import com.example.order_service.model.Customer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customerlookup;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class CustomerLookupIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerLookup customerLookup;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("orderServiceCB");
+        Customer alice = new Customer();
+        alice.setId(1L);
+        alice.setName("Alice");
+        when(customerClient.getCustomer(1L)).thenReturn(ResponseEntity.ok(alice));
+    }
+
+    @AfterEach
+    void tearDown() {
+        circuitBreaker.transitionToClosedState();
+    }
+
+    @Test
+    void getAllOrders_WhenCircuitOpen_ShouldServeStaleCustomer() throws Exception {
+        // Given
+        mockMvc.perform(get("/api/orders/customer/{customerId}", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+        circuitBreaker.transitionToForcedOpenState();
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/customer/{customerId}", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, "110 - \"Response is Stale\""))
+                .andExpect(header().exists(HttpHeaders.AGE));
+        ResponseEntity<Customer> stale = customerLookup.getCustomer(1L);
+        assertEquals("Alice", stale.getBody().getName());
+        assertEquals("110 - \"Response is Stale\"", stale.getHeaders().getFirst(HttpHeaders.WARNING));
+        assertNotNull(stale.getHeaders().getFirst(HttpHeaders.AGE));
+        verify(customerClient, times(1)).getCustomer(1L);
+    }
+
+    @Test
+    void getCustomer_WhenCircuitOpenWithoutStaleCustomer_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        circuitBreaker.transitionToForcedOpenState();
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/customer/{customerId}", 2))
+                .andExpect(status().isServiceUnavailable());
+        verify(customerClient, never()).getCustomer(2L);
+    }
+
+    @Test
+    void getCustomer_WhenCircuitHalfOpen_ShouldRevalidateStaleCustomers() {
+        // Given
+        customerLookup.getCustomer(1L);
+        circuitBreaker.transitionToOpenState();
+        customerLookup.getCustomer(1L);
+
+        // When
+        circuitBreaker.transitionToHalfOpenState();
+
+        // Then
+        verify(customerClient, timeout(5000).times(2)).getCustomer(1L);
+    }
+}
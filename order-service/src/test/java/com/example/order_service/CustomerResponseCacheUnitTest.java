@@ -0,0 +1,87 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.order_service.cache.CustomerResponseCache;
+import com.example.order_service.model.Customer;
+
+public class CustomerResponseCacheUnitTest {
+
+    @Test
+    void getStale_WithCachedCustomer_ShouldReturnAndMarkForRevalidation() {
+        // Given
+        CustomerResponseCache cache = new CustomerResponseCache(10, Duration.ofMinutes(10));
+        cache.put(1L, customer(1L));
+
+        // When & Then
+        assertEquals(1L, cache.getStale(1L).orElseThrow().customer().getId());
+        assertEquals(1, cache.getStaleKeys().size());
+
+        // a fresh response clears the stale mark
+        cache.put(1L, customer(1L));
+        assertTrue(cache.getStaleKeys().isEmpty());
+    }
+
+    @Test
+    void getStale_WithUnknownCustomer_ShouldReturnEmpty() {
+        CustomerResponseCache cache = new CustomerResponseCache(10, Duration.ofMinutes(10));
+
+        assertTrue(cache.getStale(1L).isEmpty());
+        assertTrue(cache.getStaleKeys().isEmpty());
+    }
+
+    @Test
+    void getStale_WhenTooOld_ShouldReturnEmpty() {
+        CustomerResponseCache cache = new CustomerResponseCache(10, Duration.ZERO.minusSeconds(1));
+        cache.put(1L, customer(1L));
+
+        assertTrue(cache.getStale(1L).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_BeyondMaxEntries_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        CustomerResponseCache cache = new CustomerResponseCache(2, Duration.ofMinutes(10));
+        cache.put(1L, customer(1L));
+        cache.put(2L, customer(2L));
+        cache.getStale(1L); // touch 1 so 2 becomes eldest
+
+        // When
+        cache.put(3L, customer(3L));
+
+        // Then
+        assertEquals(2, cache.size());
+        assertTrue(cache.getStale(2L).isEmpty());
+        assertTrue(cache.getStale(1L).isPresent());
+        assertTrue(cache.getStale(3L).isPresent());
+    }
+
+    @Test
+    void resize_BelowCurrentSize_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        CustomerResponseCache cache = new CustomerResponseCache(10, Duration.ofMinutes(10));
+        cache.put(1L, customer(1L));
+        cache.put(2L, customer(2L));
+        cache.put(3L, customer(3L));
+        cache.getStale(1L);
+
+        // When
+        cache.resize(1, Duration.ofMinutes(10));
+
+        // Then
+        assertEquals(1, cache.size());
+        assertTrue(cache.getStale(1L).isPresent());
+        assertEquals(List.of(1L), cache.getStaleKeys());
+    }
+
+    private Customer customer(Long id) {
+        return new Customer(id, "Test Customer", "test@example.com", "123 Test Lane", LocalDateTime.now(), 0);
+    }
+}
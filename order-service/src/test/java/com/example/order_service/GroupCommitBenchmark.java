@@ -0,0 +1,149 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.service.OrderGroupCommit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates orders from {@code benchmark.threads} threads for
+ * {@code benchmark.seconds}, once with a transaction per order and once
+ * through the group commit, and reports the throughput, the latency and the
+ * orders per commit. As in {@link InsertBenchmark} the database is an H2
+ * server reached over TCP, so every commit costs a round trip. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class GroupCommitBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+
+    private Server database;
+
+    @BeforeAll
+    void startDatabase() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    void stopDatabase() {
+        database.stop();
+    }
+
+    @Test
+    void transactionPerOrder() throws Exception {
+        try (ConfigurableApplicationContext context = start("single", false)) {
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+            run("transaction per order", context, orderRepository::save);
+        }
+    }
+
+    @Test
+    void groupCommit() throws Exception {
+        try (ConfigurableApplicationContext context = start("grouped", true)) {
+            OrderGroupCommit groupCommit = context.getBean(OrderGroupCommit.class);
+            run("group commit", context, groupCommit::save);
+        }
+    }
+
+    private void run(String name, ConfigurableApplicationContext context, UnaryOperator<Order> save)
+            throws Exception {
+        // Given
+        for (int i = 0; i < 1000; i++) {
+            save.apply(order());
+        }
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        DistributionSummary batchSizes = meterRegistry.find("orders.group-commit.batch.size").summary();
+        long warmupBatches = batchSizes == null ? 0 : batchSizes.count();
+        double warmupOrders = batchSizes == null ? 0 : batchSizes.totalAmount();
+
+        // When
+        List<Long> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        try (ExecutorService callers = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(callers.submit(() -> {
+                    List<Long> own = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        save.apply(order());
+                        own.add(System.nanoTime() - start);
+                    }
+                    return own;
+                }));
+            }
+            for (Future<List<Long>> result : results) {
+                latencies.addAll(result.get());
+            }
+        }
+
+        // Then
+        assertFalse(latencies.isEmpty());
+        latencies.sort(null);
+        System.out.printf("%n%s: %d threads, %ds%n", name, THREADS, DURATION.toSeconds());
+        System.out.printf("throughput %.0f orders/s, latency p50 %.1f ms, p99 %.1f ms%n",
+                latencies.size() / (DURATION.toNanos() / 1e9), percentile(latencies, 0.50),
+                percentile(latencies, 0.99));
+        if (batchSizes != null) {
+            System.out.printf("%.1f orders per commit%n",
+                    (batchSizes.totalAmount() - warmupOrders) / (batchSizes.count() - warmupBatches));
+        }
+    }
+
+    private static Order order() {
+        return new Order(null, ThreadLocalRandom.current().nextLong(1, 101), "Widget", 1, LocalDateTime.now());
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1e6;
+    }
+
+    private ConfigurableApplicationContext start(String name, boolean groupCommit) {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:" + name
+                        + ";DB_CLOSE_DELAY=-1",
+                // the test schema.sql references a customers table this service does not own
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                "--spring.jpa.properties.hibernate.order_inserts=true",
+                "--spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                "--group-commit.orders.enabled=" + groupCommit,
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+}
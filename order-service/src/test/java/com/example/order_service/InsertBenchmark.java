@@ -0,0 +1,118 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Inserts orders in transactions of {@code benchmark.transaction-size}, once
+ * with every insert its own JDBC round trip (as with {@code IDENTITY} IDs) and
+ * once in JDBC batches, against an H2 server reached over TCP so that round
+ * trips cost what they do with a real database. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class InsertBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 50_000);
+    private static final int TRANSACTION_SIZE = Integer.getInteger("benchmark.transaction-size", 100);
+
+    private Server database;
+
+    @BeforeAll
+    void startDatabase() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    void stopDatabase() {
+        database.stop();
+    }
+
+    @Test
+    void unbatched() {
+        run(1);
+    }
+
+    @Test
+    void batched() {
+        run(50);
+    }
+
+    private void run(int batchSize) {
+        // Given
+        try (ConfigurableApplicationContext context = start(batchSize)) {
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                    .getStatistics();
+            insert(orderRepository, transactionTemplate, ORDERS / 10);
+            statistics.clear();
+
+            // When
+            long start = System.nanoTime();
+            insert(orderRepository, transactionTemplate, ORDERS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            // Then
+            assertEquals(ORDERS + ORDERS / 10, orderRepository.count());
+            System.out.printf("%nJDBC batch size %d: %d orders in transactions of %d%n", batchSize, ORDERS,
+                    TRANSACTION_SIZE);
+            System.out.printf("throughput %.0f inserts/s, %d statements prepared, %d transactions%n",
+                    ORDERS / seconds, statistics.getPrepareStatementCount(), statistics.getTransactionCount());
+        }
+    }
+
+    private static void insert(OrderRepository orderRepository, TransactionTemplate transactionTemplate,
+            int orders) {
+        for (int done = 0; done < orders; done += TRANSACTION_SIZE) {
+            int size = Math.min(TRANSACTION_SIZE, orders - done);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < size; i++) {
+                    orderRepository.save(new Order(null, (long) i % 100 + 1, "Widget", 1, LocalDateTime.now()));
+                }
+            });
+        }
+    }
+
+    private ConfigurableApplicationContext start(int batchSize) {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:batch" + batchSize
+                        + ";DB_CLOSE_DELAY=-1",
+                // the test schema.sql references a customers table this service does not own
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.properties.hibernate.order_inserts=true",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.order_service.client.CustomerClient;
+
+import com.example.order_service.exception.ResourceNotFoundException;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.Order;
+import com.example.order_service.service.OrderArchiver;
+import com.example.order_service.service.OrderService;
+
+/**
+ * The old orders are read once before archiving, so they are in the
+ * second-level and query cache when they are moved.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+        "order-archive.enabled=true",
+        "order-archive.max-age=30d",
+        "order-archive.chunk-size=2",
+        "order-archive.interval=1h" })
+@ActiveProfiles("test")
+public class OrderArchiverIntegrationTest {
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @Test
+    void archive_ShouldMoveOldOrdersInChunksAndKeepThemReadable() {
+        // Given
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                    + "VALUES (?, 1, ?, 1, ?)", id, "Old " + id, LocalDateTime.now().minusDays(60 - id));
+        }
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                + "VALUES (6, 1, 'New', 1, ?)", LocalDateTime.now().minusDays(1));
+        orderService.getOrder(1L);
+        orderService.getOrdersSorted("asc");
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+
+        // When
+        int archived = orderArchiver.archive();
+
+        // Then
+        assertEquals(5, archived);
+        assertEquals(List.of("New"), orderService.getOrdersSorted("asc").stream().map(Order::getProduct).toList());
+        assertEquals(List.of("Old 1", "Old 2", "Old 3", "Old 4", "Old 5"), jdbcTemplate
+                .queryForList("SELECT product FROM orders_archive ORDER BY created_at", String.class));
+        assertEquals(0, orderArchiver.archive());
+        // archived orders are still read
+        assertEquals("Old 1", orderService.getOrder(1L).getProduct());
+        assertEquals(List.of("Old 4", "Old 5", "New"), orderService
+                .getOrdersByDateRange(LocalDateTime.now().minusDays(57), LocalDateTime.now()).stream()
+                .map(Order::getProduct).toList());
+        Page<Order> firstPage = orderService.getAllOrders(1L, PageRequest.of(0, 4));
+        assertEquals(6, firstPage.getTotalElements());
+        assertEquals(List.of("New", "Old 1", "Old 2", "Old 3"), firstPage.map(Order::getProduct).getContent());
+        assertEquals(List.of("Old 4", "Old 5"),
+                orderService.getAllOrders(1L, PageRequest.of(1, 4)).map(Order::getProduct).getContent());
+    }
+
+    @Test
+    void deleteAllOrders_ShouldDeleteArchivedOrdersOfCustomer() {
+        // Given
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (2, 'Bob', 'bob@example.com')");
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                + "VALUES (20, 2, 'Old', 1, ?)", LocalDateTime.now().minusDays(60));
+        orderArchiver.archive();
+
+        // When
+        orderService.deleteAllOrders(2L);
+
+        // Then
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders_archive WHERE customer_id = 2",
+                Integer.class));
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrder(20L));
+    }
+}
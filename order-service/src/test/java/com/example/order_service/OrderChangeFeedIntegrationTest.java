@@ -0,0 +1,120 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.order_service.cache.OrderChangeFeed;
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
+import com.example.order_service.service.OrderService;
+
+/**
+ * The other writers' changes are made in plain SQL and recorded the way
+ * order-service-reactive records them, so this instance only learns about
+ * them from the feed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1",
+        "order-changes.enabled=true",
+        "order-changes.poll-interval=1h",
+        "recent-orders.enabled=true",
+        "recent-orders.retention=1d",
+        "recent-orders.refresh-interval=1h" })
+@ActiveProfiles("test")
+public class OrderChangeFeedIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderChangeFeed orderChanges;
+
+    @Autowired
+    private RecentOrderIndex recentOrders;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @Test
+    void poll_ShouldDropChangesMadeElsewhereFromCacheAndIndex() {
+        // Given
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (2, 'Bob', 'bob@example.com')");
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+        recentOrders.reload();
+        Order updated = orderService.createOrder(new Order(null, 1L, "Updated", 1, null));
+        Order deleted = orderService.createOrder(new Order(null, 1L, "Deleted", 1, null));
+        orderService.createOrder(new Order(null, 2L, "Bob's", 1, null));
+        assertEquals(1, orderService.getOrder(updated.getId()).getQuantity());
+        jdbcTemplate.update("UPDATE orders SET quantity = 7, version = version + 1 WHERE id = ?", updated.getId());
+        jdbcTemplate.update("DELETE FROM orders WHERE id = ?", deleted.getId());
+        jdbcTemplate.update("DELETE FROM orders WHERE customer_id = 2");
+        record(updated.getId(), null);
+        record(deleted.getId(), null);
+        record(null, 2L);
+        // served from the cache and the index until the feed is polled
+        assertEquals(1, orderService.getOrder(updated.getId()).getQuantity());
+        assertEquals(3, lastHour().size());
+
+        // When
+        int applied = orderChanges.poll();
+        int appliedAgain = orderChanges.poll();
+
+        // Then
+        assertEquals(3, applied);
+        assertEquals(0, appliedAgain);
+        assertEquals(7, orderService.getOrder(updated.getId()).getQuantity());
+        List<Order> lastHour = lastHour();
+        assertEquals(List.of("Updated"), lastHour.stream().map(Order::getProduct).toList());
+        assertEquals(7, lastHour.get(0).getQuantity());
+        assertEquals(1L, lastHour.get(0).getVersion());
+    }
+
+    @Test
+    void writes_ShouldBeRecordedForTheOtherInstancesOnly() {
+        // Given
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+        Order order = orderService.createOrder(new Order(null, 1L, "Patched", 1, null));
+
+        // When
+        orderService.patchOrder(order.getId(), new OrderPatch(null, 2), null);
+        orderService.deleteOrder(order.getId());
+        orderService.deleteAllOrders(3L);
+
+        // Then
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_changes WHERE order_id = ?",
+                Integer.class, order.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_changes WHERE customer_id = 3",
+                Integer.class));
+        // its own changes are in its caches already
+        assertEquals(0, orderChanges.poll());
+    }
+
+    private List<Order> lastHour() {
+        return orderService.getOrdersByDateRange(LocalDateTime.now().minusHours(1), LocalDateTime.now());
+    }
+
+    private void record(Long orderId, Long customerId) {
+        jdbcTemplate.update("INSERT INTO order_changes (order_id, customer_id, source, changed_at) "
+                + "VALUES (?, ?, 'order-service-reactive', ?)", orderId, customerId, LocalDateTime.now());
+    }
+}
@@ -13,7 +13,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -38,6 +40,9 @@ public class OrderControllerAcceptanceTest {
         @Autowired
         private OrderRepository orderRepository;
 
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
         // @Autowired
         // private CustomerRepository customerRepository;
 
@@ -150,4 +155,102 @@ public class OrderControllerAcceptanceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$").isArray());
         }
-}
\ No newline at end of file
+
+        @Test
+        void getOrdersSorted_WithLimit_ShouldReturnNewestOrders() throws Exception {
+                // Given
+                saveOrder();
+                for (int day = 1; day <= 3; day++) {
+                        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                                        + "VALUES (?, 1, ?, 1, ?)", 1000 + day, "Day " + day,
+                                        LocalDateTime.of(2025, 1, day, 0, 0));
+                }
+
+                // When & Then
+                mockMvc.perform(get("/api/orders/sorted")
+                                .param("sortDirection", "asc")
+                                .param("limit", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(2))
+                                .andExpect(jsonPath("$[0].product").value("Day 1"))
+                                .andExpect(jsonPath("$[1].product").value("Day 2"));
+                mockMvc.perform(get("/api/orders/sorted")
+                                .param("sortDirection", "desc")
+                                .param("limit", "2"))
+                                .andExpect(jsonPath("$.length()").value(2))
+                                .andExpect(jsonPath("$[0].product").value("Test Product"))
+                                .andExpect(jsonPath("$[1].product").value("Day 3"));
+                mockMvc.perform(get("/api/orders/sorted")
+                                .param("sortDirection", "desc")
+                                .param("limit", "0"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void patchOrder_WithMatchingETag_ShouldUpdateAndReturnNewETag() throws Exception {
+                // Given
+                Order order = saveOrder();
+                String eTag = mockMvc.perform(get("/api/orders/{id}", order.getId()))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+                // When & Then
+                mockMvc.perform(patch("/api/orders/{id}", order.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", 5))))
+                                .andExpect(status().isNoContent())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+                mockMvc.perform(get("/api/orders/{id}", order.getId()))
+                                .andExpect(jsonPath("$.quantity").value(5))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+                // the old ETag no longer matches
+                mockMvc.perform(patch("/api/orders/{id}", order.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", 6))))
+                                .andExpect(status().isPreconditionFailed());
+                mockMvc.perform(patch("/api/orders/{id}", 404)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", 6))))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        void updateOrder_ShouldReturnStoredCreationDate() throws Exception {
+                // Given
+                jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+                jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                                + "VALUES (2000, 1, 'Test Product', 1, ?)", LocalDateTime.of(2025, 3, 1, 10, 0));
+                Map<String, Object> update = Map.of("id", 2000, "customerId", 1, "product", "Test Product",
+                                "quantity", 3, "createdAt", "2030-01-01 00:00:00");
+
+                // When & Then
+                mockMvc.perform(put("/api/orders")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(update)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.quantity").value(3))
+                                .andExpect(jsonPath("$.createdAt").value("2025-03-01T10:00:00"));
+        }
+
+        @Test
+        void deleteOrder_ShouldDeleteOnlyMatchingVersion() throws Exception {
+                // Given
+                Order order = saveOrder();
+
+                // When & Then
+                mockMvc.perform(delete("/api/orders/{id}", order.getId()).header(HttpHeaders.IF_MATCH, "\"7\""))
+                                .andExpect(status().isPreconditionFailed());
+                mockMvc.perform(delete("/api/orders/{id}", order.getId()).header(HttpHeaders.IF_MATCH, "\"0\""))
+                                .andExpect(status().isOk())
+                                .andExpect(content().string("Order deleted successfully"));
+                mockMvc.perform(delete("/api/orders/{id}", order.getId()))
+                                .andExpect(status().isNotFound());
+        }
+
+        private Order saveOrder() {
+                jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+                return orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+        }
+}
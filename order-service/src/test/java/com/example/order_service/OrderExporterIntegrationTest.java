@@ -0,0 +1,204 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.ResourceNotFoundException;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.ExportStatus;
+import com.example.order_service.service.OrderExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checkpoints are taken every two orders, so the exports below resume and
+ * checkpoint mid-way.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;DB_CLOSE_DELAY=-1",
+        "order-export.enabled=true",
+        "order-export.fetch-size=2",
+        "order-export.checkpoint-rows=2" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class OrderExporterIntegrationTest {
+
+    private static final String HEADER = "id,customer_id,product,quantity,created_at,version\n";
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void exportDirectory(DynamicPropertyRegistry registry) {
+        registry.add("order-export.directory", () -> directory.resolve("exports").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) VALUES "
+                + "(1, 1, 'Laptop', 1, '2025-03-01 10:00:00'), "
+                + "(2, 1, 'Cable, \"USB-C\"', 2, '2025-03-02 11:00:00'), "
+                + "(3, 1, 'Mouse', 3, '2025-03-03 12:00:00')");
+    }
+
+    @Test
+    void startExport_ShouldWriteAllOrdersAsNdjsonAndReportProgress() throws Exception {
+        // When
+        String response = mockMvc.perform(post("/api/orders/exports").param("format", "ndjson"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        ExportStatus status = await(orderExporter, objectMapper.readValue(response, ExportStatus.class).id());
+
+        // Then
+        assertEquals(ExportStatus.State.COMPLETED, status.state());
+        assertEquals(List.of(
+                "{\"id\":1,\"customerId\":1,\"product\":\"Laptop\",\"quantity\":1,\"createdAt\":\"2025-03-01 10:00:00\",\"version\":0}",
+                "{\"id\":2,\"customerId\":1,\"product\":\"Cable, \\\"USB-C\\\"\",\"quantity\":2,\"createdAt\":\"2025-03-02 11:00:00\",\"version\":0}",
+                "{\"id\":3,\"customerId\":1,\"product\":\"Mouse\",\"quantity\":3,\"createdAt\":\"2025-03-03 12:00:00\",\"version\":0}"),
+                Files.readAllLines(Path.of(status.file())));
+        mockMvc.perform(get("/api/orders/exports/" + status.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+        mockMvc.perform(post("/api/orders/exports").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void resumeInterrupted_ShouldContinueAfterLastCheckpoint() throws Exception {
+        // Given
+        Path interrupted = directory.resolve("interrupted");
+        Files.createDirectories(interrupted);
+        Path file = interrupted.resolve("orders-stopped.csv");
+        String checkpointed = HEADER + "1,1,Laptop,1,2025-03-01 10:00:00,0\n";
+        // written after the checkpoint, before the service stopped
+        Files.writeString(file, checkpointed + "2,1,\"Cable");
+        objectMapper.writeValue(interrupted.resolve("stopped.json").toFile(),
+                new ExportStatus("stopped", ExportStatus.Format.CSV, ExportStatus.State.RUNNING, file.toString(), 1,
+                        0, 0, 1, checkpointed.length(), null));
+        OrderExporter restarted = new OrderExporter(jdbcTemplate, new Shards(1), transactionManager, objectMapper,
+                interrupted, DataSize.ofKilobytes(1), 2, 2, 2, Duration.ofDays(1));
+
+        // When
+        restarted.resumeInterrupted();
+        ExportStatus status = await(restarted, "stopped");
+
+        // Then
+        assertEquals(ExportStatus.State.COMPLETED, status.state());
+        assertEquals(3, status.rows());
+        assertEquals(checkpointed
+                + "2,1,\"Cable, \"\"USB-C\"\"\",2,2025-03-02 11:00:00,0\n"
+                + "3,1,Mouse,3,2025-03-03 12:00:00,0\n", Files.readString(file));
+    }
+
+    @Test
+    void resumeInterrupted_ShouldFailExportWithCorruptCheckpointAndStartItOverWhenResumed() throws Exception {
+        // Given
+        Path corrupt = directory.resolve("corrupt");
+        Files.createDirectories(corrupt);
+        Files.writeString(corrupt.resolve("torn.json"), "{\"id\":\"torn\",\"format\":\"CS");
+        Files.writeString(corrupt.resolve("orders-torn.csv"), HEADER + "1,1,Lap");
+        objectMapper.writeValue(corrupt.resolve("done.json").toFile(),
+                new ExportStatus("done", ExportStatus.Format.CSV, ExportStatus.State.COMPLETED,
+                        corrupt.resolve("orders-done.csv").toString(), 3, 0, 1, Long.MIN_VALUE, 0, null));
+        OrderExporter restarted = new OrderExporter(jdbcTemplate, new Shards(1), transactionManager, objectMapper,
+                corrupt, DataSize.ofKilobytes(1), 2, 2, 2, Duration.ofDays(1));
+
+        // When
+        restarted.resumeInterrupted();
+
+        // Then
+        assertEquals(ExportStatus.State.FAILED, restarted.status("torn").state());
+        assertEquals(ExportStatus.State.COMPLETED, restarted.status("done").state());
+
+        // When
+        restarted.resume("torn");
+        ExportStatus status = await(restarted, "torn");
+
+        // Then
+        assertEquals(ExportStatus.State.COMPLETED, status.state());
+        assertEquals(3, status.rows());
+        assertEquals(HEADER
+                + "1,1,Laptop,1,2025-03-01 10:00:00,0\n"
+                + "2,1,\"Cable, \"\"USB-C\"\"\",2,2025-03-02 11:00:00,0\n"
+                + "3,1,Mouse,3,2025-03-03 12:00:00,0\n", Files.readString(corrupt.resolve("orders-torn.csv")));
+    }
+
+    @Test
+    void evictFinished_ShouldForgetOldExportsAndStartNoneBeyondMaxRunning() throws Exception {
+        // Given
+        Path finished = directory.resolve("finished");
+        Files.createDirectories(finished);
+        Path done = finished.resolve("orders-done.csv");
+        Path broken = finished.resolve("orders-broken.csv");
+        Files.writeString(done, HEADER);
+        Files.writeString(broken, HEADER + "1,1,Lap");
+        objectMapper.writeValue(finished.resolve("done.json").toFile(),
+                new ExportStatus("done", ExportStatus.Format.CSV, ExportStatus.State.COMPLETED, done.toString(), 0,
+                        0, 1, Long.MIN_VALUE, 0, null));
+        objectMapper.writeValue(finished.resolve("broken.json").toFile(),
+                new ExportStatus("broken", ExportStatus.Format.CSV, ExportStatus.State.FAILED, broken.toString(), 0,
+                        0, 0, Long.MIN_VALUE, 0, "disk full"));
+        OrderExporter restarted = new OrderExporter(jdbcTemplate, new Shards(1), transactionManager, objectMapper,
+                finished, DataSize.ofKilobytes(1), 2, 2, 0, Duration.ZERO);
+        restarted.resumeInterrupted();
+
+        // When
+        restarted.evictFinished();
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> restarted.status("done"));
+        assertThrows(ResourceNotFoundException.class, () -> restarted.status("broken"));
+        assertEquals(List.of(done), Files.list(finished).toList());
+        assertThrows(ServiceUnavailableException.class, () -> restarted.start(ExportStatus.Format.CSV));
+    }
+
+    private static ExportStatus await(OrderExporter exporter, String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ExportStatus status = exporter.status(id);
+            if (status.state() != ExportStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Export " + id + " did not finish");
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.Order;
+import com.example.order_service.service.OrderService;
+import com.example.read_replicas.ReadYourWrites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "group-commit.orders.enabled=true",
+        "group-commit.orders.max-delay=500ms",
+        "spring.datasource.url=jdbc:h2:mem:group-commit;DB_CLOSE_DELAY=-1",
+        "read-replicas.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "read-replicas.sticky-window=5s" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class OrderGroupCommitIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+    }
+
+    @Test
+    void createOrder_WhenConcurrent_ShouldShareCommitsAndKeepErrorsPerCaller() throws Exception {
+        // Given
+        List<Future<Order>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService callers = Executors.newFixedThreadPool(10)) {
+            for (int i = 0; i < 10; i++) {
+                // customer 404 is not in the database, so its insert breaks the foreign key
+                long customerId = i == 5 ? 404 : 1;
+                String product = "Product " + i;
+                results.add(callers.submit(
+                        () -> orderService.createOrder(new Order(null, customerId, product, 1, LocalDateTime.now()))));
+            }
+        }
+
+        // Then
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            if (i == 5) {
+                Future<Order> failed = results.get(i);
+                ExecutionException ex = assertThrows(ExecutionException.class, failed::get);
+                assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+            } else {
+                ids.add(results.get(i).get().getId());
+            }
+        }
+        assertEquals(9, ids.stream().distinct().count());
+        assertEquals(9, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertTrue(meterRegistry.get("orders.group-commit.batch.size").summary().max() > 1);
+    }
+
+    @Test
+    void createOrder_ShouldKeepClientOnPrimaryAlthoughWriterThreadCommits() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\":1,\"product\":\"Test Product\",\"quantity\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE));
+    }
+}
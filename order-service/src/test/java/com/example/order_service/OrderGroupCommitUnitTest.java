@@ -0,0 +1,50 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.ServiceUnavailableException;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.service.OrderGroupCommit;
+import com.example.read_replicas.ReadYourWrites;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OrderGroupCommitUnitTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<ReadYourWrites> readYourWrites = mock(ObjectProvider.class);
+
+    // not started, so no writer takes the queue, as when it hangs on the database
+    private final OrderGroupCommit groupCommit = new OrderGroupCommit(orderRepository, new Shards(1),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), readYourWrites, 100,
+            Duration.ofMillis(5), Duration.ofMillis(200));
+
+    @Test
+    void save_WhenNotCommittedWithinTimeout_ShouldDropOrderAndFail() {
+        // When
+        long start = System.nanoTime();
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> groupCommit.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now())));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertTrue(waitedMillis >= 200 && waitedMillis < 2000);
+        assertTrue(ex.getMessage().contains("Please try again"));
+        verify(orderRepository, never()).save(any());
+        verify(readYourWrites, never()).ifAvailable(any());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.ImportStatus;
+import com.example.order_service.service.OrderImporter;
+
+/**
+ * Imports the same CSV file of {@code benchmark.orders} orders once for every
+ * {@code order-import.parallelism} in {@code benchmark.parallelism}, and
+ * reports the wall time and orders per second of each. As in
+ * {@link InsertBenchmark} the database is an H2 server reached over TCP, so
+ * every batch costs a round trip; customer-service is a stub that knows every
+ * customer. Chunks are {@code benchmark.chunk-size}, so the file splits into
+ * more chunks than threads. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OrderImportBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 500_000);
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.customers", 1000);
+    private static final String CHUNK_SIZE = System.getProperty("benchmark.chunk-size", "1MB");
+    private static final int[] PARALLELISM = Arrays
+            .stream(System.getProperty("benchmark.parallelism", "1,2,4,8").split(","))
+            .mapToInt(value -> Integer.parseInt(value.strip()))
+            .toArray();
+
+    @TempDir
+    static Path directory;
+
+    private Server database;
+
+    // not a @Configuration: component scanning would put the stub into every
+    // context started from this package, it is passed to start() instead
+    static class StubCustomerServiceConfig {
+
+        @Bean
+        @Primary
+        CustomerClient stubCustomerClient() {
+            return new CustomerClient() {
+
+                @Override
+                public ResponseEntity<Customer> getCustomer(Long customerId) {
+                    return ResponseEntity.ok(getCustomers(List.of(customerId)).get(customerId));
+                }
+
+                @Override
+                public Map<Long, Customer> getCustomers(Collection<Long> customerIds) {
+                    Map<Long, Customer> customers = new HashMap<>();
+                    for (Long customerId : customerIds) {
+                        Customer customer = new Customer();
+                        customer.setId(customerId);
+                        customers.put(customerId, customer);
+                    }
+                    return customers;
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    void setUp() throws SQLException, IOException {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try (BufferedWriter file = Files.newBufferedWriter(directory.resolve("orders.csv"))) {
+            file.write("customer_id,product,quantity,created_at\n");
+            for (int i = 0; i < ORDERS; i++) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                file.write(random.nextLong(1, CUSTOMERS + 1) + ",Widget " + random.nextInt(100) + ","
+                        + random.nextInt(1, 10) + ",2025-03-" + String.format("%02d", random.nextInt(1, 29))
+                        + " 12:00:00\n");
+            }
+        }
+    }
+
+    @AfterAll
+    void stopDatabase() {
+        database.stop();
+    }
+
+    @Test
+    void parallelism() throws Exception {
+        System.out.printf("%nImporting %d orders (%d MB) in chunks of %s%n", ORDERS,
+                Files.size(directory.resolve("orders.csv")) / 1048576, CHUNK_SIZE);
+        List<String> results = new ArrayList<>();
+        for (int parallelism : PARALLELISM) {
+            // Given
+            try (ConfigurableApplicationContext context = start(parallelism)) {
+                OrderImporter orderImporter = context.getBean(OrderImporter.class);
+
+                // When
+                long start = System.nanoTime();
+                ImportStatus status = await(orderImporter, orderImporter.start("orders.csv").id());
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                // Then
+                assertEquals(ImportStatus.State.COMPLETED, status.state(), status.error());
+                assertEquals(ORDERS, status.imported());
+                results.add(String.format("%11d %10.1f %10.0f", parallelism, seconds * 1000, ORDERS / seconds));
+            }
+        }
+        System.out.printf("%n%11s %10s %10s%n", "parallelism", "wall ms", "orders/s");
+        results.forEach(System.out::println);
+    }
+
+    private static ImportStatus await(OrderImporter orderImporter, String id) throws InterruptedException {
+        while (true) {
+            ImportStatus status = orderImporter.status(id);
+            if (status.state() != ImportStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private ConfigurableApplicationContext start(int parallelism) {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceApplication.class, StubCustomerServiceConfig.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:import"
+                        + parallelism + ";DB_CLOSE_DELAY=-1",
+                // the test schema.sql references a customers table this service does not own
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, parallelism),
+                "--order-import.enabled=true",
+                "--order-import.directory=" + directory,
+                "--order-import.chunk-size=" + CHUNK_SIZE,
+                "--order-import.parallelism=" + parallelism,
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.ImportStatus;
+import com.example.order_service.model.ImportStatus.LineError;
+import com.example.order_service.service.OrderImporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Chunks are a few lines long, so every file below is parsed in parallel.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1",
+        "order-import.enabled=true",
+        "order-import.chunk-size=64B",
+        "order-import.parallelism=3",
+        "order-import.batch-size=2" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class OrderImporterIntegrationTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void importDirectory(DynamicPropertyRegistry registry) {
+        registry.add("order-import.directory", () -> directory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderImporter orderImporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        when(customerClient.getCustomers(any())).thenReturn(Map.of(1L, new Customer()));
+    }
+
+    @Test
+    void start_ShouldImportValidCsvLinesAndReportTheOthers() throws Exception {
+        // Given
+        Files.writeString(directory.resolve("orders.csv"), """
+                id,customer_id,product,quantity,created_at,version
+                1,1,Laptop,1,2025-03-01 10:00:00,0
+                2,1,"Cable, \"\"USB-C\"\"",2,2025-03-02 11:00:00,0
+                3,2,Mouse,1,2025-03-03 12:00:00,0
+                4,1,Desk,0,2025-03-04 12:00:00,0
+                5,1,Chair,1,not a date,0
+                6,1,Lamp,1,2025-03-06 12:00:00,0
+                """);
+
+        // When
+        ImportStatus status = await(orderImporter.start("orders.csv").id());
+
+        // Then
+        assertEquals(ImportStatus.State.COMPLETED, status.state());
+        assertEquals(6, status.read());
+        assertEquals(3, status.imported());
+        assertEquals(3, status.rejected());
+        assertEquals(List.of(
+                new LineError(4, "Customer not found with id: 2"),
+                new LineError(5, "Quantity must be greater than 0"),
+                new LineError(6, "Created at must be formatted as yyyy-MM-dd HH:mm:ss")), status.errors());
+        // one lookup for all customers
+        verify(customerClient).getCustomers(Set.of(1L, 2L));
+        verify(customerClient, never()).getCustomer(any());
+        assertEquals(List.of("Laptop 2025-03-01T10:00", "Cable, \"USB-C\" 2025-03-02T11:00", "Lamp 2025-03-06T12:00"),
+                jdbcTemplate.queryForList("SELECT CONCAT(product, ' ', FORMATDATETIME(created_at, "
+                        + "'yyyy-MM-dd''T''HH:mm')) FROM orders ORDER BY created_at", String.class));
+    }
+
+    @Test
+    void startImport_ShouldImportNdjsonAndReportProgress() throws Exception {
+        // Given
+        Files.writeString(directory.resolve("orders.ndjson"), """
+                {"customerId":1,"product":"Laptop","quantity":1,"createdAt":"2025-03-01 10:00:00"}
+                {"customerId":1,"product":"Cable"
+                {"customerId":1,"product":"Mouse","quantity":3}
+                """);
+
+        // When
+        String response = mockMvc.perform(post("/api/orders/imports").param("file", "orders.ndjson"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readValue(response, ImportStatus.class).id();
+        await(id);
+
+        // Then
+        mockMvc.perform(get("/api/orders/imports/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+        mockMvc.perform(post("/api/orders/imports").param("file", "../orders.csv"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders/imports").param("file", "missing.csv"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ImportStatus await(String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ImportStatus status = orderImporter.status(id);
+            if (status.state() != ImportStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Import " + id + " did not finish");
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.order_service;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.service.OrderPartitionMaintainer;
+
+public class OrderPartitionMaintainerUnitTest {
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Statement statement = mock(Statement.class);
+    // the last month that has ended 40 days ago is two months back at least
+    private final OrderPartitionMaintainer maintainer = new OrderPartitionMaintainer(jdbcTemplate, new Shards(1), 2,
+            null, Duration.ofDays(40));
+    private final YearMonth current = YearMonth.now();
+
+    @Test
+    void maintain_ShouldSplitMonthsOffCatchAllAndDropEmptyArchivedOnes() throws SQLException {
+        // Given
+        YearMonth full = current.minusMonths(4);
+        YearMonth emptied = current.minusMonths(3);
+        YearMonth notArchived = current.minusMonths(1);
+        partitions("MariaDB", name(full), name(emptied), name(notArchived), name(current), "pmax");
+        when(statement.executeQuery(startsWith("SELECT 1 FROM orders PARTITION"))).thenAnswer(invocation -> {
+            ResultSet rows = mock(ResultSet.class);
+            when(rows.next()).thenReturn(invocation.getArgument(0, String.class).contains(name(full)));
+            return rows;
+        });
+
+        // When
+        maintainer.maintain();
+
+        // Then
+        verify(jdbcTemplate).execute("ALTER TABLE orders REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION " + name(current.plusMonths(1)) + " VALUES LESS THAN ('" + current.plusMonths(2).atDay(1)
+                + "'), PARTITION " + name(current.plusMonths(2)) + " VALUES LESS THAN ('"
+                + current.plusMonths(3).atDay(1) + "'), PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        InOrder locked = inOrder(statement);
+        locked.verify(statement).execute("LOCK TABLES orders WRITE");
+        locked.verify(statement).executeQuery("SELECT 1 FROM orders PARTITION (" + name(emptied) + ") LIMIT 1");
+        locked.verify(statement).execute("ALTER TABLE orders DROP PARTITION " + name(emptied));
+        locked.verify(statement).execute("UNLOCK TABLES");
+        verify(statement, never()).execute("ALTER TABLE orders DROP PARTITION " + name(full));
+        verify(statement, never()).executeQuery(contains(name(notArchived)));
+        verify(statement, times(2)).execute("UNLOCK TABLES");
+    }
+
+    @Test
+    void maintain_ShouldLeaveUnpartitionedDatabasesAlone() throws SQLException {
+        // Given
+        partitions("H2");
+
+        // When
+        maintainer.maintain();
+
+        // Then
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+        verifyNoInteractions(statement);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void partitions(String database, String... names) throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(database);
+        when(connection.createStatement()).thenReturn(statement);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0, ConnectionCallback.class).doInConnection(connection));
+        when(jdbcTemplate.queryForList(startsWith("SELECT PARTITION_NAME"), eq(String.class)))
+                .thenReturn(List.of(names));
+    }
+
+    private static String name(YearMonth month) {
+        return month.format(NAME);
+    }
+}
@@ -12,15 +12,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.example.order_service.cache.OrderCacheEviction;
+import com.example.order_service.datasource.Shards;
 import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.exception.PreconditionFailedException;
 import com.example.order_service.exception.ResourceNotFoundException;
 import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
 // import com.example.order_service.model.Customer;
 import com.example.order_service.repository.OrderRepository;
 // import com.example.order_service.repository.CustomerRepository;
@@ -32,6 +37,12 @@ public class OrderServiceUnitTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderCacheEviction orderCacheEviction;
+
+    @Spy
+    private Shards shards = new Shards(1);
+
     // @Mock
     // private CustomerRepository customerRepository; // Add this mock
 
@@ -168,19 +179,45 @@ public class OrderServiceUnitTest {
     }
 
     @Test
-    void updateOrder_WithValidOrder_ShouldReturnUpdatedOrder() {
+    void updateOrder_WithValidOrder_ShouldUpdateWithoutReadingTheOrder() {
         // Given
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        LocalDateTime stored = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(orderRepository.updateReturningCreatedAt(1L, 3L, 1L, "Test Product", 2))
+                .thenReturn(Optional.of(stored));
 
         // When
-        Order updatedOrder = orderService.updateOrder(testOrder);
+        Order updatedOrder = orderService.updateOrder(testOrder, 3L);
 
         // Then
-        assertNotNull(updatedOrder);
         assertEquals(testOrder.getId(), updatedOrder.getId());
-        verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(4L, updatedOrder.getVersion());
+        // the stored creation date, not the client's
+        assertEquals(stored, updatedOrder.getCreatedAt());
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void updateOrder_WithStaleVersion_ShouldThrowPreconditionFailedException() {
+        // Given
+        when(orderRepository.updateReturningCreatedAt(1L, 3L, 1L, "Test Product", 2))
+                .thenReturn(Optional.empty());
+        testOrder.setVersion(4L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> orderService.updateOrder(testOrder, 3L));
+    }
+
+    @Test
+    void patchOrder_WithNonExistingId_ShouldThrowResourceNotFoundException() {
+        // Given
+        when(orderRepository.patch(1L, null, null, 5)).thenReturn(0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderService.patchOrder(1L, new OrderPatch(null, 5), null));
     }
 
     @Test
@@ -193,25 +230,24 @@ public class OrderServiceUnitTest {
     @Test
     void deleteOrder_WithExistingId_ShouldDeleteOrder() {
         // Given
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        doNothing().when(orderRepository).deleteById(1L);
+        when(orderRepository.delete(1L, null)).thenReturn(1);
 
         // When
         orderService.deleteOrder(1L);
 
         // Then
-        verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).deleteById(1L);
+        verify(orderRepository, times(1)).delete(1L, null);
+        verify(orderRepository, never()).findById(anyLong());
     }
 
     @Test
     void deleteOrder_WithNonExistingId_ShouldThrowResourceNotFoundException() {
         // Given
+        when(orderRepository.delete(1L, null)).thenReturn(0);
         when(orderRepository.findById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> orderService.deleteOrder(1L));
         verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, never()).deleteById(anyLong());
     }
 }
@@ -0,0 +1,139 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+import com.example.read_replicas.ReadYourWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Two H2 databases stand in for the primary and a replica. Nothing
+ * replicates between them, so where a row is found shows where a query went,
+ * once it is not in the second-level cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "read-replicas.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "read-replicas.sticky-window=5s" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (JdbcTemplate database : new JdbcTemplate[] { primary, replica }) {
+            database.update("DELETE FROM orders");
+            database.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        }
+    }
+
+    @Test
+    void save_ShouldWriteToPrimary() {
+        // When
+        orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+
+        // Then
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void readOnlyQueries_ShouldReadFromReplica() {
+        // Given
+        Order onPrimary = orderRepository.save(new Order(null, 1L, "On Primary", 1, LocalDateTime.now()));
+        replica.update("INSERT INTO orders (id, customer_id, product, quantity) VALUES (1000, 1, 'On Replica', 2)");
+        // the save put the order into the second-level cache
+        assertTrue(entityManagerFactory.getCache().contains(Order.class, onPrimary.getId()));
+        entityManagerFactory.getCache().evictAll();
+
+        // When & Then
+        assertTrue(orderRepository.findById(onPrimary.getId()).isEmpty());
+        assertTrue(orderRepository.findById(1000L).isPresent());
+        assertFalse(entityManagerFactory.getCache().contains(Order.class, 1000L));
+        assertEquals("On Replica", orderRepository.findAllByCreatedAtAsc().get(0).getProduct());
+        assertTrue(meterRegistry.get("datasource.routing.connections").tag("pool", "replica-1").counter()
+                .count() > 0);
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").tag("pool", "replica-1").gauge());
+    }
+
+    @Test
+    void updateOrder_ShouldKeepClientOnPrimaryWithinStickyWindow() throws Exception {
+        // Given
+        Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+        Map<String, Object> update = Map.of("id", order.getId(), "customerId", 1, "product", "Test Product",
+                "quantity", 3);
+
+        // When
+        Cookie sticky = mockMvc.perform(put("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWrites.COOKIE);
+
+        // Then
+        mockMvc.perform(get("/api/orders/{id}", order.getId()).cookie(sticky))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(3));
+        // another client still reads the replica, which has not seen the order,
+        // once the primary's copy is out of the second-level cache
+        entityManagerFactory.getCache().evictAll();
+        mockMvc.perform(get("/api/orders/{id}", order.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getOrder_WithCookieBeyondStickyWindow_ShouldReadFromReplica() throws Exception {
+        // Given
+        Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+        entityManagerFactory.getCache().evictAll();
+        Cookie forged = new Cookie(ReadYourWrites.COOKIE, String.valueOf(Long.MAX_VALUE));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/{id}", order.getId()).cookie(forged))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
+import com.example.order_service.service.OrderService;
+
+/**
+ * An order inserted with plain JDBC is only seen by the index on a reload, so
+ * a result without it was served from memory.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recent;DB_CLOSE_DELAY=-1",
+        "recent-orders.enabled=true",
+        "recent-orders.retention=1d",
+        "recent-orders.refresh-interval=1h" })
+@ActiveProfiles("test")
+public class RecentOrderIndexIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RecentOrderIndex recentOrders;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @Test
+    void recentQueries_ShouldBeServedFromIndexKeptUpToDateByWrites() {
+        // Given
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+        recentOrders.reload();
+        Order first = orderService.createOrder(new Order(null, 1L, "First", 1, null));
+        Order second = orderService.createOrder(new Order(null, 1L, "Second", 1, null));
+        orderService.patchOrder(first.getId(), new OrderPatch(null, 5), null);
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity, created_at) "
+                + "VALUES (1000, 1, 'Behind', 1, ?)", LocalDateTime.now());
+
+        // When
+        List<Order> newest = orderService.getOrdersSorted("desc", 2);
+        List<Order> lastHour = orderService.getOrdersByDateRange(LocalDateTime.now().minusHours(1),
+                LocalDateTime.now());
+        orderService.deleteOrder(second.getId());
+        List<Order> afterDelete = orderService.getOrdersByDateRange(LocalDateTime.now().minusHours(1),
+                LocalDateTime.now());
+
+        // Then
+        assertEquals(List.of("Second", "First"), newest.stream().map(Order::getProduct).toList());
+        assertEquals(5, newest.get(1).getQuantity());
+        assertEquals(List.of("First", "Second"), lastHour.stream().map(Order::getProduct).toList());
+        assertEquals(List.of("First"), afterDelete.stream().map(Order::getProduct).toList());
+        // older ranges still come from the database
+        assertEquals(List.of("First", "Behind"), orderService
+                .getOrdersByDateRange(LocalDateTime.now().minusDays(2), LocalDateTime.now()).stream()
+                .map(Order::getProduct).toList());
+    }
+}
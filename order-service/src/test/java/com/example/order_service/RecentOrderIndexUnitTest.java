@@ -0,0 +1,171 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.order_service.cache.RecentOrderIndex;
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.model.Order;
+import com.example.order_service.repository.OrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RecentOrderIndexUnitTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecentOrderIndex index = new RecentOrderIndex(orderRepository, new Shards(1),
+            mock(PlatformTransactionManager.class), meterRegistry, Duration.ofDays(1), 3, Duration.ofSeconds(5),
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void queries_BeforeFirstLoad_ShouldGoToDatabase() {
+        // When & Then
+        assertTrue(index.newest(1).isEmpty());
+        assertTrue(index.between(now.minusHours(1), now).isEmpty());
+        assertEquals(2, meterRegistry.get("orders.recent-index.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void newest_ShouldServeNewestFirstWhileIndexHoldsEnough() {
+        // Given
+        loadOnReload(order(1L, now.minusHours(3)), order(2L, now.minusHours(1)), order(3L, now.minusHours(2)));
+        index.reload();
+
+        // When & Then
+        assertEquals(List.of(2L, 3L), ids(index.newest(2).orElseThrow()));
+        // older orders may exist in the database
+        assertTrue(index.newest(4).isEmpty());
+    }
+
+    @Test
+    void between_ShouldServeRangesWithinWindowOnly() {
+        // Given
+        loadOnReload(order(1L, now.minusHours(3)), order(2L, now.minusHours(1)), order(3L, now.minusHours(2)));
+        index.reload();
+
+        // When & Then
+        assertEquals(List.of(1L, 3L), ids(index.between(now.minusHours(3), now.minusHours(2)).orElseThrow()));
+        assertTrue(index.between(now.minusDays(2), now).isEmpty());
+    }
+
+    @Test
+    void writes_ShouldBeAppliedRightAway() {
+        // Given
+        Order first = order(1L, now.minusHours(2));
+        loadOnReload(first);
+        index.reload();
+
+        // When
+        index.created(order(2L, now.minusHours(1)));
+        index.updated(1L, null, indexed -> indexed.setQuantity(7));
+
+        // Then
+        List<Order> newest = index.newest(2).orElseThrow();
+        assertEquals(List.of(2L, 1L), ids(newest));
+        assertEquals(7, newest.get(1).getQuantity());
+        assertEquals(1, newest.get(1).getVersion());
+        // callers get copies
+        newest.get(1).setQuantity(9);
+        assertEquals(7, index.newest(2).orElseThrow().get(1).getQuantity());
+
+        index.deleted(2L);
+        assertEquals(List.of(1L), ids(index.newest(1).orElseThrow()));
+        index.deletedCustomer(1L);
+        assertTrue(index.newest(1).isEmpty());
+    }
+
+    @Test
+    void reload_ShouldReplayWritesMadeWhileLoading() {
+        // Given
+        Order loaded = order(1L, now.minusHours(2));
+        when(orderRepository.findNewestSince(any(), any())).thenAnswer(invocation -> {
+            // written after the database was read, before the index is replaced
+            index.created(order(2L, now.minusHours(1)));
+            index.updated(1L, 0L, indexed -> indexed.setProduct("Changed"));
+            return new ArrayList<>(List.of(loaded));
+        });
+
+        // When
+        index.reload();
+
+        // Then
+        List<Order> newest = index.newest(2).orElseThrow();
+        assertEquals(List.of(2L, 1L), ids(newest));
+        assertEquals("Changed", newest.get(1).getProduct());
+        assertEquals(1, newest.get(1).getVersion());
+    }
+
+    @Test
+    void catchUp_ShouldAddOrdersCreatedElsewhereSinceLastRead() {
+        // Given
+        loadOnReload(order(1L, now.minusHours(2)));
+        index.reload();
+        loadOnReload(order(2L, now.minusMinutes(1)));
+
+        // When
+        index.catchUp();
+
+        // Then
+        assertEquals(List.of(2L, 1L), ids(index.newest(2).orElseThrow()));
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderRepository, times(2)).findNewestSince(from.capture(), any());
+        // the catch-up reads from the last read on, not the whole window
+        assertTrue(from.getAllValues().get(1).isAfter(now.minusMinutes(1)));
+    }
+
+    @Test
+    void catchUp_WithMoreNewOrdersThanMaxSize_ShouldReloadInFull() {
+        // Given
+        loadOnReload(order(1L, now.minusHours(5)));
+        index.reload();
+        loadOnReload(order(2L, now.minusHours(3)), order(3L, now.minusHours(2)), order(4L, now.minusHours(1)));
+
+        // When
+        index.catchUp();
+
+        // Then
+        verify(orderRepository, times(3)).findNewestSince(any(), any());
+        assertEquals(List.of(4L, 3L, 2L), ids(index.newest(3).orElseThrow()));
+    }
+
+    @Test
+    void created_BeyondMaxSize_ShouldDropOldestAndMoveWindowStart() {
+        // Given
+        loadOnReload(order(1L, now.minusHours(4)), order(2L, now.minusHours(3)), order(3L, now.minusHours(2)));
+        index.reload();
+
+        // When
+        index.created(order(4L, now.minusHours(1)));
+
+        // Then
+        assertEquals(3, meterRegistry.get("orders.recent-index.orders").gauge().value());
+        assertEquals(List.of(4L, 3L, 2L), ids(index.newest(3).orElseThrow()));
+        // the dropped order's range is no longer complete
+        assertTrue(index.between(now.minusHours(4), now).isEmpty());
+        assertEquals(List.of(2L, 3L, 4L), ids(index.between(now.minusHours(3), now).orElseThrow()));
+    }
+
+    private void loadOnReload(Order... orders) {
+        when(orderRepository.findNewestSince(any(), any())).thenReturn(List.of(orders));
+    }
+
+    private static Order order(Long id, LocalDateTime createdAt) {
+        return new Order(id, 1L, "Product " + id, 1, createdAt);
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+}
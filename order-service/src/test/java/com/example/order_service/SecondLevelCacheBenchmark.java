@@ -0,0 +1,153 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.service.OrderService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Reads and patches random orders from {@code benchmark.threads} threads, one
+ * write in {@code benchmark.write-ratio} operations, and reports the hit rate
+ * of the orders region and the throughput for several entity TTLs and with
+ * the cache off. The database is an H2 server reached over TCP, so a miss
+ * costs a round trip as it does with a real database. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SecondLevelCacheBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 1000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final double WRITE_RATIO = Double.parseDouble(System.getProperty("benchmark.write-ratio", "0.1"));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+
+    private Server database;
+
+    @BeforeAll
+    void startDatabase() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    void stopDatabase() {
+        database.stop();
+    }
+
+    @Test
+    void ttl5s() throws Exception {
+        run("ttl5s", "--second-level-cache.regions.orders.ttl=5s");
+    }
+
+    @Test
+    void ttl10m() throws Exception {
+        run("ttl10m", "--second-level-cache.regions.orders.ttl=10m");
+    }
+
+    @Test
+    void uncached() throws Exception {
+        run("uncached", "--second-level-cache.enabled=false");
+    }
+
+    private void run(String name, String cacheSetting) throws Exception {
+        // Given
+        try (ConfigurableApplicationContext context = start(name, cacheSetting)) {
+            OrderService orderService = context.getBean(OrderService.class);
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                    .getStatistics();
+            List<Long> ids = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                ids.add(orderRepository.save(new Order(null, (long) i % 100 + 1, "Widget", 1, LocalDateTime.now()))
+                        .getId());
+            }
+            statistics.clear();
+
+            // When
+            LongAdder reads = new LongAdder();
+            LongAdder writes = new LongAdder();
+            long deadline = System.nanoTime() + DURATION.toNanos();
+            try (ExecutorService workers = Executors.newFixedThreadPool(THREADS)) {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    results.add(workers.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            Long id = ids.get(random.nextInt(ids.size()));
+                            if (random.nextDouble() < WRITE_RATIO) {
+                                orderService.patchOrder(id, new OrderPatch(null, random.nextInt(1, 100)), null);
+                                writes.increment();
+                            } else {
+                                orderService.getOrder(id);
+                                reads.increment();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
+
+            // Then
+            assertTrue(reads.sum() > 0);
+            double seconds = DURATION.toNanos() / 1e9;
+            System.out.printf("%n%s: %d orders, %d threads, %.0f%% writes, %ds%n", name, ORDERS, THREADS,
+                    WRITE_RATIO * 100, DURATION.toSeconds());
+            System.out.printf("%.0f reads/s, %.0f writes/s%n", reads.sum() / seconds, writes.sum() / seconds);
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Order.CACHE_REGION);
+            if (region != null) {
+                long lookups = region.getHitCount() + region.getMissCount();
+                System.out.printf("orders region: %d hits, %d misses, hit rate %.1f%%%n", region.getHitCount(),
+                        region.getMissCount(), lookups == 0 ? 0 : 100.0 * region.getHitCount() / lookups);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String name, String cacheSetting) {
+        // command line arguments, so they override application.yml
+        return new SpringApplicationBuilder(OrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:" + name
+                        + ";DB_CLOSE_DELAY=-1",
+                // the test schema.sql references a customers table this service does not own
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--second-level-cache.regions.orders.max-size=50000",
+                cacheSetting,
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import javax.cache.CacheManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderPatch;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.service.OrderService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Rows are changed with plain JDBC behind Hibernate's back, so a read that
+ * does not see the change was served from the cache.
+ */
+@SpringBootTest(properties = {
+        "second-level-cache.regions.orders.max-size=100",
+        "second-level-cache.regions.orders.ttl=1m" })
+@ActiveProfiles("test")
+public class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void getOrder_ShouldBeServedFromCacheUntilUpdated() {
+        // Given
+        Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+        jdbcTemplate.update("UPDATE orders SET quantity = 9 WHERE id = ?", order.getId());
+
+        // When
+        Order cached = orderService.getOrder(order.getId());
+        orderService.patchOrder(order.getId(), new OrderPatch(null, 2), null);
+        Order updated = orderService.getOrder(order.getId());
+
+        // Then
+        assertEquals(1, cached.getQuantity());
+        assertEquals(2, updated.getQuantity());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Order.CACHE_REGION, "result", "hit").functionCounter().count() > 0);
+    }
+
+    @Test
+    void patchOrder_ShouldOnlyEvictThePatchedOrder() {
+        // Given
+        Order patched = orderRepository.save(new Order(null, 1L, "Patched", 1, LocalDateTime.now()));
+        Order other = orderRepository.save(new Order(null, 1L, "Other", 1, LocalDateTime.now()));
+        orderService.getOrder(patched.getId());
+        orderService.getOrder(other.getId());
+        jdbcTemplate.update("UPDATE orders SET quantity = 9 WHERE id = ?", other.getId());
+
+        // When
+        orderService.patchOrder(patched.getId(), new OrderPatch(null, 2), null);
+
+        // Then
+        assertEquals(2, orderService.getOrder(patched.getId()).getQuantity());
+        assertEquals(1, orderService.getOrder(other.getId()).getQuantity());
+    }
+
+    @Test
+    void sortedQueries_ShouldBeCachedUntilOrdersChange() {
+        // Given
+        orderRepository.save(new Order(null, 1L, "First", 1, LocalDateTime.now()));
+        orderService.getOrdersSorted("asc");
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, product, quantity) VALUES (1000, 1, 'Behind', 1)");
+
+        // When
+        int cached = orderService.getOrdersSorted("asc").size();
+        orderRepository.save(new Order(null, 1L, "Second", 1, LocalDateTime.now()));
+        int afterWrite = orderService.getOrdersSorted("asc").size();
+
+        // Then
+        assertEquals(1, cached);
+        assertEquals(3, afterWrite);
+        assertTrue(meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit").functionCounter()
+                .count() > 0);
+    }
+
+    @Test
+    void sortedQueries_StartedBeforePatchAndStoredAfterIt_ShouldNotBeServed() throws Exception {
+        // Given
+        Order order = orderRepository.save(new Order(null, 1L, "Test Product", 1, LocalDateTime.now()));
+        TransactionTemplate query = new TransactionTemplate(transactionManager);
+        query.setReadOnly(true);
+        Thread.sleep(10);
+
+        // When
+        query.executeWithoutResult(status -> {
+            // the patch commits and evicts after this query started, and before it stores its result
+            CompletableFuture.runAsync(() -> orderService.patchOrder(order.getId(), new OrderPatch(null, 2), null))
+                    .join();
+            orderRepository.findAllByCreatedAtAsc();
+        });
+        jdbcTemplate.update("UPDATE orders SET quantity = 9 WHERE id = ?", order.getId());
+
+        // Then
+        assertEquals(9, orderService.getOrdersSorted("asc").get(0).getQuantity());
+    }
+
+    @Test
+    void regions_ShouldTakeSizeAndTtlFromConfig() {
+        // When
+        com.github.benmanes.caffeine.cache.Cache<?, ?> cache = secondLevelCacheManager.getCache(Order.CACHE_REGION)
+                .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+
+        // Then
+        assertEquals(100, cache.policy().eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(1), cache.policy().expireAfterWrite().orElseThrow().getExpiresAfter());
+    }
+}
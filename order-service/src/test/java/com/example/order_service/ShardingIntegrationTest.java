@@ -0,0 +1,155 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.order_service.client.CustomerClient;
+import com.example.order_service.datasource.Shards;
+import com.example.order_service.exception.BadRequestException;
+import com.example.order_service.model.Customer;
+import com.example.order_service.model.Order;
+import com.example.order_service.service.OrderService;
+
+/**
+ * Two H2 databases stand in for two shards. With two shards customer 1 lives
+ * on shard 1 and customer 2 on shard 0.
+ */
+@SpringBootTest(properties = {
+        "sharding.shards[0].url=" + ShardingIntegrationTest.SHARD_0_URL,
+        "sharding.shards[1].url=" + ShardingIntegrationTest.SHARD_1_URL })
+@ActiveProfiles("test")
+public class ShardingIntegrationTest {
+
+    static final String SHARD_0_URL = "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+    static final String SHARD_1_URL = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+
+    private final JdbcTemplate shard0 = new JdbcTemplate(new DriverManagerDataSource(SHARD_0_URL, "sa", ""));
+    private final JdbcTemplate shard1 = new JdbcTemplate(new DriverManagerDataSource(SHARD_1_URL, "sa", ""));
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private Shards shards;
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @BeforeEach
+    void setUp() {
+        for (JdbcTemplate shard : List.of(shard0, shard1)) {
+            shard.update("DELETE FROM orders");
+            shard.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (1, 'Alice', 'alice@example.com')");
+            shard.update("MERGE INTO customers (id, name, email) KEY (id) VALUES (2, 'Bob', 'bob@example.com')");
+        }
+        when(customerClient.getCustomer(anyLong())).thenReturn(ResponseEntity.ok(new Customer()));
+    }
+
+    @Test
+    void createOrder_ShouldWriteToCustomersShard() {
+        // When
+        orderService.createOrder(new Order(null, 1L, "Product 1", 1, LocalDateTime.now()));
+        orderService.createOrder(new Order(null, 2L, "Product 2", 1, LocalDateTime.now()));
+
+        // Then
+        assertEquals(1, shards.shardOf(1L));
+        assertEquals(List.of(2L), shard0.queryForList("SELECT customer_id FROM orders", Long.class));
+        assertEquals(List.of(1L), shard1.queryForList("SELECT customer_id FROM orders", Long.class));
+    }
+
+    @Test
+    void customerQueries_ShouldStayOnCustomersShard() {
+        // Given
+        orderService.createOrder(new Order(null, 1L, "Product 1", 1, LocalDateTime.now()));
+        orderService.createOrder(new Order(null, 2L, "Product 2", 1, LocalDateTime.now()));
+
+        // When
+        long found = orderService.getAllOrders(1L, PageRequest.of(0, 10)).getTotalElements();
+        orderService.deleteAllOrders(1L);
+
+        // Then
+        assertEquals(1, found);
+        assertEquals(1, shard0.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(0, shard1.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void crossCustomerQueries_ShouldMergeShardsInOrder() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int day = 0; day < 4; day++) {
+            // customer 2 on shard 0 on even days, customer 1 on shard 1 on odd days
+            (day % 2 == 0 ? shard0 : shard1).update(
+                    "INSERT INTO orders (customer_id, product, quantity, created_at) VALUES (?, ?, 1, ?)",
+                    day % 2 == 0 ? 2 : 1, "Day " + day, start.plusDays(day));
+        }
+
+        // When
+        List<Order> ascending = orderService.getOrdersSorted("asc");
+        List<Order> descending = orderService.getOrdersSorted("desc");
+        List<Order> inRange = orderService.getOrdersByDateRange(start.plusDays(1), start.plusDays(2));
+
+        // Then
+        assertEquals(List.of("Day 0", "Day 1", "Day 2", "Day 3"), ascending.stream().map(Order::getProduct).toList());
+        assertEquals(List.of("Day 3", "Day 2", "Day 1", "Day 0"), descending.stream().map(Order::getProduct).toList());
+        assertEquals(List.of("Day 1", "Day 2"), inRange.stream().map(Order::getProduct).toList());
+    }
+
+    @Test
+    void orderIdQueries_ShouldFindOrderOnAnyShard() {
+        // Given
+        Order order = orderService.createOrder(new Order(null, 1L, "Product 1", 1, LocalDateTime.now()));
+        Order update = new Order(order.getId(), 1L, "Product 1", 5, order.getCreatedAt());
+        Order move = new Order(order.getId(), 2L, "Product 1", 5, order.getCreatedAt());
+
+        // When
+        Order found = orderService.getOrder(order.getId());
+        orderService.updateOrder(update);
+
+        // Then
+        assertEquals("Product 1", found.getProduct());
+        assertEquals(5, shard1.queryForObject("SELECT quantity FROM orders", Integer.class));
+        assertThrows(BadRequestException.class, () -> orderService.updateOrder(move));
+        orderService.deleteOrder(order.getId());
+        assertEquals(0, shard1.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void startup_WithShardsAndReadReplicas_ShouldFailWithClearMessage() {
+        // Given
+        SpringApplicationBuilder application = new SpringApplicationBuilder(OrderServiceApplication.class);
+
+        // When
+        Exception ex = assertThrows(Exception.class, () -> application.run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--sharding.shards[0].url=" + SHARD_0_URL,
+                "--read-replicas.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1"));
+
+        // Then
+        Throwable cause = ex;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().contains("sharding.shards and read-replicas.replicas cannot both be set"),
+                cause.getMessage());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.order_service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.order_service.model.TimeOrderedIdGenerator;
+
+public class TimeOrderedIdGeneratorUnitTest {
+
+    @Test
+    void nextId_ShouldIncreaseWithinOneGenerator() {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        List<Long> ids = new ArrayList<>();
+
+        // When
+        // more IDs than fit in one millisecond's sequence
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1));
+        }
+    }
+
+    @Test
+    void nextId_WhenConcurrent_ShouldNotRepeat() throws Exception {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        try (ExecutorService threads = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                threads.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                });
+            }
+        }
+
+        // Then
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void nextId_WithDifferentWorkers_ShouldNotCollide() {
+        // Given
+        TimeOrderedIdGenerator first = new TimeOrderedIdGenerator(1);
+        TimeOrderedIdGenerator second = new TimeOrderedIdGenerator(2);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        // Then
+        assertEquals(20_000, ids.size());
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1 << 10));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.read_replicas;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the single {@code spring.datasource} pool with a primary pool and
+ * one pool per entry of {@code read-replicas.replicas}, behind a
+ * {@link ReadReplicaRoutingDataSource}. Every pool takes its settings from
+ * {@code spring.datasource.hikari} and reports the {@code hikaricp.*} metrics
+ * under its own pool name.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "read-replicas.replicas[0].url")
+public class ReadReplicaConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${read-replicas.sticky-window:0s}") Duration stickyWindow,
+            @Value("${read-replicas.cookie-key:}") String cookieKey) {
+        return new ReadYourWrites(stickyWindow, cookieKey);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool("primary", properties.initializeDataSourceBuilder(), binder, meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (Replica replica : binder.bind("read-replicas.replicas", Bindable.listOf(Replica.class)).get()) {
+            DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                    .url(replica.url())
+                    .username(replica.username() != null ? replica.username() : properties.determineUsername())
+                    .password(replica.password() != null ? replica.password() : properties.determinePassword());
+            HikariDataSource pool = pool("replica-" + (replicas.size() + 1), builder, binder, meterRegistry);
+            pool.setReadOnly(true);
+            replicas.add(pool);
+        }
+
+        return new LazyConnectionDataSourceProxy(
+                new ReadReplicaRoutingDataSource(primary, replicas, readYourWrites, meterRegistry));
+    }
+
+    public static HikariDataSource pool(String name, DataSourceBuilder<?> builder, Binder binder,
+            MeterRegistry meterRegistry) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    /**
+     * A replica; username and password default to the primary's.
+     */
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.read_replicas;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheStoreMode;
+
+/**
+ * Hands out connections from the primary pool, or round-robin from the
+ * replica pools for {@code @Transactional(readOnly = true)} work. Work
+ * outside a read-only transaction always goes to the primary, and so does a
+ * client inside its {@link ReadYourWrites} window.
+ *
+ * The transaction is only known to be read-only once it has started, so this
+ * sits behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that fetches the connection on the first statement.
+ *
+ * What a transaction reads from a replica may lag behind the primary, so it
+ * is kept out of the second-level cache, which every client reads from.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final Map<String, Counter> checkouts = new LinkedHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+            ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (HikariDataSource pool : getPools()) {
+            targets.put(pool.getPoolName(), pool);
+            checkouts.put(pool.getPoolName(), Counter.builder("datasource.routing.connections")
+                    .description("Connections handed out by the read/write routing data source")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * @return The primary pool followed by the replica pools.
+     */
+    public List<HikariDataSource> getPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primary);
+        pools.addAll(replicas);
+        return pools;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.onWrite();
+            return primary.getPoolName();
+        }
+        if (replicas.isEmpty() || readYourWrites.isActive()) {
+            return primary.getPoolName();
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size())).getPoolName();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route().getConnection(username, password);
+    }
+
+    private HikariDataSource route() {
+        String pool = (String) determineCurrentLookupKey();
+        checkouts.get(pool).increment();
+        if (!pool.equals(primary.getPoolName())) {
+            bypassSecondLevelCache();
+        }
+        return (HikariDataSource) getResolvedDataSources().get(pool);
+    }
+
+    private static void bypassSecondLevelCache() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.read_replicas;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Keeps a client on the primary for a short window after it wrote, so it
+ * reads its own writes even while the replicas lag behind. The window end is
+ * handed to the client in a cookie when a write transaction commits; reads
+ * that arrive with an unexpired cookie are not routed to a replica. The cookie
+ * carries an HMAC of the window end; one without a valid signature, or one
+ * that ends further out than one window from now, is ignored, so a client
+ * cannot pin itself to the primary.
+ *
+ * Every instance of a service must be given the same key for a cookie issued
+ * by one to count at another. Without a key each instance makes up its own at
+ * startup and only honours the cookies it issued itself.
+ *
+ * A zero window turns this off. Outside an HTTP request, e.g. in scheduled
+ * jobs, there is no client to stick to.
+ */
+public class ReadYourWrites {
+
+    public static final String COOKIE = "db-primary-until";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Duration window;
+    private final SecretKeySpec key;
+
+    /**
+     * @param key Secret the cookie is signed with; blank for a random one.
+     */
+    public ReadYourWrites(Duration window, String key) {
+        this.window = window;
+        byte[] secret;
+        if (key == null || key.isBlank()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = key.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * @return Whether the current request's client wrote within the window.
+     */
+    public boolean isActive() {
+        if (window.isZero() || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getRequest().getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : attributes.getRequest().getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                return isValid(cookie.getValue(), System.currentTimeMillis());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the cookie value was issued by this service and its
+     *         window is open at {@code now}.
+     */
+    boolean isValid(String value, long now) {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        long until;
+        try {
+            until = Long.parseLong(value.substring(0, dot));
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        byte[] signature = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        // a signed window still must not outlast one window from now, in case
+        // the window was shortened since the cookie was issued
+        return MessageDigest.isEqual(signature, sign(until).getBytes(StandardCharsets.US_ASCII))
+                && now < until && until <= now + window.toMillis();
+    }
+
+    /**
+     * @return The cookie value for a window that ends at {@code until}.
+     */
+    String issue(long until) {
+        return until + "." + sign(until);
+    }
+
+    private String sign(long until) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(String.valueOf(until).getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException ex) {
+            // every Java platform supports HmacSHA256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Called when the current transaction takes a primary connection; starts the
+     * window once it commits.
+     */
+    void onWrite() {
+        if (!window.isZero() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stickToPrimary();
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts the window for the current request's client after a write that
+     * another thread committed for it, such as a group commit, where
+     * {@link #onWrite()} runs without the request.
+     */
+    public void stickToPrimary() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, issue(System.currentTimeMillis() + window.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) ((window.toMillis() + 999) / 1000));
+        response.addCookie(cookie);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.read_replicas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class ReadYourWritesUnitTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), "secret");
+
+    @Test
+    void isValid_WithIssuedCookieWithinWindow_ShouldReturnTrue() {
+        // Given
+        String value = readYourWrites.issue(NOW + 5000);
+
+        // When & Then
+        assertTrue(readYourWrites.isValid(value, NOW));
+        assertTrue(new ReadYourWrites(Duration.ofSeconds(5), "secret").isValid(value, NOW));
+        assertFalse(readYourWrites.isValid(value, NOW + 5000));
+    }
+
+    @Test
+    void isValid_WithForgedCookie_ShouldReturnFalse() {
+        // Given
+        String issued = readYourWrites.issue(NOW + 5000);
+        String signature = issued.substring(issued.indexOf('.') + 1);
+
+        // When & Then
+        assertFalse(readYourWrites.isValid(String.valueOf(Long.MAX_VALUE), NOW));
+        assertFalse(readYourWrites.isValid((NOW + 4000) + "." + signature, NOW));
+        assertFalse(readYourWrites.isValid("x." + signature, NOW));
+        assertFalse(new ReadYourWrites(Duration.ofSeconds(5), "other").isValid(issued, NOW));
+        assertFalse(new ReadYourWrites(Duration.ofSeconds(5), "").isValid(issued, NOW));
+    }
+
+    @Test
+    void isValid_WithSignedCookieBeyondWindow_ShouldReturnFalse() {
+        // Given
+        String value = readYourWrites.issue(NOW + 60_000);
+
+        // When & Then
+        assertFalse(readYourWrites.isValid(value, NOW));
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.registry_push_client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local copy of the registry kept up to date by service-registry's change feed
+ * ({@code registry.push.url}).
+ *
+ * Eureka clients only poll the registry every 30 seconds; this cache applies
+ * registrations and cancellations as soon as they are pushed, so load-balanced
+ * calls stop going to dead instances and start reaching new ones within a
+ * second. While the feed is disconnected {@link #isSynced()} is false and the
+ * load balancer falls back to the regular Eureka client cache.
+ */
+@Component
+public class PushInstanceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushInstanceCache.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private final String feedUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // service id (lower case) -> instance id -> instance
+    private final Map<String, Map<String, ServiceInstance>> instances = new ConcurrentHashMap<>();
+    private volatile boolean synced;
+    private volatile boolean running;
+    private volatile String lastEventId;
+    private Thread subscriber;
+
+    // state of the server-sent event being parsed
+    private String eventName;
+    private String eventId;
+    private final StringBuilder eventData = new StringBuilder();
+
+    public PushInstanceCache(@Value("${registry.push.url:}") String feedUrl, ObjectMapper objectMapper) {
+        this.feedUrl = feedUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        if (feedUrl == null || feedUrl.isBlank()) {
+            logger.info("registry.push.url not set, relying on Eureka polling only");
+            return;
+        }
+        running = true;
+        subscriber = new Thread(this::subscribeLoop, "registry-change-feed");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (subscriber != null) {
+            subscriber.interrupt();
+        }
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @param serviceId The service id, case-insensitive.
+     * @return The instances of the service that are currently UP.
+     */
+    public List<ServiceInstance> getInstances(String serviceId) {
+        Map<String, ServiceInstance> serviceInstances = instances.get(serviceId.toLowerCase(Locale.ROOT));
+        return serviceInstances == null ? List.of() : List.copyOf(serviceInstances.values());
+    }
+
+    private void subscribeLoop() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                stream();
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                logger.warn("Registry change feed disconnected: {}", ex.getMessage());
+            }
+            synced = false;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private void stream() throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(feedUrl))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Unexpected status " + response.statusCode());
+        }
+        logger.info("Subscribed to registry change feed at {}", feedUrl);
+        if (lastEventId != null) {
+            // the registry replays missed changes (or sends a snapshot) first
+            synced = true;
+        }
+        try (Stream<String> lines = response.body()) {
+            lines.forEach(this::onLine);
+        }
+        throw new IOException("Stream closed by registry");
+    }
+
+    /**
+     * Feeds one line of the server-sent event stream.
+     *
+     * @param line The line, without its terminator.
+     */
+    public void onLine(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.startsWith(":")) {
+            return; // comment / keep-alive
+        }
+        int colon = line.indexOf(':');
+        String field = colon < 0 ? line : line.substring(0, colon);
+        String value = colon < 0 ? "" : line.substring(colon + 1);
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+        switch (field) {
+            case "event" -> eventName = value;
+            case "id" -> eventId = value;
+            case "data" -> {
+                if (!eventData.isEmpty()) {
+                    eventData.append('\n');
+                }
+                eventData.append(value);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void dispatch() {
+        try {
+            if ("snapshot".equals(eventName)) {
+                applySnapshot(objectMapper.readValue(eventData.toString(),
+                        new TypeReference<List<RegistryChangeEvent>>() {
+                        }));
+            } else if ("change".equals(eventName)) {
+                apply(objectMapper.readValue(eventData.toString(), RegistryChangeEvent.class));
+            }
+            if (eventId != null) {
+                lastEventId = eventId;
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to parse registry change event: {}", ex.getMessage());
+        } finally {
+            eventName = null;
+            eventId = null;
+            eventData.setLength(0);
+        }
+    }
+
+    private void applySnapshot(List<RegistryChangeEvent> snapshot) {
+        instances.clear();
+        snapshot.forEach(this::apply);
+        synced = true;
+        logger.info("Registry snapshot received with {} instances", snapshot.size());
+    }
+
+    private void apply(RegistryChangeEvent event) {
+        String serviceId = event.appName().toLowerCase(Locale.ROOT);
+        if (RegistryChangeEvent.CANCELLED.equals(event.type())
+                || !RegistryChangeEvent.STATUS_UP.equals(event.status())) {
+            Map<String, ServiceInstance> serviceInstances = instances.get(serviceId);
+            if (serviceInstances != null) {
+                serviceInstances.remove(event.instanceId());
+            }
+            logger.debug("Instance {} of {} removed ({})", event.instanceId(), serviceId, event.type());
+            return;
+        }
+        int port = event.secure() ? event.securePort() : event.port();
+        Map<String, String> metadata = event.metadata() != null ? event.metadata() : Map.of();
+        ServiceInstance instance = new DefaultServiceInstance(event.instanceId(), serviceId, event.hostName(), port,
+                event.secure(), metadata);
+        instances.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>()).put(event.instanceId(), instance);
+        logger.debug("Instance {} of {} added", event.instanceId(), serviceId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.registry_push_client;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Load balancer client configuration backed by the push-updated instance
+ * cache. Registered through {@code @LoadBalancerClients}, so it is deliberately
+ * not a {@code @Configuration} picked up by component scanning.
+ *
+ * No caching layer is added on top: both the push cache and the Eureka client
+ * fallback are already in memory, and the default 35 second cache would hide
+ * pushed changes.
+ *
+ * The fallback goes through the reactive discovery client when the
+ * application has one, as Spring Cloud's default configuration does, and
+ * through the blocking one otherwise.
+ */
+public class PushLoadBalancerConfig {
+
+    @Bean
+    public ServiceInstanceListSupplier pushServiceInstanceListSupplier(ConfigurableApplicationContext context,
+            PushInstanceCache pushInstanceCache) {
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder();
+        // the discovery clients live in the application context, the parent of this one
+        if (BeanFactoryUtils.beanNamesForTypeIncludingAncestors(context, ReactiveDiscoveryClient.class).length > 0) {
+            builder.withDiscoveryClient();
+        } else {
+            builder.withBlockingDiscoveryClient();
+        }
+        ServiceInstanceListSupplier delegate = builder.build(context);
+        return new PushServiceInstanceListSupplier(delegate, pushInstanceCache);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.registry_push_client;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Serves load balancer instance lists from the {@link PushInstanceCache} while
+ * it is in sync with the registry, and from the regular discovery client
+ * otherwise.
+ */
+public class PushServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+
+    private final ServiceInstanceListSupplier delegate;
+    private final PushInstanceCache pushInstanceCache;
+
+    public PushServiceInstanceListSupplier(ServiceInstanceListSupplier delegate,
+            PushInstanceCache pushInstanceCache) {
+        this.delegate = delegate;
+        this.pushInstanceCache = pushInstanceCache;
+    }
+
+    @Override
+    public String getServiceId() {
+        return delegate.getServiceId();
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        if (pushInstanceCache.isSynced()) {
+            return Flux.just(pushInstanceCache.getInstances(getServiceId()));
+        }
+        return delegate.get();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.registry_push_client;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A registry change as pushed by service-registry's change feed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RegistryChangeEvent(
+        long sequence,
+        String type,
+        String appName,
+        String instanceId,
+        String hostName,
+        int port,
+        int securePort,
+        boolean secure,
+        String status,
+        Map<String, String> metadata) {
+
+    public static final String CANCELLED = "CANCELLED";
+    public static final String STATUS_UP = "UP";
+}
@@ -0,0 +1,52 @@
+package com.example.registry_push_client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PushInstanceCacheUnitTest {
+
+    private static final String INSTANCE_UP = "{\"sequence\":1,\"type\":\"REGISTERED\",\"appName\":\"CUSTOMER-SERVICE\","
+            + "\"instanceId\":\"host:customer-service:8081\",\"hostName\":\"host\",\"port\":8081,\"securePort\":443,"
+            + "\"secure\":false,\"status\":\"UP\",\"metadata\":{}}";
+
+    @Test
+    void onLine_WithSnapshot_ShouldBecomeSyncedAndServeInstances() {
+        // Given
+        PushInstanceCache cache = new PushInstanceCache("", new ObjectMapper());
+        assertFalse(cache.isSynced());
+
+        // When
+        cache.onLine("event: snapshot");
+        cache.onLine("id: 1");
+        cache.onLine("data: [" + INSTANCE_UP + "]");
+        cache.onLine("");
+
+        // Then
+        assertTrue(cache.isSynced());
+        assertEquals(1, cache.getInstances("customer-service").size());
+        assertEquals(8081, cache.getInstances("CUSTOMER-SERVICE").get(0).getPort());
+    }
+
+    @Test
+    void onLine_WithCancelledChange_ShouldRemoveInstance() {
+        // Given
+        PushInstanceCache cache = new PushInstanceCache("", new ObjectMapper());
+        cache.onLine("event: snapshot");
+        cache.onLine("data: [" + INSTANCE_UP + "]");
+        cache.onLine("");
+
+        // When
+        cache.onLine(": keep-alive");
+        cache.onLine("event: change");
+        cache.onLine("id: 2");
+        cache.onLine("data: {\"sequence\":2,\"type\":\"CANCELLED\",\"appName\":\"CUSTOMER-SERVICE\","
+                + "\"instanceId\":\"host:customer-service:8081\"}");
+        cache.onLine("");
+
+        // Then
+        assertTrue(cache.getInstances("customer-service").isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.registry_push_client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Flux;
+
+public class PushServiceInstanceListSupplierUnitTest {
+
+    private static final ServiceInstance POLLED = new DefaultServiceInstance("polled", "customer-service", "polled",
+            8082, false);
+    private static final ServiceInstance PUSHED = new DefaultServiceInstance("pushed", "customer-service", "pushed",
+            8082, false);
+
+    @Test
+    void get_WhenPushCacheSynced_ShouldServePushedInstances() {
+        // Given
+        PushInstanceCache pushInstanceCache = mock(PushInstanceCache.class);
+        when(pushInstanceCache.isSynced()).thenReturn(true);
+        when(pushInstanceCache.getInstances("customer-service")).thenReturn(List.of(PUSHED));
+        PushServiceInstanceListSupplier supplier = new PushServiceInstanceListSupplier(delegate(), pushInstanceCache);
+
+        // When
+        List<ServiceInstance> instances = supplier.get().blockFirst();
+
+        // Then
+        assertEquals(List.of(PUSHED), instances);
+    }
+
+    @Test
+    void get_WhenPushCacheNotSynced_ShouldFallBackToDiscoveryClient() {
+        // Given
+        PushInstanceCache pushInstanceCache = mock(PushInstanceCache.class);
+        when(pushInstanceCache.isSynced()).thenReturn(false);
+        PushServiceInstanceListSupplier supplier = new PushServiceInstanceListSupplier(delegate(), pushInstanceCache);
+
+        // When
+        List<ServiceInstance> instances = supplier.get().blockFirst();
+
+        // Then
+        assertEquals(List.of(POLLED), instances);
+        verify(pushInstanceCache, never()).getInstances(anyString());
+    }
+
+    private static ServiceInstanceListSupplier delegate() {
+        ServiceInstanceListSupplier delegate = mock(ServiceInstanceListSupplier.class);
+        when(delegate.getServiceId()).thenReturn("customer-service");
+        when(delegate.get()).thenReturn(Flux.just(List.of(POLLED)));
+        return delegate;
+    }
+}
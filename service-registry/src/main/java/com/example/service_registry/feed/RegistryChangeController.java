@@ -0,0 +1,31 @@
+package com.example.service_registry.feed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push-based alternative to polling the Eureka registry.
+ */
+@RestController
+@RequestMapping("/registry")
+public class RegistryChangeController {
+
+    @Autowired
+    private RegistryChangeFeed registryChangeFeed;
+
+    /**
+     * Subscribes to registry changes as server-sent events.
+     *
+     * @param lastEventId The id of the last event received before a reconnect.
+     * @return A stream of a snapshot followed by change events.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return registryChangeFeed.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.service_registry.feed;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.appinfo.InstanceInfo;
+
+/**
+ * A single change to the registry, as pushed to subscribers of the change
+ * feed.
+ *
+ * @param sequence   Sequence number, monotonic within one registry process;
+ *                   the SSE event id is the process epoch and this sequence.
+ * @param type       What happened to the instance.
+ * @param appName    The application name as registered (upper case).
+ * @param instanceId The Eureka instance id.
+ * @param status     The instance status, e.g. UP or DOWN.
+ */
+public record RegistryChangeEvent(
+        long sequence,
+        Type type,
+        String appName,
+        String instanceId,
+        String hostName,
+        int port,
+        int securePort,
+        boolean secure,
+        String status,
+        Map<String, String> metadata,
+        long timestamp) {
+
+    public enum Type {
+        REGISTERED, STATUS_CHANGED, CANCELLED
+    }
+
+    public static RegistryChangeEvent of(long sequence, Type type, InstanceInfo info) {
+        boolean secure = info.isPortEnabled(InstanceInfo.PortType.SECURE);
+        return new RegistryChangeEvent(sequence, type, info.getAppName(), info.getInstanceId(), info.getHostName(),
+                info.getPort(), info.getSecurePort(), secure, info.getStatus().name(),
+                new HashMap<>(info.getMetadata()), System.currentTimeMillis());
+    }
+
+    public static RegistryChangeEvent cancelled(long sequence, String appName, String instanceId) {
+        return new RegistryChangeEvent(sequence, Type.CANCELLED, appName, instanceId, null, 0, 0, false, null,
+                Map.of(), System.currentTimeMillis());
+    }
+}
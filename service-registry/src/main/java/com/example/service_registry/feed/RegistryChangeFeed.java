@@ -0,0 +1,280 @@
+package com.example.service_registry.feed;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+/**
+ * Streams registry changes (registrations, status changes and cancellations,
+ * including lease evictions) to subscribed clients over server-sent events.
+ *
+ * New subscribers first receive a {@code snapshot} event with every registered
+ * instance, then one {@code change} event per registry change. A subscriber
+ * that reconnects with a {@code Last-Event-ID} still in the replay buffer only
+ * receives the changes it missed. Event ids are {@code <epoch>-<sequence>},
+ * the epoch being the registry's start time: sequences restart with the
+ * process, so an id from a previous process gets a fresh snapshot instead of
+ * a replay.
+ *
+ * Registry changes are published on Eureka's register and cancel threads, so
+ * they are only queued here; every subscriber has its own sender thread that
+ * writes to the connection. A subscriber that falls {@code subscriber-queue-size}
+ * events behind is disconnected and resyncs when it reconnects.
+ */
+@Component
+public class RegistryChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryChangeFeed.class);
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String CHANGE_EVENT = "change";
+
+    private final PeerAwareInstanceRegistry registry;
+    private final int replayBufferSize;
+    private final int subscriberQueueSize;
+    private final long epoch = System.currentTimeMillis();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<RegistryChangeEvent> recentEvents = new ArrayDeque<>();
+    private final Map<String, String> lastStatus = new ConcurrentHashMap<>();
+    private long sequence;
+
+    public RegistryChangeFeed(PeerAwareInstanceRegistry registry,
+            @Value("${registry.feed.replay-buffer-size:1000}") int replayBufferSize,
+            @Value("${registry.feed.subscriber-queue-size:1000}") int subscriberQueueSize) {
+        this.registry = registry;
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberQueueSize = subscriberQueueSize;
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        InstanceInfo info = event.getInstanceInfo();
+        lastStatus.put(info.getInstanceId(), info.getStatus().name());
+        publish(RegistryChangeEvent.Type.REGISTERED, info);
+    }
+
+    // renewals are only forwarded when they carry a status change
+    @EventListener
+    public void onRenewed(EurekaInstanceRenewedEvent event) {
+        InstanceInfo info = event.getInstanceInfo();
+        if (info == null) {
+            return;
+        }
+        String previous = lastStatus.put(info.getInstanceId(), info.getStatus().name());
+        if (previous != null && !previous.equals(info.getStatus().name())) {
+            publish(RegistryChangeEvent.Type.STATUS_CHANGED, info);
+        }
+    }
+
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        lastStatus.remove(event.getServerId());
+        synchronized (this) {
+            broadcast(remember(RegistryChangeEvent.cancelled(++sequence, event.getAppName(), event.getServerId())));
+        }
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @param lastEventId The id of the last event the subscriber saw, or null
+     *                    for a fresh subscription.
+     * @return The emitter streaming events to the subscriber.
+     */
+    public synchronized SseEmitter subscribe(String lastEventId) {
+        Subscriber subscriber = new Subscriber(createEmitter(), subscriberQueueSize);
+        Long lastSequence = lastSequence(lastEventId);
+        // a replay has to fit in the subscriber's queue as well
+        if (lastSequence != null && canReplayFrom(lastSequence) && sequence - lastSequence < subscriberQueueSize) {
+            for (RegistryChangeEvent event : recentEvents) {
+                if (event.sequence() > lastSequence) {
+                    subscriber.offer(changeEvent(event));
+                }
+            }
+        } else {
+            if (lastEventId != null) {
+                logger.info("Last-Event-ID {} cannot be replayed, sending a snapshot", lastEventId);
+            }
+            subscriber.offer(SseEmitter.event()
+                    .id(eventId(sequence))
+                    .name(SNAPSHOT_EVENT)
+                    .data(snapshot()));
+        }
+        subscribers.add(subscriber);
+        subscriber.start();
+        logger.info("Registry change feed subscriber added, {} active", subscribers.size());
+        return subscriber.emitter;
+    }
+
+    // keeps idle connections (and proxies in between) from timing out
+    @Scheduled(fixedDelayString = "${registry.feed.keep-alive-interval:15s}")
+    public void keepAlive() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    protected SseEmitter createEmitter() {
+        return new SseEmitter(0L);
+    }
+
+    private synchronized void publish(RegistryChangeEvent.Type type, InstanceInfo info) {
+        broadcast(remember(RegistryChangeEvent.of(++sequence, type, info)));
+    }
+
+    private RegistryChangeEvent remember(RegistryChangeEvent event) {
+        recentEvents.addLast(event);
+        if (recentEvents.size() > replayBufferSize) {
+            recentEvents.removeFirst();
+        }
+        return event;
+    }
+
+    private void broadcast(RegistryChangeEvent event) {
+        logger.debug("Publishing registry change {} {} {}", event.type(), event.appName(), event.instanceId());
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, changeEvent(event));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEventBuilder event) {
+        if (!subscriber.offer(event)) {
+            logger.warn("Registry change feed subscriber is {} events behind, disconnecting it", subscriberQueueSize);
+            subscribers.remove(subscriber);
+            subscriber.close();
+        }
+    }
+
+    private SseEventBuilder changeEvent(RegistryChangeEvent event) {
+        return SseEmitter.event()
+                .id(eventId(event.sequence()))
+                .name(CHANGE_EVENT)
+                .data(event);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    // the sequence of an event id from this registry process, null for any other id
+    private Long lastSequence(String lastEventId) {
+        if (lastEventId == null) {
+            return null;
+        }
+        int dash = lastEventId.indexOf('-');
+        try {
+            if (dash < 0 || Long.parseLong(lastEventId.substring(0, dash)) != epoch) {
+                return null;
+            }
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private boolean canReplayFrom(long lastSequence) {
+        if (lastSequence > sequence) {
+            return false;
+        }
+        return lastSequence == sequence
+                || (!recentEvents.isEmpty() && recentEvents.peekFirst().sequence() <= lastSequence + 1);
+    }
+
+    private List<RegistryChangeEvent> snapshot() {
+        List<RegistryChangeEvent> instances = new ArrayList<>();
+        for (Application application : registry.getApplications().getRegisteredApplications()) {
+            for (InstanceInfo info : application.getInstances()) {
+                instances.add(RegistryChangeEvent.of(sequence, RegistryChangeEvent.Type.REGISTERED, info));
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * A subscriber's pending events, written to its connection by a sender
+     * thread of its own so a slow connection only holds up itself.
+     */
+    private final class Subscriber {
+
+        // queued to make the sender complete the emitter
+        private static final SseEventBuilder CLOSE = SseEmitter.event();
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEventBuilder> pending;
+        private volatile Thread sender;
+
+        Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueSize);
+            emitter.onCompletion(this::stop);
+            emitter.onTimeout(this::stop);
+            emitter.onError(ex -> stop());
+        }
+
+        boolean offer(SseEventBuilder event) {
+            return pending.offer(event);
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("registry-feed-sender").start(this::send);
+        }
+
+        void close() {
+            pending.clear();
+            pending.offer(CLOSE);
+        }
+
+        private void stop() {
+            subscribers.remove(this);
+            Thread thread = sender;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void send() {
+            try {
+                while (true) {
+                    SseEventBuilder event = pending.take();
+                    if (event == CLOSE) {
+                        emitter.complete();
+                        return;
+                    }
+                    emitter.send(event);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.service_registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.service_registry.feed.RegistryChangeFeed;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+public class RegistryChangeFeedUnitTest {
+
+    private PeerAwareInstanceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(PeerAwareInstanceRegistry.class);
+        when(registry.getApplications()).thenReturn(new Applications());
+    }
+
+    @Test
+    void subscribe_WithoutLastEventId_ShouldSendSnapshotThenChanges() throws Exception {
+        // Given
+        RecordingFeed feed = new RecordingFeed(registry, 10);
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null);
+
+        // When
+        feed.onRegistered(registered("host:customer-service:8082"));
+
+        // Then
+        String snapshot = emitter.next();
+        assertTrue(snapshot.contains("event:snapshot"));
+        String change = emitter.next();
+        assertTrue(change.contains("event:change"));
+        assertTrue(change.contains("host:customer-service:8082"));
+    }
+
+    @Test
+    void publish_WithBlockedSubscriber_ShouldNotBlockRegistryOrOtherSubscribers() throws Exception {
+        // Given
+        RecordingFeed feed = new RecordingFeed(registry, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        feed.blockSends = release;
+        RecordingEmitter blocked = (RecordingEmitter) feed.subscribe(null);
+        feed.blockSends = null;
+        RecordingEmitter healthy = (RecordingEmitter) feed.subscribe(null);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            feed.onRegistered(registered("host:customer-service:" + (8000 + i)));
+        }
+
+        // Then
+        healthy.next();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(healthy.next().contains("host:customer-service:" + (8000 + i)));
+        }
+        assertTrue(blocked.sent.isEmpty());
+        release.countDown();
+        assertTrue(blocked.next().contains("event:snapshot"));
+    }
+
+    @Test
+    void publish_WithSubscriberTooFarBehind_ShouldDisconnectIt() throws Exception {
+        // Given
+        RecordingFeed feed = new RecordingFeed(registry, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        feed.blockSends = release;
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            feed.onRegistered(registered("host:customer-service:" + (8000 + i)));
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(0, feed.getSubscriberCount());
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribe_WithLastEventIdInReplayBuffer_ShouldReplayMissedChangesOnly() throws Exception {
+        // Given
+        RecordingFeed feed = new RecordingFeed(registry, 10);
+        RecordingEmitter first = (RecordingEmitter) feed.subscribe(null);
+        feed.onRegistered(registered("host:customer-service:8082"));
+        first.next();
+        String lastEventId = eventId(first.next());
+        feed.onCanceled(new EurekaInstanceCanceledEvent(this, "CUSTOMER-SERVICE", "host:customer-service:8082", false));
+
+        // When
+        RecordingEmitter reconnected = (RecordingEmitter) feed.subscribe(lastEventId);
+
+        // Then
+        String replayed = reconnected.next();
+        assertTrue(replayed.contains("event:change"));
+        assertTrue(replayed.contains("CANCELLED"));
+        assertNull(reconnected.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_WithLastEventIdFromPreviousRegistryProcess_ShouldResyncWithSnapshot() throws Exception {
+        // Given
+        RecordingFeed previous = new RecordingFeed(registry, 10);
+        RecordingEmitter emitter = (RecordingEmitter) previous.subscribe(null);
+        for (int i = 0; i < 5; i++) {
+            previous.onRegistered(registered("host:customer-service:" + (8000 + i)));
+        }
+        String lastEventId = null;
+        for (int i = 0; i < 6; i++) {
+            lastEventId = eventId(emitter.next());
+        }
+        Thread.sleep(5);
+        RecordingFeed restarted = new RecordingFeed(registry, 10);
+        restarted.onRegistered(registered("host:customer-service:9000"));
+
+        // When
+        RecordingEmitter reconnected = (RecordingEmitter) restarted.subscribe(lastEventId);
+
+        // Then
+        assertTrue(reconnected.next().contains("event:snapshot"));
+    }
+
+    @Test
+    void subscribe_WithMalformedLastEventId_ShouldSendSnapshot() throws Exception {
+        // Given
+        RecordingFeed feed = new RecordingFeed(registry, 10);
+
+        // When
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe("42");
+
+        // Then
+        assertTrue(emitter.next().contains("event:snapshot"));
+    }
+
+    private static EurekaInstanceRegisteredEvent registered(String instanceId) {
+        InstanceInfo info = InstanceInfo.Builder.newBuilder()
+                .setAppName("CUSTOMER-SERVICE")
+                .setInstanceId(instanceId)
+                .setHostName("host")
+                .setPort(8082)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .build();
+        return new EurekaInstanceRegisteredEvent(RegistryChangeFeedUnitTest.class, info, 30, false);
+    }
+
+    private static String eventId(String event) {
+        for (String line : event.split("\n")) {
+            if (line.startsWith("id:")) {
+                return line.substring(3);
+            }
+        }
+        throw new AssertionError("No id in " + event);
+    }
+
+    private static class RecordingFeed extends RegistryChangeFeed {
+
+        // sends on emitters created while set wait for it
+        volatile CountDownLatch blockSends;
+
+        RecordingFeed(PeerAwareInstanceRegistry registry, int subscriberQueueSize) {
+            super(registry, 100, subscriberQueueSize);
+        }
+
+        @Override
+        protected SseEmitter createEmitter() {
+            return new RecordingEmitter(blockSends);
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch blockSends;
+
+        RecordingEmitter(CountDownLatch blockSends) {
+            this.blockSends = blockSends;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (blockSends != null) {
+                try {
+                    blockSends.await();
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+            }
+            List<String> parts = new ArrayList<>();
+            builder.build().forEach(part -> parts.add(String.valueOf(part.getData())));
+            sent.add(String.join("", parts));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No event sent within 5 seconds");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.service_registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Runs a three node registry cluster in one JVM, each node started with the
+ * {@code cluster} profile of {@code config/service-registry.yml} and nothing
+ * else but its port, so it needs ports 8761 to 8763. It registers and
+ * heartbeats a burst of instances on the first node and measures how long
+ * they take to show up on the other two, polling them while the burst is
+ * still being sent, and how many replication requests were needed. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RegistryReplicationBenchmark {
+
+    private static final int NODES = 3;
+    private static final int INSTANCES = Integer.getInteger("harness.instances", 500);
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    // replication requests received by all nodes
+    static final AtomicLong replicationBatches = new AtomicLong();
+
+    // the peers the cluster profile lists
+    private static final List<Integer> PORTS = List.of(8761, 8762, 8763);
+    private static final String CONFIG = "file:../config/service-registry.yml";
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Configuration
+    static class ReplicationCountingConfig {
+
+        @Bean
+        FilterRegistrationBean<Filter> replicationCountingFilter() {
+            Filter filter = (request, response, chain) -> {
+                if (((HttpServletRequest) request).getRequestURI().contains("/peerreplication/batch")) {
+                    replicationBatches.incrementAndGet();
+                }
+                chain.doFilter(request, response);
+            };
+            return new FilterRegistrationBean<>(filter);
+        }
+    }
+
+    @BeforeAll
+    void startCluster() throws Exception {
+        // all at once, as each node waits for its peers during startup
+        try (ExecutorService starter = Executors.newFixedThreadPool(NODES)) {
+            List<Future<ConfigurableApplicationContext>> started = new ArrayList<>();
+            for (int port : PORTS) {
+                started.add(starter.submit(() -> new SpringApplicationBuilder(ServiceRegistryApplication.class,
+                        ReplicationCountingConfig.class).run(
+                                // command line arguments, so they override server.port in application.yml
+                                "--server.port=" + port,
+                                "--spring.profiles.active=cluster",
+                                // the config server's file, read directly
+                                "--spring.cloud.config.enabled=false",
+                                "--spring.config.additional-location=" + CONFIG,
+                                // three nodes in one JVM
+                                "--spring.jmx.enabled=false",
+                                "--logging.level.com.netflix=WARN")));
+            }
+            for (Future<ConfigurableApplicationContext> node : started) {
+                nodes.add(node.get());
+            }
+        }
+    }
+
+    @AfterAll
+    void stopCluster() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void replicationLag() throws Exception {
+        // Given
+        replicationBatches.set(0);
+        AtomicLongArray registeredAt = new AtomicLongArray(INSTANCES);
+
+        // When
+        List<Long> lagNanos;
+        try (ExecutorService poller = Executors.newSingleThreadExecutor()) {
+            Future<List<Long>> replicated = poller.submit(() -> awaitReplication(registeredAt));
+            for (int i = 0; i < INSTANCES; i++) {
+                registeredAt.set(i, System.nanoTime());
+                expect(204, http.send(registerRequest(PORTS.get(0), i), HttpResponse.BodyHandlers.discarding()));
+            }
+            lagNanos = replicated.get();
+        }
+        long registrationBatches = replicationBatches.get();
+
+        replicationBatches.set(0);
+        for (int i = 0; i < INSTANCES; i++) {
+            expect(200, http.send(heartbeatRequest(PORTS.get(0), i), HttpResponse.BodyHandlers.discarding()));
+        }
+        Thread.sleep(2000);
+        long heartbeatBatches = replicationBatches.get();
+
+        // Then
+        assertEquals((long) INSTANCES * (NODES - 1), lagNanos.size());
+
+        Collections.sort(lagNanos);
+        System.out.printf("%nnodes %d, instances registered on node 1: %d%n", NODES, INSTANCES);
+        System.out.printf("replication lag to peers: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(lagNanos, 0.50), percentile(lagNanos, 0.99), percentile(lagNanos, 1.0));
+        System.out.printf("registrations: %d replicated to %d peers in %d batch requests%n",
+                INSTANCES, NODES - 1, registrationBatches);
+        System.out.printf("heartbeats: %d replicated to %d peers in %d batch requests%n",
+                INSTANCES, NODES - 1, heartbeatBatches);
+    }
+
+    // polls the peers and records, per instance and peer, when it first
+    // appeared; runs while the instances are being registered
+    private List<Long> awaitReplication(AtomicLongArray registeredAt) throws InterruptedException {
+        List<Long> lags = new ArrayList<>();
+        boolean[][] seen = new boolean[NODES][INSTANCES];
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (lags.size() < INSTANCES * (NODES - 1) && System.nanoTime() < deadline) {
+            for (int node = 1; node < NODES; node++) {
+                PeerAwareInstanceRegistry registry = nodes.get(node).getBean(PeerAwareInstanceRegistry.class);
+                for (int i = 0; i < INSTANCES; i++) {
+                    if (!seen[node][i] && registry.getInstanceByAppAndId(app(i), instanceId(i), false) != null) {
+                        long seenAt = System.nanoTime();
+                        seen[node][i] = true;
+                        lags.add(seenAt - registeredAt.get(i));
+                    }
+                }
+            }
+            Thread.sleep(1);
+        }
+        return lags;
+    }
+
+    private HttpRequest registerRequest(int port, int instance) {
+        String body = """
+                {"instance":{"instanceId":"%s","hostName":"host-%d.example","app":"%s","ipAddr":"10.1.%d.%d",\
+                "status":"UP","port":{"$":8080,"@enabled":"true"},"securePort":{"$":443,"@enabled":"false"},\
+                "dataCenterInfo":{"@class":"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo","name":"MyOwn"},\
+                "leaseInfo":{"renewalIntervalInSecs":30,"durationInSecs":90},"vipAddress":"replication-app",\
+                "lastDirtyTimestamp":"1"}}"""
+                .formatted(instanceId(instance), instance, app(instance), instance / 256, instance % 256);
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/eureka/apps/" + app(instance)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest heartbeatRequest(int port, int instance) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/eureka/apps/" + app(instance) + "/"
+                + instanceId(instance) + "?status=UP&lastDirtyTimestamp=1"))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static void expect(int status, HttpResponse<?> response) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(response.request().method() + " " + response.request().uri()
+                    + " returned " + response.statusCode());
+        }
+    }
+
+    private static String app(int instance) {
+        return "REPLICATION-APP";
+    }
+
+    private static String instanceId(int instance) {
+        return "replicated-" + instance;
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1e6;
+    }
+}
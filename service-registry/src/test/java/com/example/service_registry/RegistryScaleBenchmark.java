@@ -0,0 +1,365 @@
+package com.example.service_registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.util.EurekaMonitors;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Starts the registry in-process and simulates a fleet of Eureka clients
+ * registering, heartbeating, fetching deltas and cancelling, then reports
+ * registry CPU, heap, response cache hit rate and heartbeat processing latency.
+ *
+ * The fleet runs in a JVM of its own ({@link Fleet}), driven one phase at a
+ * time over its standard input, so the CPU time of this process is the
+ * registry's: its request threads, its timers and its share of GC and JIT, but
+ * none of the HTTP client's selector, worker or pool threads.
+ *
+ * Run with {@code mvn test -Pbenchmark}. The fleet size can be changed with
+ * {@code -Dharness.instances=5000 -Dharness.apps=100 -Dharness.rounds=20}.
+ * A round compresses one 30 second client cycle: every instance sends one
+ * heartbeat and fetches one delta.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.instance.hostname=localhost",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false",
+        "eureka.server.enable-self-preservation=false",
+        "logging.level.com.netflix.eureka=WARN"
+})
+@Import(RegistryScaleBenchmark.HeartbeatTimingConfig.class)
+public class RegistryScaleBenchmark {
+
+    private static final int INSTANCES = Integer.getInteger("harness.instances", 2000);
+    private static final int APPS = Integer.getInteger("harness.apps", 50);
+    private static final int ROUNDS = Integer.getInteger("harness.rounds", 10);
+    private static final int CLIENT_THREADS = Integer.getInteger("harness.clients", 64);
+
+    // server-side time spent on heartbeats (PUT /eureka/apps/{app}/{id}), in nanos
+    static final ConcurrentLinkedQueue<Long> heartbeatNanos = new ConcurrentLinkedQueue<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PeerAwareInstanceRegistry registry;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private Process fleet;
+    private PrintWriter fleetCommands;
+    private BufferedReader fleetReplies;
+
+    // imported rather than a nested @TestConfiguration, which the other
+    // benchmarks' component scans would pick up
+    static class HeartbeatTimingConfig {
+
+        @Bean
+        FilterRegistrationBean<Filter> heartbeatTimingFilter() {
+            Filter filter = (request, response, chain) -> {
+                boolean heartbeat = "PUT".equals(((HttpServletRequest) request).getMethod());
+                long start = System.nanoTime();
+                chain.doFilter(request, response);
+                if (heartbeat) {
+                    heartbeatNanos.add(System.nanoTime() - start);
+                }
+            };
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+            registration.addUrlPatterns("/eureka/apps/*");
+            return registration;
+        }
+    }
+
+    @BeforeAll
+    void startFleet() throws IOException {
+        fleet = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Fleet.class.getName(),
+                String.valueOf(port), String.valueOf(INSTANCES), String.valueOf(APPS),
+                String.valueOf(CLIENT_THREADS))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        fleetCommands = new PrintWriter(fleet.getOutputStream(), true, StandardCharsets.UTF_8);
+        fleetReplies = new BufferedReader(new InputStreamReader(fleet.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @AfterAll
+    void stopFleet() throws InterruptedException {
+        fleetCommands.close();
+        if (!fleet.waitFor(10, TimeUnit.SECONDS)) {
+            fleet.destroyForcibly();
+        }
+    }
+
+    @Test
+    void fleet() throws Exception {
+        System.out.printf("Simulating %d instances of %d apps for %d rounds with %d client threads%n",
+                INSTANCES, APPS, ROUNDS, CLIENT_THREADS);
+
+        // Given
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        // When
+        Phase register = run("register", Fleet.REGISTER);
+        assertEquals(INSTANCES, registeredInstances());
+
+        long fetchesBefore = EurekaMonitors.GET_ALL_DELTA.getCount();
+        long missesBefore = EurekaMonitors.GET_ALL_CACHE_MISS_DELTA.getCount();
+        heartbeatNanos.clear();
+        List<Phase> rounds = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            rounds.add(run("round " + (round + 1), Fleet.ROUND));
+        }
+        long fetches = EurekaMonitors.GET_ALL_DELTA.getCount() - fetchesBefore;
+        long misses = EurekaMonitors.GET_ALL_CACHE_MISS_DELTA.getCount() - missesBefore;
+        List<Long> heartbeats = new ArrayList<>(heartbeatNanos);
+
+        System.gc();
+        long heapRegistered = memory.getHeapMemoryUsage().getUsed();
+
+        Phase cancel = run("cancel", Fleet.CANCEL);
+
+        // Then
+        assertEquals(0, registeredInstances());
+        assertEquals((long) INSTANCES * ROUNDS, fetches);
+
+        System.out.println();
+        System.out.printf("%-10s %10s %12s %14s%n", "phase", "wall ms", "requests/s", "registry cpu %");
+        report(register, INSTANCES);
+        rounds.forEach(phase -> report(phase, 2L * INSTANCES));
+        report(cancel, INSTANCES);
+        System.out.println();
+        System.out.printf("heap: %.1f MB with %d instances registered (%.2f KB per instance)%n",
+                (heapRegistered - heapBefore) / 1048576.0, INSTANCES,
+                (heapRegistered - heapBefore) / 1024.0 / INSTANCES);
+        System.out.printf("delta response cache: %d fetches, %d misses, hit rate %.2f%%%n",
+                fetches, misses, 100.0 * (fetches - misses) / Math.max(1, fetches));
+        System.out.printf("heartbeat processing: p50 %.3f ms, p99 %.3f ms, max %.3f ms over %d heartbeats%n",
+                percentile(heartbeats, 0.50), percentile(heartbeats, 0.99), percentile(heartbeats, 1.0),
+                heartbeats.size());
+    }
+
+    /**
+     * Has the fleet run one phase and records the wall time and the CPU time
+     * this process, the registry, spent meanwhile.
+     */
+    private Phase run(String name, String command) throws IOException {
+        long cpuBefore = processCpuNanos();
+        long start = System.nanoTime();
+        fleetCommands.println(command);
+        String reply = fleetReplies.readLine();
+        long wallNanos = System.nanoTime() - start;
+        long registryCpu = processCpuNanos() - cpuBefore;
+        if (!Fleet.DONE.equals(reply)) {
+            throw new IllegalStateException("Fleet failed in phase " + name + ": " + reply);
+        }
+        return new Phase(name, wallNanos, registryCpu);
+    }
+
+    private void report(Phase phase, long requests) {
+        double seconds = phase.wallNanos() / 1e9;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-10s %10.1f %12.0f %14.1f%n", phase.name(), phase.wallNanos() / 1e6,
+                requests / seconds, 100.0 * phase.registryCpuNanos() / phase.wallNanos() / cores);
+    }
+
+    private int registeredInstances() {
+        return registry.getApplications().getRegisteredApplications().stream()
+                .mapToInt(app -> app.getInstances().size())
+                .sum();
+    }
+
+    private long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private static double percentile(List<Long> nanos, double percentile) {
+        if (nanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private record Phase(String name, long wallNanos, long registryCpuNanos) {
+    }
+
+    /**
+     * The simulated Eureka clients, in a JVM of their own. Reads one phase per
+     * line from standard input, runs it for every instance on
+     * {@code clients} threads and answers {@link #DONE} or the first error.
+     */
+    static final class Fleet {
+
+        static final String REGISTER = "register";
+        static final String ROUND = "round";
+        static final String CANCEL = "cancel";
+        static final String DONE = "done";
+
+        private final int port;
+        private final int instances;
+        private final int apps;
+        private final ExecutorService clients;
+        // the HTTP client keeps its own executor, the client pool only blocks on send()
+        private final HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        private Fleet(int port, int instances, int apps, int clientThreads) {
+            this.port = port;
+            this.instances = instances;
+            this.apps = apps;
+            AtomicInteger counter = new AtomicInteger();
+            this.clients = Executors.newFixedThreadPool(clientThreads, runnable -> {
+                Thread thread = new Thread(runnable, "harness-client-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        public static void main(String[] args) throws IOException {
+            Fleet fleet = new Fleet(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]));
+            BufferedReader commands = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            for (String command; (command = commands.readLine()) != null;) {
+                try {
+                    fleet.run(command);
+                    System.out.println(DONE);
+                } catch (Exception ex) {
+                    System.out.println(ex.getCause() != null ? ex.getCause() : ex);
+                }
+                System.out.flush();
+            }
+        }
+
+        private void run(String command) throws Exception {
+            InstanceAction action = switch (command) {
+                case REGISTER -> i -> expect(204, send(registerRequest(i)));
+                case ROUND -> i -> {
+                    expect(200, send(heartbeatRequest(i)));
+                    expect(200, send(deltaRequest()));
+                };
+                case CANCEL -> i -> expect(200, send(cancelRequest(i)));
+                default -> throw new IllegalArgumentException("Unknown phase " + command);
+            };
+            List<Callable<Void>> tasks = new ArrayList<>(instances);
+            for (int i = 0; i < instances; i++) {
+                int instance = i;
+                tasks.add(() -> {
+                    action.run(instance);
+                    return null;
+                });
+            }
+            for (Future<Void> future : clients.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+
+        private HttpRequest registerRequest(int instance) {
+            String app = app(instance);
+            String body = """
+                    {"instance":{"instanceId":"%s","hostName":"host-%d.example","app":"%s","ipAddr":"10.0.%d.%d",\
+                    "status":"UP","port":{"$":8080,"@enabled":"true"},"securePort":{"$":443,"@enabled":"false"},\
+                    "dataCenterInfo":{"@class":"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo","name":"MyOwn"},\
+                    "leaseInfo":{"renewalIntervalInSecs":30,"durationInSecs":90},"vipAddress":"%s",\
+                    "lastDirtyTimestamp":"1"}}"""
+                    .formatted(instanceId(instance), instance, app, instance / 256, instance % 256, app.toLowerCase());
+            return HttpRequest.newBuilder(uri("/eureka/apps/" + app))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest heartbeatRequest(int instance) {
+            return HttpRequest.newBuilder(uri("/eureka/apps/" + app(instance) + "/" + instanceId(instance)
+                    + "?status=UP&lastDirtyTimestamp=1"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+
+        private HttpRequest deltaRequest() {
+            return HttpRequest.newBuilder(uri("/eureka/apps/delta"))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest cancelRequest(int instance) {
+            return HttpRequest.newBuilder(uri("/eureka/apps/" + app(instance) + "/" + instanceId(instance)))
+                    .DELETE()
+                    .build();
+        }
+
+        private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private static void expect(int status, HttpResponse<String> response) {
+            if (response.statusCode() != status) {
+                throw new IllegalStateException(response.request().method() + " " + response.request().uri()
+                        + " returned " + response.statusCode());
+            }
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        private String app(int instance) {
+            return "HARNESS-APP-" + (instance % apps);
+        }
+
+        private static String instanceId(int instance) {
+            return "harness-" + instance;
+        }
+
+        @FunctionalInterface
+        private interface InstanceAction {
+            void run(int instance) throws Exception;
+        }
+    }
+}
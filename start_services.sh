@@ -13,6 +13,10 @@ wait_for_service() {
   echo "$name is up!"
 }
 
+# shared by config-server and the services to authenticate config change
+# subscriptions and notifications
+export CONFIG_PUSH_SECRET="${CONFIG_PUSH_SECRET:-$(openssl rand -hex 16)}"
+
 # Start config-server
 echo "Starting config-server..."
 cd config-server || exit
@@ -48,7 +52,8 @@ wait_for_service "api-gateway" 8085
 echo "Starting customer-service..."
 cd customer-service || exit
 mvn clean install
-mvn spring-boot:run &
+# every instance needs its own ID generator worker ID
+mvn spring-boot:run -Dspring-boot.run.arguments=--id-generator.worker-id=1 &
 CUSTOMER_PID=$!
 cd ..
 
@@ -58,7 +63,8 @@ wait_for_service "customer-service" 8082
 echo "Starting order-service..."
 cd order-service || exit
 mvn clean install
-mvn spring-boot:run &
+# every instance needs its own ID generator worker ID
+mvn spring-boot:run -Dspring-boot.run.arguments=--id-generator.worker-id=1 &
 CUSTOMER_PID=$!
 cd ..
 
@@ -0,0 +1,65 @@
+#!/bin/bash
+
+# Compares time to first HTTP response of a service started from its plain
+# jar against the fast-startup build (Spring AOT + class data sharing).
+#
+# Usage: ./startup_benchmark.sh <order-service|customer-service> [runs]
+# Build first with: mvn package -Pfast-startup -DskipTests
+# Extra JVM options, e.g. the datasource, can be passed in JAVA_OPTS.
+
+SERVICE=${1:?usage: $0 <order-service|customer-service> [runs]}
+RUNS=${2:-5}
+
+case $SERVICE in
+  order-service) PORT=8081 ;;
+  customer-service) PORT=8082 ;;
+  *) echo "Unknown service $SERVICE"; exit 1 ;;
+esac
+
+JAR=$SERVICE-0.0.1-SNAPSHOT.jar
+# the services do not start without an ID generator worker ID
+JAVA_OPTS="-Did-generator.worker-id=1 $JAVA_OPTS"
+TARGET=$(cd "$SERVICE/target" && pwd) || exit
+if [ ! -f "$TARGET/fast-startup/application.jsa" ]; then
+  echo "$TARGET/fast-startup/application.jsa not found, build with mvn package -Pfast-startup first"
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+# Starts the service in directory $1 with the remaining arguments and prints
+# the milliseconds until the first response, whatever its status
+time_to_first_response() {
+  local dir=$1
+  shift
+  local start
+  start=$(now_ms)
+  (cd "$dir" && exec java $JAVA_OPTS "$@" > /dev/null 2>&1) &
+  local pid=$!
+  until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+    if ! kill -0 $pid 2> /dev/null; then
+      echo "failed"
+      return
+    fi
+    sleep 0.05
+  done
+  echo $(( $(now_ms) - start ))
+  kill $pid
+  wait $pid 2> /dev/null
+}
+
+report() {
+  local name=$1
+  shift
+  local times=()
+  for ((i = 1; i <= RUNS; i++)); do
+    times+=("$(time_to_first_response "$@")")
+  done
+  echo "$name: ${times[*]} ms"
+}
+
+report "baseline    " "$TARGET" -jar "$JAR"
+report "fast-startup" "$TARGET/fast-startup" -XX:SharedArchiveFile=application.jsa \
+  -Dspring.aot.enabled=true -Dspring.cloud.refresh.enabled=false -jar "$JAR"